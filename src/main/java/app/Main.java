@@ -11,12 +11,17 @@ import app.repository.TableRepositoryImpl;
 import app.xml.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 public class Main {
 
     private static DbConnection dbConnection;
     private static File file;
     private static XmlImporter.Settings settings;
+    private static final CachingXmlElementParser elementParser =
+            new CachingXmlElementParser(new XmlElementParserImpl());
 
     private static void readSettings(){
         dbConnection = getDbConnection();
@@ -37,6 +42,7 @@ public class Main {
         String queueSize = System.getProperty("queueSize");
         String maxThreads = System.getProperty("threads");
         String rowSize = System.getProperty("rowSize");
+        String convertThreads = System.getProperty("convertThreads");
 
         XmlImporter.Settings defaultSettings = XmlImporter.Settings.builder().build();
 
@@ -50,9 +56,70 @@ public class Main {
                 .threads(maxThreads == null
                         ? defaultSettings.getThreads()
                         : Integer.parseInt(maxThreads))
+                .convertThreads(convertThreads == null
+                        ? defaultSettings.getConvertThreads()
+                        : Integer.parseInt(convertThreads))
                 .build();
     }
 
+    /**
+     * Кодировка файла из параметра "charset". По умолчанию - UTF-8.
+     */
+    private static Charset getCharset(){
+        String charset = System.getProperty("charset");
+        return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+    }
+
+    /**
+     * Проверяет, можно ли отобразить файл в память: {@link XmlMappedLexer} читает только несжатый UTF-8.
+     */
+    private static boolean canMapFile() throws IOException {
+        return StandardCharsets.UTF_8.equals(getCharset()) && !XmlFileInput.isCompressed(file);
+    }
+
+    /**
+     * Создаёт поток событий xml-файла. Лексер выбирается параметром "parser":
+     * "mapped" - {@link XmlMappedLexer}, иначе - {@link XmlCharLexer}.
+     * Сжатый файл и файл не в UTF-8 всегда читаются {@link XmlCharLexer}.
+     */
+    private static XmlEventReader createEventReader() throws IOException {
+        if("mapped".equals(System.getProperty("parser")) && canMapFile()){
+            return new XmlEventReaderImpl(new XmlMappedLexer(file.toPath()), elementParser);
+        }
+        return new XmlEventReaderImpl(file, elementParser, getCharset());
+    }
+
+    /**
+     * Создаёт считыватель строк. Если задан параметр "fromRow" или "toRow", читаются только строки
+     * с номерами из [fromRow, toRow) по индексу строк {@link XmlRowIndex}, который строится при первом запуске
+     * и сохраняется рядом с файлом (шаг индекса - параметр "rowIndexStep").
+     * Если в параметре "readThreads" указано больше 1 потока, файл разбирается параллельно {@link ParallelXmlTableReader}.
+     * Сжатый файл и файл не в UTF-8 разбираются последовательно: строки до fromRow разбираются и пропускаются
+     * {@link RowRangeReader}.
+     */
+    private static XmlTableReader createTableReader() throws IOException {
+        String fromRow = System.getProperty("fromRow");
+        String toRow = System.getProperty("toRow");
+        if(fromRow != null || toRow != null){
+            long from = fromRow == null ? 0 : Long.parseLong(fromRow);
+            long to = toRow == null ? Long.MAX_VALUE : Long.parseLong(toRow);
+            RowRangeReader.checkRange(from, to);
+            if(!canMapFile()){
+                return new RowRangeReader(new XmlTableReaderImpl(createEventReader()), from, to - from);
+            }
+            String step = System.getProperty("rowIndexStep");
+            XmlRowIndex index = XmlRowIndex.loadOrBuild(file.toPath(), elementParser,
+                    step == null ? XmlRowIndex.DEFAULT_STEP : Integer.parseInt(step));
+            return new XmlTableReaderFactory(file, elementParser).openRows(index, from, to);
+        }
+        String readThreads = System.getProperty("readThreads");
+        int threads = readThreads == null ? 1 : Integer.parseInt(readThreads);
+        if(threads > 1 && canMapFile()){
+            return new ParallelXmlTableReader(file, elementParser, threads);
+        }
+        return new XmlTableReaderImpl(createEventReader());
+    }
+
     private static File getFile(){
         System.out.println(System.getProperty("file"));
         return new File(System.getProperty("file"));
@@ -75,8 +142,7 @@ public class Main {
         RowRepositoryImpl repository = new RowRepositoryImpl(connectionPool, simpleRowDao);
         TableRepositoryImpl tableRepository = new TableRepositoryImpl(connectionPool, simpleTableDao);
 
-        XmlParser parser = new XmlLazyParser(file, new XmlElementParserImpl());
-        XmlTableReader tableReader = new XmlTableReaderImpl(parser);
+        XmlTableReader tableReader = createTableReader();
 
         XmlImporter xmlImporter =
                 new XmlImporter(repository, tableRepository, tx, settings);
@@ -0,0 +1,70 @@
+package app;
+
+import app.imports.XmlTableProfile;
+import app.imports.XmlTableProfiler;
+import app.table.DataType;
+import app.xml.*;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Проверка xml-файла без подключения к БД: корректность файла, кол-во строк, строки, которые будут пропущены
+ * при импорте, и максимальная длина значений столбцов ({@link XmlTableProfiler}).
+ * Параметры задаются так же, как для {@link Main}: file, charset, readThreads (по умолчанию - кол-во ядер)
+ * и types - типы столбцов вида {@code id:integer;price:double} (имена {@link DataType}).
+ * Если файл некорректен, программа завершается с кодом 1.
+ */
+public class ProfileMain {
+
+    private static final CachingXmlElementParser elementParser =
+            new CachingXmlElementParser(new XmlElementParserImpl());
+
+    /**
+     * Типы столбцов из параметра "types". Столбцы без типа считаются строковыми.
+     */
+    private static Map<String, DataType> getColumnTypes(){
+        Map<String, DataType> types = new HashMap<>();
+        String value = System.getProperty("types");
+        if(value == null || value.isBlank()){
+            return types;
+        }
+        for(String columnType : value.split(";")){
+            String[] parts = columnType.split(":");
+            if(parts.length != 2){
+                throw new IllegalArgumentException(
+                        String.format("Column type must be set as 'column:type'. Met: '%s'", columnType)
+                );
+            }
+            types.put(parts[0].trim(), DataType.valueOf(parts[1].trim().toUpperCase(Locale.ROOT)));
+        }
+        return types;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File file = new File(System.getProperty("file"));
+        String charsetName = System.getProperty("charset");
+        Charset charset = charsetName == null ? StandardCharsets.UTF_8 : Charset.forName(charsetName);
+        String readThreads = System.getProperty("readThreads");
+        int threads = readThreads == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(readThreads);
+
+        XmlTableProfiler profiler = new XmlTableProfiler(getColumnTypes());
+        XmlTableProfile profile;
+        if(StandardCharsets.UTF_8.equals(charset) && !XmlFileInput.isCompressed(file)){
+            profile = profiler.profile(new XmlTableReaderFactory(file, elementParser), file.length(), threads);
+        } else {
+            try(XmlTableReaderImpl reader =
+                        new XmlTableReaderImpl(new XmlEventReaderImpl(file, elementParser, charset))){
+                profile = profiler.profile(reader, file.length());
+            }
+        }
+        System.out.println(profile);
+        if(!profile.isValid()){
+            System.exit(1);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package app.dao;
 
 import app.table.Column;
-import app.table.Row;
+import app.table.RowBatch;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -15,26 +15,28 @@ public interface RowDao extends Dao {
      * Вставляет строки по указанным столбцам в таблицу.
      * Если строку вставить нельзя: нарушает ограничение и т.д. -
      *      она пропускается(on conflict do nothing).
-     * @param rows - строки
+     * @param rows - пачка строк
+     * @param rowIndexes - номера строк пачки, которые нужно вставить
      * @param columns - столбцы, значения по которым будут вставлены
      * @param tableName - имя таблицы, в которую нужно вставить
      * @return кол-во вставленных строк
      * @throws SQLException - если произошла ошибка во время вставки строк
      */
-    int insertRowsAsPossible(List<Row> rows, List<Column> columns, String tableName) throws SQLException;
+    int insertRowsAsPossible(RowBatch rows, int[] rowIndexes, List<Column> columns, String tableName)
+            throws SQLException;
 
     /**
      * Проверяет наличие дубликатов строк в таблице по указанным столбцам.
      * Две строки считаются равными, если у них совпадают значения по каждому из указанных столбцов:
      *      null-ы тоже сравниваются.
      * Например, {null,2} и {null,2} считаются равными.
-     * @param rows - строки, у которых необъодимо проверить наличе дубликата
+     * @param rows - пачка строк, у которых необъодимо проверить наличе дубликата
      * @param tableName - имя таблицы
      * @param uniqueColumns - столбцы, по которым будут сравниваться строки
-     * @return список с результатом по каждой строке из полученных.
+     * @return список с результатом по каждой строке пачки.
      *       Результат равен true, если у строки есть дубликат, иначе - false.
      * @throws SQLException - если произошла ошибка во время выполнения запроса
      */
-    List<Boolean> hasDuplicateRow(List<Row> rows, String tableName, List<Column> uniqueColumns) throws SQLException;
+    List<Boolean> hasDuplicateRow(RowBatch rows, String tableName, List<Column> uniqueColumns) throws SQLException;
 
 }
@@ -1,11 +1,13 @@
 package app.dao;
 
 import app.table.Column;
-import app.table.Row;
+import app.table.DataType;
+import app.table.RowBatch;
 import app.utils.DbUtils;
 import app.imports.transaction.ThreadConnectionPool;
 import app.utils.QueryCreator;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,18 +25,20 @@ public class RowDaoImpl extends AbstractDao implements RowDao {
      * Вставляет строки по указанным столбцам в таблицу.
      * Если строку вставить нельзя: нарушает ограничение и т.д. -
      *      она пропускается(on conflict do nothing).
-     * @param rows строки
+     * @param rows пачка строк
+     * @param rowIndexes номера строк пачки, которые нужно вставить
      * @param columns столбцы, значения по которым будут вставлены
      * @param tableName имя таблицы, в которую нужно вставить
      * @return кол-во вставленных строк
      * @throws SQLException если произошла ошибка во время вставки строк
      */
-    public int insertRowsAsPossible(List<Row> rows, List<Column> columns, String tableName) throws SQLException {
-        if(rows.isEmpty() || columns.isEmpty()){
+    public int insertRowsAsPossible(RowBatch rows, int[] rowIndexes, List<Column> columns, String tableName)
+            throws SQLException {
+        if(rowIndexes.length == 0 || columns.isEmpty()){
             return 0;
         }
 
-        String query = QueryCreator.insertRowStatement(tableName, columns, rows.size());
+        String query = QueryCreator.insertRowStatement(tableName, columns, rowIndexes.length);
         query = query + " on conflict do nothing";
 
         Connection conn = null;
@@ -42,12 +46,10 @@ public class RowDaoImpl extends AbstractDao implements RowDao {
         try{
             conn = getConnection();
             preparedStatement = conn.prepareStatement(query);
-            for(int i = 0; i < rows.size();++i){
-                for(int j = 0 ; j < columns.size();++j){
-                    preparedStatement.setObject(
-                            i * columns.size() + j + 1,
-                            rows.get(i).get(columns.get(j))
-                    );
+            int[] ordinals = ordinalsOf(rows, columns);
+            for(int i = 0; i < rowIndexes.length;++i){
+                for(int j = 0 ; j < ordinals.length;++j){
+                    setValue(preparedStatement, i * ordinals.length + j + 1, rows, ordinals[j], rowIndexes[i]);
                 }
             }
 
@@ -68,27 +70,31 @@ public class RowDaoImpl extends AbstractDao implements RowDao {
      * <p>В СУБД выполняется 1 запрос:<br>
      * {@link QueryCreator#hasDuplicateStatement(int rowsCount, List columns, String tableName)} </p>
      *
-     * @param rows строки, у которых необъодимо проверить наличе дубликата
+     * @param rows пачка строк, у которых необъодимо проверить наличе дубликата
      * @param tableName имя таблицы
      * @param uniqueColumns столбцы, по которым будут сравниваться строки
-     * @return список с результатом по каждой строке из полученных.
+     * @return список с результатом по каждой строке пачки.
      *       <p>Результат равен true, если у строки есть дубликат, иначе - false.</p>
      * @throws SQLException если произошла ошибка во время выполнения запроса
      */
-    public List<Boolean> hasDuplicateRow(List<Row> rows, String tableName, List<Column> uniqueColumns)
+    public List<Boolean> hasDuplicateRow(RowBatch rows, String tableName, List<Column> uniqueColumns)
             throws SQLException {
 
         Connection conn = null;
         PreparedStatement preparedStatement = null;
         try{
             conn = getConnection();
-            String query = QueryCreator.hasDuplicateStatement(rows.size(), uniqueColumns, tableName);
+            int[] ordinals = ordinalsOf(rows, uniqueColumns);
+            // столбцы с типами из пачки: по ним в запросе приводятся значения первой строки
+            List<Column> typedColumns = new ArrayList<>(ordinals.length);
+            for(int ordinal : ordinals){
+                typedColumns.add(rows.getSchema().getColumn(ordinal));
+            }
+            String query = QueryCreator.hasDuplicateStatement(rows.size(), typedColumns, tableName);
             preparedStatement = conn.prepareStatement(query);
-            int uniqueColumnSize = uniqueColumns.size();
             for(int i = 0; i<rows.size();++i){
-                for(int j = 0; j < uniqueColumns.size();++j){
-                    Column col = uniqueColumns.get(j);
-                    preparedStatement.setObject(i*uniqueColumnSize + j + 1, rows.get(i).get(col));
+                for(int j = 0; j < ordinals.length;++j){
+                    setValue(preparedStatement, i * ordinals.length + j + 1, rows, ordinals[j], i);
                 }
             }
 
@@ -102,4 +108,73 @@ public class RowDaoImpl extends AbstractDao implements RowDao {
             DbUtils.closeQuietly(preparedStatement);
         }
     }
+
+    /**
+     * Переводит столбцы в номера столбцов пачки.
+     * @throws IllegalArgumentException - если столбца нет в пачке
+     */
+    private static int[] ordinalsOf(RowBatch rows, List<Column> columns) {
+        int[] ordinals = new int[columns.size()];
+        for(int i = 0; i < ordinals.length; ++i){
+            ordinals[i] = rows.getSchema().ordinalOf(columns.get(i).getName());
+            if(ordinals[i] < 0){
+                throw new IllegalArgumentException(
+                        String.format("Column '%s' is not in the row batch.", columns.get(i).getName())
+                );
+            }
+        }
+        return ordinals;
+    }
+
+    /**
+     * Устанавливает параметр запроса из пачки: значения числовых и логических столбцов передаются без упаковки,
+     *      null передаётся с типом столбца.
+     * Дата и время передаются как {@link java.time.LocalDateTime} и {@link java.time.LocalDate},
+     *      numeric - как {@link java.math.BigDecimal}, uuid - как {@link java.util.UUID}.
+     *      Json передаётся строкой с типом {@link Types#OTHER}: тип значения определяет postgresql по столбцу.
+     */
+    private static void setValue(PreparedStatement statement, int parameterIndex, RowBatch rows, int column, int row)
+            throws SQLException {
+        DataType type = rows.getType(column);
+        if(rows.isNull(column, row)){
+            if(type == null){
+                statement.setObject(parameterIndex, null);
+            } else {
+                statement.setNull(parameterIndex, type.getJdbcType());
+            }
+            return;
+        }
+        if(type == null){
+            statement.setObject(parameterIndex, rows.getObject(column, row));
+            return;
+        }
+        switch(type){
+            case INTEGER:
+                statement.setInt(parameterIndex, rows.getInt(column, row));
+                break;
+            case LONG:
+                statement.setLong(parameterIndex, rows.getLong(column, row));
+                break;
+            case DOUBLE:
+                statement.setDouble(parameterIndex, rows.getDouble(column, row));
+                break;
+            case FLOAT:
+                statement.setFloat(parameterIndex, rows.getFloat(column, row));
+                break;
+            case BOOLEAN:
+                statement.setBoolean(parameterIndex, rows.getBoolean(column, row));
+                break;
+            case STRING:
+                statement.setString(parameterIndex, rows.getString(column, row));
+                break;
+            case NUMERIC:
+                statement.setBigDecimal(parameterIndex, (BigDecimal) rows.getObject(column, row));
+                break;
+            case JSONB:
+                statement.setObject(parameterIndex, rows.getObject(column, row), Types.OTHER);
+                break;
+            default:
+                statement.setObject(parameterIndex, rows.getObject(column, row));
+        }
+    }
 }
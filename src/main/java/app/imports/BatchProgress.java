@@ -0,0 +1,66 @@
+package app.imports;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ход импорта по пачкам строк, которые завершаются не в порядке чтения: пачки преобразуются и вставляются
+ * в несколько потоков. Каждая пачка получает порядковый номер при чтении, и ход импорта - кол-во строк
+ * в пачках, завершённых подряд начиная с первой. Потокобезопасен.
+ */
+class BatchProgress {
+
+    /**
+     * Шаг, с которым сообщается о ходе импорта.
+     */
+    private final long reportStep;
+
+    /**
+     * Номер первой незавершённой пачки и кол-во строк в пачках до неё.
+     */
+    private long nextSequence;
+    private long completedRows;
+
+    /**
+     * Кол-во строк в завершённых пачках, номер которых больше {@link #nextSequence}.
+     */
+    private final Map<Long, Integer> completedAhead = new HashMap<>();
+
+    /**
+     * @param reportStep - шаг в строках, с которым сообщается о ходе импорта
+     */
+    BatchProgress(long reportStep) {
+        this.reportStep = reportStep;
+    }
+
+    /**
+     * Отмечает пачку завершённой.
+     * @param sequence - порядковый номер пачки
+     * @param rows - кол-во строк, прочитанных в пачку
+     * @return true - кол-во строк в пачках, завершённых подряд, перешло через кратное шагу
+     */
+    synchronized boolean complete(long sequence, int rows) {
+        long reportsBefore = completedRows / reportStep;
+        completedAhead.put(sequence, rows);
+        Integer next;
+        while((next = completedAhead.remove(nextSequence)) != null){
+            completedRows += next;
+            ++nextSequence;
+        }
+        return completedRows / reportStep != reportsBefore;
+    }
+
+    /**
+     * @return кол-во пачек, завершённых подряд начиная с первой
+     */
+    synchronized long getCompletedBatches() {
+        return nextSequence;
+    }
+
+    /**
+     * @return кол-во строк в пачках, завершённых подряд начиная с первой
+     */
+    synchronized long getCompletedRows() {
+        return completedRows;
+    }
+}
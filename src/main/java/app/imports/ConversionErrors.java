@@ -0,0 +1,128 @@
+package app.imports;
+
+import app.table.Column;
+import app.table.RowSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики значений, которые не удалось преобразовать в тип столбца, по номерам столбцов набора.
+ * Вместе со счётчиком для каждого столбца сохраняются первые несколько таких значений для итогового отчёта.
+ *
+ * Ошибки записываются одновременно из нескольких потоков преобразования, поэтому счётчики - {@link LongAdder}:
+ * на файлах с большим кол-вом некорректных значений потоки не состязаются за одну ячейку памяти.
+ * Строка значения создаётся, только пока для столбца не набраны образцы.
+ */
+public final class ConversionErrors {
+
+    private static final int DEFAULT_SAMPLE_SIZE = 5;
+
+    private final RowSchema schema;
+    private final LongAdder[] counts;
+    private final int sampleSize;
+
+    /**
+     * Образцы значений: для столбца i - ячейки с i * sampleSize по (i + 1) * sampleSize - 1.
+     */
+    private final AtomicReferenceArray<String> samples;
+
+    /**
+     * Кол-во занятых под образцы ячеек по номерам столбцов. Может превышать sampleSize.
+     */
+    private final AtomicIntegerArray sampleCounts;
+
+    public ConversionErrors(RowSchema schema) {
+        this(schema, DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * @param schema - набор столбцов
+     * @param sampleSize - кол-во сохраняемых значений на столбец
+     */
+    public ConversionErrors(RowSchema schema, int sampleSize) {
+        if(sampleSize < 0){
+            throw new IllegalArgumentException("Sample size must be non-negative.");
+        }
+        this.schema = schema;
+        this.sampleSize = sampleSize;
+        this.counts = new LongAdder[schema.size()];
+        for(int i = 0; i < counts.length; ++i){
+            counts[i] = new LongAdder();
+        }
+        this.samples = new AtomicReferenceArray<>(schema.size() * sampleSize);
+        this.sampleCounts = new AtomicIntegerArray(schema.size());
+    }
+
+    /**
+     * Учитывает значение столбца {@code chars[from, to)}, которое не удалось преобразовать.
+     * @param column - номер столбца
+     */
+    public void record(int column, CharSequence chars, int from, int to) {
+        counts[column].increment();
+        if(sampleCounts.get(column) < sampleSize){
+            int sample = sampleCounts.getAndIncrement(column);
+            if(sample < sampleSize){
+                samples.set(column * sampleSize + sample, chars.subSequence(from, to).toString());
+            }
+        }
+    }
+
+    /**
+     * @return кол-во непреобразованных значений столбца
+     */
+    public long getCount(int column) {
+        return counts[column].sum();
+    }
+
+    /**
+     * @return кол-во непреобразованных значений всех столбцов
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for(LongAdder count : counts){
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return сохранённые значения столбца в порядке записи
+     */
+    public List<String> getSamples(int column) {
+        List<String> result = new ArrayList<>(sampleSize);
+        for(int i = 0; i < sampleSize; ++i){
+            String sample = samples.get(column * sampleSize + i);
+            if(sample != null){
+                result.add(sample);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return строки отчёта по столбцам, в которых есть непреобразованные значения
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        for(int i = 0; i < counts.length; ++i){
+            long count = getCount(i);
+            if(count == 0){
+                continue;
+            }
+            Column column = schema.getColumn(i);
+            StringBuilder line = new StringBuilder(String.format(
+                    "Column '%s' of type %s: %d values cannot be converted", column.getName(), column.getType(), count
+            ));
+            List<String> columnSamples = getSamples(i);
+            for(int j = 0; j < columnSamples.size(); ++j){
+                line.append(j == 0 ? ", e.g. '" : ", '").append(columnSamples.get(j)).append('\'');
+            }
+            lines.add(line.append('.').toString());
+        }
+        return lines;
+    }
+}
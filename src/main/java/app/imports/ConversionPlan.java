@@ -0,0 +1,167 @@
+package app.imports;
+
+import app.imports.converter.CharParsers;
+import app.imports.converter.ConverterFactory;
+import app.imports.converter.PrimitiveConverter;
+import app.table.DataType;
+import app.table.Row;
+import app.table.RowBatch;
+import app.table.RowSchema;
+
+import java.util.List;
+
+/**
+ * План преобразования строковых значений строк в типы столбцов, который составляется один раз на импорт
+ * по набору столбцов для вставки ({@link ImportTableDto#getRowSchema()}).
+ *
+ * Для каждого номера столбца заранее выбирается способ разбора, поэтому строка преобразуется одним циклом
+ * без поиска конвертера в {@link ConverterFactory} и проверок наличия столбцов. Типы из {@link DataType}, для которых
+ * есть разбор в {@link CharParsers}, разбираются статическими вызовами по метке типа: место вызова не зависит
+ * от кол-ва классов конвертеров, и JIT может встроить разбор в цикл. Остальные типы преобразуются
+ * через {@link PrimitiveConverter} столбца.
+ * О неудаче разбор сообщает возвращаемым значением, поэтому некорректные значения не замедляют преобразование
+ * созданием исключений: они учитываются в {@link ConversionErrors}.
+ */
+public final class ConversionPlan {
+
+    private static final byte STRING = 0;
+    private static final byte INTEGER = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte FLOAT = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte OTHER = 6;
+
+    /**
+     * Результат {@link #convertRow}: все значения строки преобразованы.
+     */
+    public static final int CONVERTED = -1;
+
+    private final RowSchema schema;
+
+    /**
+     * Метка способа разбора и конвертер по номерам столбцов. Конвертер задан только для {@link #OTHER}.
+     */
+    private final byte[] kinds;
+    private final PrimitiveConverter[] converters;
+
+    private ConversionPlan(RowSchema schema, byte[] kinds, PrimitiveConverter[] converters) {
+        this.schema = schema;
+        this.kinds = kinds;
+        this.converters = converters;
+    }
+
+    /**
+     * Составляет план для набора столбцов.
+     * @param schema - набор столбцов с типами
+     * @return план
+     * @throws IllegalArgumentException - если для типа столбца нет конвертера
+     */
+    public static ConversionPlan compile(RowSchema schema) {
+        byte[] kinds = new byte[schema.size()];
+        PrimitiveConverter[] converters = new PrimitiveConverter[schema.size()];
+        for(int i = 0; i < kinds.length; ++i){
+            DataType type = schema.getColumn(i).getType();
+            kinds[i] = kindOf(type);
+            if(kinds[i] == OTHER){
+                converters[i] = type == null ? null : ConverterFactory.getFactory().getPrimitiveConverter(type);
+                if(converters[i] == null){
+                    throw new IllegalArgumentException(
+                            String.format("No converter for column '%s' of type %s.",
+                                    schema.getColumn(i).getName(), type)
+                    );
+                }
+            }
+        }
+        return new ConversionPlan(schema, kinds, converters);
+    }
+
+    private static byte kindOf(DataType type) {
+        if(type == null){
+            return OTHER;
+        }
+        switch(type){
+            case STRING: return STRING;
+            case INTEGER: return INTEGER;
+            case LONG: return LONG;
+            case DOUBLE: return DOUBLE;
+            case FLOAT: return FLOAT;
+            case BOOLEAN: return BOOLEAN;
+            default: return OTHER;
+        }
+    }
+
+    /**
+     * @return набор столбцов плана
+     */
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Преобразует строки и записывает их в пачку.
+     * Строки, значение которых не удалось преобразовать, пропускаются, а значение учитывается в счётчиках ошибок.
+     * @param rows - строки со строковыми значениями, привязанные к набору столбцов плана
+     * @param batch - пачка с набором столбцов плана, в которой достаточно места для строк
+     * @param errors - счётчики ошибок по столбцам набора плана
+     */
+    public void convertRows(List<Row> rows, RowBatch batch, ConversionErrors errors) {
+        for(Row row : rows){
+            int index = batch.addRow();
+            int failedColumn = convertRow(row, batch, index);
+            if(failedColumn != CONVERTED){
+                batch.discardLastRow();
+                String value = (String) row.get(failedColumn);
+                errors.record(failedColumn, value, 0, value.length());
+            }
+        }
+    }
+
+    /**
+     * Преобразует значения строки и записывает их в строку пачки.
+     * Преобразование останавливается на первом значении, которое не удалось преобразовать.
+     * @param row - строка со строковыми значениями, привязанная к набору столбцов плана
+     * @param batch - пачка с набором столбцов плана
+     * @param index - номер строки в пачке
+     * @return {@link #CONVERTED} - если преобразованы все значения,
+     *          иначе номер столбца, значение которого не удалось преобразовать
+     */
+    public int convertRow(Row row, RowBatch batch, int index) {
+        for(int i = 0; i < kinds.length; ++i){
+            String value = (String) row.get(i);
+            if(value == null || CharParsers.isNullToken(value, 0, value.length())){
+                batch.setNull(i, index);
+                continue;
+            }
+            int length = value.length();
+            boolean converted;
+            switch(kinds[i]){
+                case STRING:
+                    batch.setString(i, index, CharParsers.parseString(value, 0, length));
+                    converted = true;
+                    break;
+                case INTEGER:
+                    converted = CharParsers.parseIntInto(value, 0, length, batch, i, index);
+                    break;
+                case LONG:
+                    converted = CharParsers.parseLongInto(value, 0, length, batch, i, index);
+                    break;
+                case DOUBLE:
+                    converted = CharParsers.parseDoubleInto(value, 0, length, batch, i, index);
+                    break;
+                case FLOAT:
+                    converted = CharParsers.parseFloatInto(value, 0, length, batch, i, index);
+                    break;
+                case BOOLEAN:
+                    converted = CharParsers.parseBooleanInto(value, 0, length, batch, i, index);
+                    break;
+                default:
+                    converted = converters[i].convertInto(value, 0, length, batch, i, index);
+            }
+            if(!converted){
+                return i;
+            }
+        }
+        return CONVERTED;
+    }
+}
@@ -1,6 +1,7 @@
 package app.imports;
 
 import app.table.Column;
+import app.table.RowSchema;
 import app.table.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,6 +28,21 @@ public class ImportTableDto {
      */
     private List<Column> columnsForInsert;
 
+    /**
+     * Набор столбцов для вставки с типами из таблицы, к которому привязываются считанные строки.
+     */
+    private RowSchema rowSchema;
+
+    /**
+     * План преобразования значений строк в типы столбцов набора {@link #rowSchema}.
+     */
+    private ConversionPlan conversionPlan;
+
+    /**
+     * Счётчики значений по столбцам набора {@link #rowSchema}, которые не удалось преобразовать.
+     */
+    private ConversionErrors conversionErrors;
+
     public ImportTableDto(Table table, List<Column> uniqueColumns, List<Column> columnsForInsert) {
         this.table = table;
         this.uniqueColumns = uniqueColumns;
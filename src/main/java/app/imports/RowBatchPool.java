@@ -0,0 +1,48 @@
+package app.imports;
+
+import app.table.RowBatch;
+import app.table.RowSchema;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Пул пачек строк ({@link RowBatch}) одного набора столбцов и размера.
+ * Пачка возвращается в пул после завершения задачи вставки, поэтому при импорте новые массивы значений
+ * создаются только пока в работе одновременно меньше пачек, чем их было создано.
+ * Пул потокобезопасен.
+ */
+public class RowBatchPool {
+
+    private final RowSchema schema;
+    private final int batchCapacity;
+    private final BlockingQueue<RowBatch> free;
+
+    /**
+     * @param schema - набор столбцов пачек
+     * @param batchCapacity - размер пачки
+     * @param maxFree - максимальное кол-во свободных пачек в пуле. Лишние пачки не сохраняются
+     */
+    public RowBatchPool(RowSchema schema, int batchCapacity, int maxFree) {
+        this.schema = schema;
+        this.batchCapacity = batchCapacity;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, maxFree));
+    }
+
+    /**
+     * @return пустая пачка: свободная из пула либо новая
+     */
+    public RowBatch acquire() {
+        RowBatch batch = free.poll();
+        return batch != null ? batch : new RowBatch(schema, batchCapacity);
+    }
+
+    /**
+     * Очищает пачку и возвращает её в пул. После возврата пачку нельзя использовать.
+     * @param batch - пачка, полученная из {@link #acquire()}
+     */
+    public void release(RowBatch batch) {
+        batch.clear();
+        free.offer(batch);
+    }
+}
@@ -1,13 +1,13 @@
 package app.imports;
 
-import app.imports.converter.StringConverter;
 import app.imports.transaction.SerializationTransactionTask;
 import app.repository.RowRepositoryImpl;
 import app.repository.TableRepositoryImpl;
 import app.table.Column;
 import app.table.Row;
+import app.table.RowBatch;
+import app.table.RowSchema;
 import app.table.Table;
-import app.imports.converter.ConverterFactory;
 import app.imports.transaction.ThreadConnectionTransactionManagerImpl;
 import app.xml.Attribute;
 import app.xml.Node;
@@ -34,6 +34,11 @@ public class XmlImporter{
     private static final String NAME_ATTRIBUTE = "name";
     private static final String SEPARATOR = ";";
 
+    /**
+     * Шаг в строках, с которым выводится ход импорта.
+     */
+    private static final long PROGRESS_STEP = 1000;
+
     private final RowRepositoryImpl repository;
     private final TableRepositoryImpl tableRepository;
     private final ThreadConnectionTransactionManagerImpl tx;
@@ -68,6 +73,7 @@ public class XmlImporter{
      *      без блокировки таблицы в БД,
      *      но с использованием транзакций с уровнем {@link Connection#TRANSACTION_SERIALIZABLE}.
      * Строки, которые не могут быть вставлены по каким-либо причинам, пропускаются.
+     * По столбцам, значения которых не удалось преобразовать в тип столбца, в конце выводится отчёт ({@link ConversionErrors}).
      * Дубли строк определяются с помощью набора столбцов,
      *      который должен быть задан в узле({@link Node}), получаемым в {@link XmlTableReader#getTable()}.
      * Сравнение строк происходит через равенство('=') и проверку на null:
@@ -94,28 +100,49 @@ public class XmlImporter{
     public long importUniqueTableRows(XmlTableReader tableReader, Settings settings)
             throws Exception {
         ExecutorService executor = createExecutor(settings);
+        ExecutorService conversionExecutor = createConversionExecutor(settings);
         ImportTableDto importTableDto = readTableInfo(tableReader);
 
+        // пачки в работе: задачи в очереди executor-а, исполняемые задачи вставки и преобразования
+        RowBatchPool batches = new RowBatchPool(importTableDto.getRowSchema(), settings.readRowSize,
+                settings.taskQueueSize + settings.threads + settings.convertThreads);
+        BatchProgress progress = new BatchProgress(PROGRESS_STEP);
         List<Row> rows = readRows(settings.readRowSize, importTableDto, tableReader);
         AtomicLong insertedRowsCount = new AtomicLong();
         long readRows = 0;
+        long sequence = 0;
         while (!rows.isEmpty()) {
             readRows += rows.size();
-            List<Row> convertedRows = convertRowsValues(rows, importTableDto.getTable().getColumns());
-
-            runTaskForInsert(convertedRows, importTableDto, insertedRowsCount, executor);
+            runTaskForConversion(sequence++, rows, batches, importTableDto, progress, insertedRowsCount,
+                    executor, conversionExecutor);
 
-            if(readRows % 1000 == 0){
+            if(readRows % PROGRESS_STEP == 0){
                 System.out.println("Read rows = " + readRows);
             }
             rows = readRows(settings.readRowSize, importTableDto, tableReader);
         }
 
         tableReader.close();
+        // задачи преобразования добавляют задачи вставки, поэтому завершаются первыми
+        shutdownExecutorAndWaitCompletion(conversionExecutor, settings.timeToWaitExecutorCompleting);
         shutdownExecutorAndWaitCompletion(executor, settings.timeToWaitExecutorCompleting);
+        importTableDto.getConversionErrors().report().forEach(System.out::println);
         return insertedRowsCount.get();
     }
 
+    /**
+     * Создаёт executor для преобразования значений строк.
+     * Если очередь пачек на преобразование забита, читающий поток приостанавливается.
+     * @param settings настройки
+     * @return executor
+     */
+    private ExecutorService createConversionExecutor(Settings settings) {
+        return new BlockingExecutor(settings.convertThreads, settings.convertThreads,
+                0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(settings.taskQueueSize)
+        );
+    }
+
     /**
      * Создаёт executor с заданными настройками.
      * @param settings настройки
@@ -167,9 +194,26 @@ public class XmlImporter{
 
         ImportTableDto importTableDto = new ImportTableDto(table, uniqueColumns, columnsForInsert);
         checkTableColumns(importTableDto);
+        importTableDto.setRowSchema(createRowSchema(columnsForInsert, tableColumns));
+        importTableDto.setConversionPlan(ConversionPlan.compile(importTableDto.getRowSchema()));
+        importTableDto.setConversionErrors(new ConversionErrors(importTableDto.getRowSchema()));
         return importTableDto;
     }
 
+    /**
+     * Создаёт набор столбцов для вставки, один на весь импорт. Типы столбцов берутся из таблицы.
+     * @param columnsForInsert - столбцы для вставки
+     * @param tableColumns - столбцы таблицы
+     * @return набор столбцов
+     */
+    private RowSchema createRowSchema(List<Column> columnsForInsert, List<Column> tableColumns) {
+        List<Column> typedColumns = new ArrayList<>(columnsForInsert.size());
+        for(Column column : columnsForInsert){
+            typedColumns.add(tableColumns.get(tableColumns.indexOf(column)));
+        }
+        return new RowSchema(typedColumns);
+    }
+
     /**
      * Проверяет наличие имени таблицы и столбцов, по которым будут вставляться строки.
      *
@@ -249,6 +293,7 @@ public class XmlImporter{
     /**
      * Считывает указанное количество корректных строк.
      * Строка считается корректной, если столбцы строки совпадают с указанными в xml-файле.
+     * Строки привязываются к набору столбцов {@link ImportTableDto#getRowSchema()}.
      * Если нужно считать больше строк, чем есть, тогда считываются все оставшиеся строки.
      *
      * @param rowCount       - кол-во строк для чтения
@@ -259,67 +304,15 @@ public class XmlImporter{
      */
     private List<Row> readRows(int rowCount, ImportTableDto importTableDto, XmlTableReader tableReader)
             throws IOException {
+        RowSchema schema = importTableDto.getRowSchema();
         Row row;
         List<Row> rows = new ArrayList<>();
-        while (rows.size() < rowCount && (row = tableReader.readRow()) != null) {
-            if (!Objects.equals(row.getValues().size(), importTableDto.getColumnsForInsert().size())) {
-                continue;
-            }
-            if (!row.containsColumns(importTableDto.getColumnsForInsert())) {
-                continue;
-            }
+        while (rows.size() < rowCount && (row = tableReader.readRow(schema)) != null) {
             rows.add(row);
         }
         return rows;
     }
 
-    /**
-     * Преобразует строковые({@link String}) значения строк в типы,
-     *      которые определяются из sql-типа столбца.
-     * При конвертации создаются новые строки с измененными значениями, а не изменяются старые.
-     *
-     * @param rows         - строки, значения которых необходимо преобразовать
-     * @param tableColumns - столбцы таблицы, для которых нужно преобразовать значения строк
-     * @return новые строки с преобразованными значениями
-     */
-    private List<Row> convertRowsValues(List<Row> rows, List<Column> tableColumns) {
-        List<Row> result = new ArrayList<>();
-        for (Row row : rows) {
-            try {
-                Row convertedRow = convertRowValues(row, tableColumns);
-                result.add(convertedRow);
-            } catch (Exception e) {
-                System.out.println(e.getMessage());
-            }
-        }
-        return result;
-    }
-
-    /**
-     * Преобразует строковые({@link String}) значения строки для выбранных столбцов.
-     * Тип, в который преобразуется значение, определяется из sql-типа столбца.
-     * При конвертации создаётся новая строка, а не изменяется старая.
-     *
-     * @param row          - строка
-     * @param tableColumns - столбцы, для которых необходимо преобразовать значения
-     * @return новая строка с преобразованными значениями
-     * @see StringConverter
-     * @see app.table.DataType
-     */
-    private Row convertRowValues(Row row, List<Column> tableColumns) {
-        Map<String, Object> convertedValues = new HashMap<>();
-        for (Column column : tableColumns) {
-            if (row.containsColumn(column)) {
-                String stringValue = (String) row.get(column);
-                Object convertedValue = ConverterFactory.getFactory()
-                        .getRightConverter(column.getType())
-                        .convert(stringValue);
-                convertedValues.put(column.getName(), convertedValue);
-            }
-        }
-        return new Row(convertedValues);
-    }
-
     /**
      * Находит столбцы с одиннаковыми именами.
      * @param columns - столбцы
@@ -366,19 +359,93 @@ public class XmlImporter{
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Создаёт и запускает задачу преобразования считанных строк в пачку ({@link ConversionPlan}).
+     * Задача добавляет в executor вставки задачу для заполненной пачки.
+     * Если ни одна строка не преобразовалась, пачка считается завершённой сразу.
+     * @param sequence - порядковый номер считанных строк
+     * @param rows - считанные строки со строковыми значениями
+     * @param batches - пул пачек
+     * @param importTableDto - информация о таблице, столбцах и план преобразования
+     * @param progress - ход импорта
+     * @param insertedRowsCount - количетсво вставленных строк
+     * @param executor - executor вставки
+     * @param conversionExecutor - executor преобразования
+     */
+    private void runTaskForConversion(long sequence,
+                                      List<Row> rows,
+                                      RowBatchPool batches,
+                                      ImportTableDto importTableDto,
+                                      BatchProgress progress,
+                                      AtomicLong insertedRowsCount,
+                                      ExecutorService executor,
+                                      ExecutorService conversionExecutor) {
+        Callable<Integer> task = () -> {
+            boolean submitted = false;
+            try {
+                RowBatch batch = batches.acquire();
+                importTableDto.getConversionPlan().convertRows(rows, batch, importTableDto.getConversionErrors());
+                if (batch.isEmpty()) {
+                    batches.release(batch);
+                    return 0;
+                }
+                // после передачи в задачу вставки пачка может быть уже возвращена в пул
+                int convertedRowCount = batch.size();
+                runTaskForInsert(sequence, rows.size(), batch, batches, importTableDto, progress,
+                        insertedRowsCount, executor);
+                submitted = true;
+                return convertedRowCount;
+            } finally {
+                if (!submitted) {
+                    completeBatch(progress, sequence, rows.size());
+                }
+            }
+        };
+
+        conversionExecutor.submit(task);
+    }
+
+    /**
+     * Отмечает пачку завершённой и сообщает о ходе импорта.
+     */
+    private void completeBatch(BatchProgress progress, long sequence, int readRowCount) {
+        if (progress.complete(sequence, readRowCount)) {
+            System.out.println("Processed rows = " + progress.getCompletedRows());
+        }
+    }
+
     /**
      * Создаёт и запускает задачу с транзакцией для вставки уникальных строк в БД.
-     * @param rows - строки, которые нужно вставить
+     * После завершения задачи пачка возвращается в пул и отмечается завершённой.
+     * @param sequence - порядковый номер считанных строк, из которых получена пачка
+     * @param readRowCount - кол-во считанных строк
+     * @param rows - пачка строк, которые нужно вставить
+     * @param batches - пул, из которого получена пачка
      * @param importTableDto - информация о таблице, столбцах
+     * @param progress - ход импорта
      * @param insertedRowsCount - количетсво вставленных строк
      * @param executor
      */
-    private void runTaskForInsert(List<Row> rows,
+    private void runTaskForInsert(long sequence,
+                                  int readRowCount,
+                                  RowBatch rows,
+                                  RowBatchPool batches,
                                   ImportTableDto importTableDto,
+                                  BatchProgress progress,
                                   AtomicLong insertedRowsCount,
                                   ExecutorService executor) {
 
         Callable<Long> task = new SerializationTransactionTask<>(tx) {
+            @Override
+            public Long call() throws Exception {
+                try {
+                    return super.call();
+                } finally {
+                    batches.release(rows);
+                    completeBatch(progress, sequence, readRowCount);
+                }
+            }
+
             @Override
             public Long callTask() throws Exception {
                 int res = repository.insertUniqueRows(
@@ -426,6 +493,10 @@ public class XmlImporter{
         @Builder.Default
         private int threads = 1;
 
+        // Кол-во потоков, преобразующих значения считанных строк в типы столбцов
+        @Builder.Default
+        private int convertThreads = 1;
+
         /**
          * Время ожидания окончания работы потоков импортера после считывания всех строк из файла
          * @see #shutdownExecutorAndWaitCompletion(ExecutorService, long)
@@ -0,0 +1,140 @@
+package app.imports;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат проверки xml-файла без импорта ({@link XmlTableProfiler}).
+ */
+@Getter
+public class XmlTableProfile {
+
+    /**
+     * Столбцы из атрибута "columns" таблицы.
+     */
+    private final List<String> columns;
+
+    /**
+     * Кол-во строк таблицы.
+     */
+    private long rows;
+
+    /**
+     * Кол-во строк, набор ячеек которых не совпадает со столбцами. При импорте такие строки пропускаются.
+     */
+    private long mismatchedRows;
+
+    /**
+     * Кол-во строк, значение какой-либо ячейки которых не преобразуется в тип столбца.
+     * При импорте такие строки пропускаются.
+     */
+    private long unconvertibleRows;
+
+    /**
+     * Максимальная длина значения каждого столбца среди строк с подходящим набором ячеек.
+     */
+    private final int[] maxValueLengths;
+
+    /**
+     * Первая ошибка разбора файла. null - файл корректен.
+     */
+    private String error;
+
+    /**
+     * Кол-во прочитанных байт и время чтения в наносекундах.
+     */
+    private long bytes;
+    private long nanos;
+
+    XmlTableProfile(List<String> columns) {
+        this.columns = columns;
+        this.maxValueLengths = new int[columns.size()];
+    }
+
+    /**
+     * @return true - файл разобран без ошибок
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * @return скорость чтения в байтах в секунду
+     */
+    public double getBytesPerSecond() {
+        return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+    }
+
+    /**
+     * @return максимальная длина значения по именам столбцов в порядке атрибута "columns"
+     */
+    public Map<String, Integer> getMaxValueLengthsByColumn() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for(int i = 0; i < columns.size(); ++i){
+            result.put(columns.get(i), maxValueLengths[i]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    void addRow() {
+        ++rows;
+    }
+
+    void addMismatchedRow() {
+        ++mismatchedRows;
+    }
+
+    void addUnconvertibleRow() {
+        ++unconvertibleRows;
+    }
+
+    void updateMaxValueLength(int column, int length) {
+        if(length > maxValueLengths[column]){
+            maxValueLengths[column] = length;
+        }
+    }
+
+    void setError(String error) {
+        if(this.error == null){
+            this.error = error;
+        }
+    }
+
+    void setSpeed(long bytes, long nanos) {
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Добавляет результат проверки другой части того же файла.
+     * Ошибка сохраняется, только если в этом результате её ещё нет.
+     * @param other - результат проверки части файла
+     */
+    void merge(XmlTableProfile other) {
+        rows += other.rows;
+        mismatchedRows += other.mismatchedRows;
+        unconvertibleRows += other.unconvertibleRows;
+        for(int i = 0; i < maxValueLengths.length; ++i){
+            updateMaxValueLength(i, other.maxValueLengths[i]);
+        }
+        setError(other.error);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append("Valid: ").append(isValid() ? "yes" : "no, " + error).append('\n');
+        result.append("Rows: ").append(rows).append('\n');
+        result.append("Rows with other columns: ").append(mismatchedRows).append('\n');
+        result.append("Rows with unconvertible values: ").append(unconvertibleRows).append('\n');
+        result.append("Max value length:").append('\n');
+        getMaxValueLengthsByColumn().forEach((column, length) ->
+                result.append("  ").append(column).append(" = ").append(length).append('\n'));
+        result.append(String.format("Speed: %.1f MB/s", getBytesPerSecond() / 1024 / 1024));
+        return result.toString();
+    }
+}
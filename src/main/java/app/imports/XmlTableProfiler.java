@@ -0,0 +1,208 @@
+package app.imports;
+
+import app.imports.converter.ConverterFactory;
+import app.imports.converter.PrimitiveConverter;
+import app.table.Column;
+import app.table.DataType;
+import app.table.RowBatch;
+import app.table.RowSchema;
+import app.xml.Attribute;
+import app.xml.Node;
+import app.xml.XmlTableReaderFactory;
+import app.xml.XmlTableReaderImpl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Проверяет xml-файл без вставки строк в БД: разбирает файл целиком и собирает {@link XmlTableProfile}.
+ * Строки ({@link app.table.Row}) не создаются: ячейки читаются в буферы {@link XmlTableReaderImpl#nextRow()},
+ * и преобразование в тип столбца проверяется по символам тела ячейки ({@link PrimitiveConverter}).
+ * Поэтому память не зависит от размера файла.
+ *
+ * Строки проверяются так же, как при импорте ({@link XmlImporter}): строка пропускается, если набор её ячеек
+ * не совпадает со столбцами из атрибута "columns", либо значение не преобразуется в тип столбца.
+ * Типы столбцов задаются явно, т.к. БД не используется. Столбцы без типа считаются строковыми.
+ */
+public class XmlTableProfiler {
+
+    private static final String COLUMNS_ATTRIBUTE = "columns";
+    private static final String NAME_ATTRIBUTE = "name";
+    private static final String SEPARATOR = ";";
+
+    private final Map<String, DataType> columnTypes;
+
+    /**
+     * @param columnTypes - типы столбцов по именам
+     */
+    public XmlTableProfiler(Map<String, DataType> columnTypes) {
+        this.columnTypes = columnTypes;
+    }
+
+    /**
+     * Проверяет файл последовательно.
+     * @param reader - считыватель строк файла
+     * @param bytes - размер файла для вычисления скорости
+     * @return результат проверки
+     */
+    public XmlTableProfile profile(XmlTableReaderImpl reader, long bytes) {
+        long start = System.nanoTime();
+        XmlTableProfile profile;
+        try{
+            profile = new XmlTableProfile(readColumns(reader.getTable()));
+        } catch (IOException | XmlImportException e){
+            profile = new XmlTableProfile(List.of());
+            profile.setError(e.getMessage());
+            profile.setSpeed(bytes, System.nanoTime() - start);
+            return profile;
+        }
+        try{
+            profileRows(reader, profile);
+        } catch (IOException e){
+            profile.setError(e.getMessage());
+        }
+        profile.setSpeed(bytes, System.nanoTime() - start);
+        return profile;
+    }
+
+    /**
+     * Проверяет файл в несколько потоков: тело таблицы делится на диапазоны ({@link XmlTableReaderFactory#splitBody(int)}),
+     * каждый из которых проверяется отдельно.
+     * @param factory - фабрика считывателей файла
+     * @param bytes - размер файла для вычисления скорости
+     * @param threads - кол-во потоков
+     * @return результат проверки. Если ошибок несколько, сохраняется ошибка из самого раннего диапазона
+     * @throws InterruptedException - если поток прерван во время ожидания потоков проверки
+     */
+    public XmlTableProfile profile(XmlTableReaderFactory factory, long bytes, int threads) throws InterruptedException {
+        long start = System.nanoTime();
+        XmlTableProfile profile;
+        List<Long> bounds;
+        try{
+            profile = new XmlTableProfile(readColumns(factory.getTable()));
+            bounds = factory.splitBody(threads);
+        } catch (IOException | XmlImportException e){
+            profile = new XmlTableProfile(List.of());
+            profile.setError(e.getMessage());
+            profile.setSpeed(bytes, System.nanoTime() - start);
+            return profile;
+        }
+
+        List<String> columns = profile.getColumns();
+        ExecutorService executor = Executors.newFixedThreadPool(bounds.size() - 1);
+        try{
+            List<Future<XmlTableProfile>> parts = new ArrayList<>();
+            for(int i = 0; i + 1 < bounds.size(); ++i){
+                long from = bounds.get(i);
+                long to = bounds.get(i + 1);
+                parts.add(executor.submit(() -> profileRange(factory, from, to, columns)));
+            }
+            for(Future<XmlTableProfile> part : parts){
+                try{
+                    profile.merge(part.get());
+                } catch (ExecutionException e){
+                    profile.setError(String.valueOf(e.getCause()));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        profile.setSpeed(bytes, System.nanoTime() - start);
+        return profile;
+    }
+
+    private XmlTableProfile profileRange(XmlTableReaderFactory factory, long from, long to, List<String> columns)
+            throws Exception {
+        XmlTableProfile profile = new XmlTableProfile(columns);
+        try(XmlTableReaderImpl reader = factory.openRange(from, to)){
+            profileRows(reader, profile);
+        } catch (IOException e){
+            profile.setError(e.getMessage());
+        }
+        return profile;
+    }
+
+    /**
+     * Проверяет строки до конца считывателя либо до первой ошибки разбора.
+     */
+    private void profileRows(XmlTableReaderImpl reader, XmlTableProfile profile) throws IOException {
+        List<String> columns = profile.getColumns();
+        Set<String> columnSet = new HashSet<>(columns);
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        List<Column> typedColumns = new ArrayList<>(columns.size());
+        PrimitiveConverter[] converters = new PrimitiveConverter[columns.size()];
+        for(int i = 0; i < columns.size(); ++i){
+            columnIndexes.put(columns.get(i), i);
+            DataType type = columnTypes.getOrDefault(columns.get(i), DataType.STRING);
+            typedColumns.add(new Column(columns.get(i), type));
+            converters[i] = type == DataType.STRING ? null : ConverterFactory.getFactory().getPrimitiveConverter(type);
+        }
+        // значения преобразуются в одну строку пачки, которая очищается для каждой строки файла
+        RowBatch scratch = new RowBatch(new RowSchema(typedColumns), 1);
+
+        while(reader.nextRow()){
+            profile.addRow();
+            if(!reader.hasColumns(columnSet)){
+                profile.addMismatchedRow();
+                continue;
+            }
+            boolean convertible = true;
+            scratch.clear();
+            int scratchRow = scratch.addRow();
+            for(int i = 0; i < reader.getCellCount(); ++i){
+                if(reader.isOverwritten(i)){
+                    continue;
+                }
+                int column = columnIndexes.get(reader.getCellName(i));
+                profile.updateMaxValueLength(column, reader.getCellBody(i).valueLength());
+                if(convertible && converters[column] != null){
+                    convertible = isConvertible(converters[column], reader.getCellBody(i).valueChars(),
+                            scratch, column, scratchRow);
+                }
+            }
+            if(!convertible){
+                profile.addUnconvertibleRow();
+            }
+        }
+    }
+
+    private static boolean isConvertible(PrimitiveConverter converter, CharSequence value,
+                                         RowBatch scratch, int column, int row) {
+        return converter.convertInto(value, 0, value.length(), scratch, column, row);
+    }
+
+    /**
+     * Считывает столбцы из атрибута "columns" табличного узла так же, как при импорте.
+     * @throws XmlImportException - если не задано имя таблицы или столбцы
+     */
+    private static List<String> readColumns(Node tableNode) throws XmlImportException {
+        if(tableNode.getElement().getAttributeBy(Attribute.filterByName(NAME_ATTRIBUTE)).isEmpty()){
+            throw new XmlImportException("Table name is not defined.");
+        }
+        Optional<Attribute> columns = tableNode.getElement().getAttributeBy(Attribute.filterByName(COLUMNS_ATTRIBUTE));
+        if(columns.isEmpty()){
+            throw new XmlImportException("Column for insert is not defined.");
+        }
+        List<String> names = Arrays.stream(columns.get().getValue().split(SEPARATOR, -1))
+                .map(String::trim)
+                .collect(Collectors.toList());
+        if(new HashSet<>(names).size() != names.size()){
+            throw new XmlImportException(
+                    String.format("Attribute '%s' has a duplicate value.", COLUMNS_ATTRIBUTE)
+            );
+        }
+        return names;
+    }
+}
@@ -0,0 +1,284 @@
+package app.imports.converter;
+
+import app.table.RowBatch;
+
+/**
+ * Разбор значений из участка последовательности символов {@code chars[from, to)} без создания подстрок.
+ * Отступы обрезаются так же, как в {@link String#trim()}: символы с кодом не больше пробела.
+ *
+ * Методы {@code parse*Into} записывают значение сразу в ячейку пачки строк и сообщают о неудаче
+ * возвращаемым значением, а не исключением: на файлах с большим кол-вом некорректных значений
+ * создание исключений и сообщений занимает больше времени, чем сам разбор.
+ *
+ * Оба способа разбора принимают одинаковые записи. Целые числа записываются только цифрами ASCII,
+ * в отличие от {@link Integer#parseInt(String)}, который принимает цифры любой письменности.
+ */
+public final class CharParsers {
+
+    private static final String NULL_TOKEN = "null";
+    private static final String TRUE_TOKEN = "true";
+    private static final String FALSE_TOKEN = "false";
+
+    /**
+     * Признак того, что участок не является целым числом. Результат разбора модуля всегда не больше 0.
+     */
+    private static final long INVALID_MAGNITUDE = 1;
+
+    private CharParsers() {
+    }
+
+    /**
+     * @return позиция первого символа участка, который не является отступом. to - если участок пустой
+     */
+    public static int trimStart(CharSequence chars, int from, int to) {
+        while(from < to && chars.charAt(from) <= ' '){
+            ++from;
+        }
+        return from;
+    }
+
+    /**
+     * @return позиция после последнего символа участка, который не является отступом. from - если участок пустой
+     */
+    public static int trimEnd(CharSequence chars, int from, int to) {
+        while(to > from && chars.charAt(to - 1) <= ' '){
+            --to;
+        }
+        return to;
+    }
+
+    /**
+     * Проверяет, что участок равен "null" без учёта регистра (отступы не обрезаются).
+     */
+    public static boolean isNullToken(CharSequence chars, int from, int to) {
+        return equalsIgnoreCase(chars, from, to, NULL_TOKEN);
+    }
+
+    /**
+     * Сравнивает участок с токеном из латинских букв в нижнем регистре без учёта регистра.
+     */
+    private static boolean equalsIgnoreCase(CharSequence chars, int from, int to, String token) {
+        if(to - from != token.length()){
+            return false;
+        }
+        for(int i = 0; i < token.length(); ++i){
+            if((chars.charAt(from + i) | 0x20) != token.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return целое число из участка без отступов
+     * @throws IllegalArgumentException - если участок не является числом типа int
+     */
+    public static int parseInt(CharSequence chars, int from, int to) {
+        int start = trimStart(chars, from, to);
+        int end = trimEnd(chars, start, to);
+        boolean negative = isNegative(chars, start, end);
+        long magnitude = negativeMagnitude(chars, digitsStart(chars, start, end), end,
+                negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE);
+        if(magnitude == INVALID_MAGNITUDE){
+            throw cannotConvert(chars, from, to, "integer");
+        }
+        return (int) (negative ? magnitude : -magnitude);
+    }
+
+    /**
+     * @return целое число из участка без отступов
+     * @throws IllegalArgumentException - если участок не является числом типа long
+     */
+    public static long parseLong(CharSequence chars, int from, int to) {
+        int start = trimStart(chars, from, to);
+        int end = trimEnd(chars, start, to);
+        boolean negative = isNegative(chars, start, end);
+        long magnitude = negativeMagnitude(chars, digitsStart(chars, start, end), end,
+                negative ? Long.MIN_VALUE : -Long.MAX_VALUE);
+        if(magnitude == INVALID_MAGNITUDE){
+            throw cannotConvert(chars, from, to, "long");
+        }
+        return negative ? magnitude : -magnitude;
+    }
+
+    /**
+     * Разбирает число без создания строки ({@link FastDoubleParser}), результат совпадает с {@link Double#parseDouble(String)}.
+     * @return дробное число из участка без отступов
+     * @throws IllegalArgumentException - если участок не является числом
+     */
+    public static double parseDouble(CharSequence chars, int from, int to) {
+        try{
+            return FastDoubleParser.parseDouble(chars, from, to);
+        } catch (NumberFormatException e){
+            throw cannotConvert(chars, from, to, "double");
+        }
+    }
+
+    /**
+     * Разбирает число без создания строки ({@link FastDoubleParser}), результат совпадает с {@link Float#parseFloat(String)}.
+     * @return дробное число из участка без отступов
+     * @throws IllegalArgumentException - если участок не является числом
+     */
+    public static float parseFloat(CharSequence chars, int from, int to) {
+        try{
+            return FastDoubleParser.parseFloat(chars, from, to);
+        } catch (NumberFormatException e){
+            throw cannotConvert(chars, from, to, "float");
+        }
+    }
+
+    /**
+     * @return true или false, если участок без отступов равен "true" или "false" без учёта регистра
+     * @throws ClassCastException - если участок не является логическим значением
+     */
+    public static boolean parseBoolean(CharSequence chars, int from, int to) {
+        int start = trimStart(chars, from, to);
+        int end = trimEnd(chars, start, to);
+        if(equalsIgnoreCase(chars, start, end, TRUE_TOKEN)){
+            return true;
+        }
+        if(equalsIgnoreCase(chars, start, end, FALSE_TOKEN)){
+            return false;
+        }
+        throw new ClassCastException(
+                String.format("Cannot convert string '%s' to boolean.", chars.subSequence(from, to))
+        );
+    }
+
+    /**
+     * @return строка из участка без отступов
+     */
+    public static String parseString(CharSequence chars, int from, int to) {
+        int start = trimStart(chars, from, to);
+        int end = trimEnd(chars, start, to);
+        if(chars instanceof String){
+            return ((String) chars).substring(start, end);
+        }
+        return chars.subSequence(start, end).toString();
+    }
+
+    /**
+     * Записывает в ячейку пачки целое число из участка без отступов.
+     * @return false - если участок не является числом типа int, ячейка не меняется
+     */
+    public static boolean parseIntInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        int start = trimStart(chars, from, to);
+        int end = trimEnd(chars, start, to);
+        boolean negative = isNegative(chars, start, end);
+        long magnitude = negativeMagnitude(chars, digitsStart(chars, start, end), end,
+                negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE);
+        if(magnitude == INVALID_MAGNITUDE){
+            return false;
+        }
+        batch.setInt(column, row, (int) (negative ? magnitude : -magnitude));
+        return true;
+    }
+
+    /**
+     * Записывает в ячейку пачки целое число из участка без отступов.
+     * @return false - если участок не является числом типа long, ячейка не меняется
+     */
+    public static boolean parseLongInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        int start = trimStart(chars, from, to);
+        int end = trimEnd(chars, start, to);
+        boolean negative = isNegative(chars, start, end);
+        long magnitude = negativeMagnitude(chars, digitsStart(chars, start, end), end,
+                negative ? Long.MIN_VALUE : -Long.MAX_VALUE);
+        if(magnitude == INVALID_MAGNITUDE){
+            return false;
+        }
+        batch.setLong(column, row, negative ? magnitude : -magnitude);
+        return true;
+    }
+
+    /**
+     * @return true - если участок без отступов начинается с минуса
+     */
+    private static boolean isNegative(CharSequence chars, int start, int end) {
+        return start < end && chars.charAt(start) == '-';
+    }
+
+    /**
+     * @return позиция первой цифры участка без отступов: после знака, если он есть
+     */
+    private static int digitsStart(CharSequence chars, int start, int end) {
+        return start < end && (chars.charAt(start) == '-' || chars.charAt(start) == '+') ? start + 1 : start;
+    }
+
+    /**
+     * Разбирает цифры ASCII участка как модуль числа со знаком минус, как в {@link Long#parseLong(String)}:
+     * так в long умещается модуль минимального значения.
+     * @param limit - наименьшее допустимое значение
+     * @return модуль со знаком минус. {@link #INVALID_MAGNITUDE} - если участок пустой,
+     *          содержит не только цифры или модуль меньше limit
+     */
+    private static long negativeMagnitude(CharSequence chars, int from, int to, long limit) {
+        if(from == to){
+            return INVALID_MAGNITUDE;
+        }
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for(int i = from; i < to; ++i){
+            int digit = chars.charAt(i) - '0';
+            if(digit < 0 || digit > 9 || result < multiplyLimit){
+                return INVALID_MAGNITUDE;
+            }
+            result *= 10;
+            if(result < limit + digit){
+                return INVALID_MAGNITUDE;
+            }
+            result -= digit;
+        }
+        return result;
+    }
+
+    /**
+     * Записывает в ячейку пачки дробное число из участка без отступов, как {@link #parseDouble(CharSequence, int, int)}.
+     * @return false - если участок не является числом, ячейка не меняется
+     */
+    public static boolean parseDoubleInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        long bits = FastDoubleParser.doubleBits(chars, from, to);
+        if(bits == FastDoubleParser.INVALID){
+            return false;
+        }
+        batch.setDouble(column, row, Double.longBitsToDouble(bits));
+        return true;
+    }
+
+    /**
+     * Записывает в ячейку пачки дробное число из участка без отступов, как {@link #parseFloat(CharSequence, int, int)}.
+     * @return false - если участок не является числом, ячейка не меняется
+     */
+    public static boolean parseFloatInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        long bits = FastDoubleParser.floatBits(chars, from, to);
+        if(bits == FastDoubleParser.INVALID){
+            return false;
+        }
+        batch.setFloat(column, row, Float.intBitsToFloat((int) bits));
+        return true;
+    }
+
+    /**
+     * Записывает в ячейку пачки логическое значение участка, как {@link #parseBoolean(CharSequence, int, int)}.
+     * @return false - если участок не является логическим значением, ячейка не меняется
+     */
+    public static boolean parseBooleanInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        int start = trimStart(chars, from, to);
+        int end = trimEnd(chars, start, to);
+        if(equalsIgnoreCase(chars, start, end, TRUE_TOKEN)){
+            batch.setBoolean(column, row, true);
+            return true;
+        }
+        if(equalsIgnoreCase(chars, start, end, FALSE_TOKEN)){
+            batch.setBoolean(column, row, false);
+            return true;
+        }
+        return false;
+    }
+
+    static IllegalArgumentException cannotConvert(CharSequence chars, int from, int to, String type) {
+        return new IllegalArgumentException(
+                String.format("Cannot convert string '%s' to %s.", chars.subSequence(from, to), type)
+        );
+    }
+}
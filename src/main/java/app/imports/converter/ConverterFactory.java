@@ -13,18 +13,31 @@ public class ConverterFactory {
     private static final ConverterFactory factory = new ConverterFactory();
 
     private final Map<DataType, StringConverter<?>> stringConverters;
+    private final Map<DataType, PrimitiveConverter> primitiveConverters;
 
     /**
-     * Инициализация всех возможных {@link StringConverter}
+     * Инициализация всех возможных {@link StringConverter}.
+     * Каждый из них также является {@link PrimitiveConverter} своего типа.
      */
     {
         stringConverters = new EnumMap<>(DataType.class);
-        stringConverters.put(DataType.STRING, new ToStringConverter());
-        stringConverters.put(DataType.INTEGER, new ToIntegerConverter());
-        stringConverters.put(DataType.LONG, new ToLongConverter());
-        stringConverters.put(DataType.FLOAT, new ToFloatConverter());
-        stringConverters.put(DataType.DOUBLE, new ToDoubleConverter());
-        stringConverters.put(DataType.BOOLEAN, new ToBooleanConverter());
+        primitiveConverters = new EnumMap<>(DataType.class);
+        register(new ToStringConverter());
+        register(new ToIntegerConverter());
+        register(new ToLongConverter());
+        register(new ToFloatConverter());
+        register(new ToDoubleConverter());
+        register(new ToBooleanConverter());
+        register(new ToTimestampConverter());
+        register(new ToDateConverter());
+        register(new ToNumericConverter());
+        register(new ToUuidConverter());
+        register(new ToJsonConverter());
+    }
+
+    private <C extends StringConverter<?> & PrimitiveConverter> void register(C converter) {
+        stringConverters.put(converter.getType(), converter);
+        primitiveConverters.put(converter.getType(), converter);
     }
 
     public static ConverterFactory getFactory(){
@@ -40,4 +53,14 @@ public class ConverterFactory {
     public StringConverter<?> getRightConverter(DataType toType){
         return stringConverters.get(toType);
     }
+
+    /**
+     * Возвращает {@link PrimitiveConverter}, который преобразует символы в тип, указанный в {@link DataType},
+     *          и записывает значение в пачку строк.
+     * @param toType - в какой тип нужно преобразовывать символы
+     * @return подходящий конвертер
+     */
+    public PrimitiveConverter getPrimitiveConverter(DataType toType){
+        return primitiveConverters.get(toType);
+    }
 }
@@ -0,0 +1,101 @@
+package app.imports.converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Разбор десятичного числа {@code [+-]digits[.digits][(e|E)[+-]digits]} в {@link BigDecimal}
+ * из участка последовательности символов. Результат совпадает с {@link BigDecimal#BigDecimal(String)},
+ * включая масштаб: "1.50" - это 150 с масштабом 2. В отличие от конструктора, порядок по модулю
+ * не больше {@link #MAX_EXPONENT}: запись с большим порядком считается некорректной.
+ *
+ * Если значащих цифр не больше 18, число собирается из long через {@link BigDecimal#valueOf(long, int)}
+ * без создания строки и массива символов. Некорректная запись возвращается как null без создания исключения.
+ */
+final class DecimalParser {
+
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * Наибольший порядок по модулю. {@link BigDecimal} допускает порядок до {@link Integer#MAX_VALUE},
+     * но numeric в postgresql хранит не больше 131072 цифр до точки и 16383 после,
+     * поэтому значение с большим порядком всё равно не удалось бы вставить.
+     */
+    private static final int MAX_EXPONENT = 1_000_000;
+
+    private DecimalParser() {
+    }
+
+    /**
+     * @return число из участка {@code chars[from, to)} без отступов. null - если участок не является числом
+     */
+    static BigDecimal parse(CharSequence chars, int from, int to) {
+        int start = CharParsers.trimStart(chars, from, to);
+        int end = CharParsers.trimEnd(chars, start, to);
+        int i = start;
+        boolean negative = false;
+        if(i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')){
+            negative = chars.charAt(i) == '-';
+            ++i;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean afterPoint = false;
+        for(; i < end; ++i){
+            char c = chars.charAt(i);
+            if(c == '.' && !afterPoint){
+                afterPoint = true;
+                continue;
+            }
+            int digit = c - '0';
+            if(digit < 0 || digit > 9){
+                break;
+            }
+            anyDigit = true;
+            if(afterPoint){
+                ++scale;
+            }
+            if(unscaled != 0 || digit != 0){
+                if(digits < MAX_LONG_DIGITS){
+                    unscaled = unscaled * 10 + digit;
+                }
+                ++digits;
+            }
+        }
+        if(!anyDigit){
+            return null;
+        }
+        if(i < end && (chars.charAt(i) == 'e' || chars.charAt(i) == 'E')){
+            ++i;
+            boolean negativeExponent = false;
+            if(i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')){
+                negativeExponent = chars.charAt(i) == '-';
+                ++i;
+            }
+            if(i == end){
+                return null;
+            }
+            int exponent = 0;
+            for(; i < end; ++i){
+                int digit = chars.charAt(i) - '0';
+                if(digit < 0 || digit > 9){
+                    return null;
+                }
+                exponent = exponent * 10 + digit;
+                if(exponent > MAX_EXPONENT){
+                    return null;
+                }
+            }
+            scale += negativeExponent ? exponent : -exponent;
+        }
+        if(i != end){
+            return null;
+        }
+        if(digits > MAX_LONG_DIGITS){
+            // запись проверена, поэтому конструктор не выбрасывает исключение
+            return new BigDecimal(chars.subSequence(start, end).toString());
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+}
@@ -0,0 +1,366 @@
+package app.imports.converter;
+
+import java.math.BigInteger;
+
+/**
+ * Разбор десятичных дробных чисел из участка последовательности символов без создания строки.
+ * Результат совпадает с {@link Double#parseDouble(String)} и {@link Float#parseFloat(String)} (правильное округление).
+ *
+ * Число вида {@code [+-]digits[.digits][(e|E)[+-]digits]} переводится в целую мантиссу w (до 19 значащих цифр)
+ * и десятичный порядок q, после чего:
+ * <ol>
+ *     <li>если w и 10^|q| точно представимы в типе, значение вычисляется одним умножением или делением (путь Клингера);</li>
+ *     <li>иначе - алгоритмом Эйзеля-Лемира: w умножается на 128-битное приближение 5^q из таблицы,
+ *     и из старших бит произведения собираются мантисса и двоичный порядок.</li>
+ * </ol>
+ * Остальные записи (больше 19 значащих цифр, "NaN", "Infinity", шестнадцатеричные числа, суффиксы 'd' и 'f'),
+ * а также редкие случаи, в которых приближения недостаточно, разбираются JDK.
+ * Некорректные записи распознаются без JDK, поэтому {@link #doubleBits} и {@link #floatBits}
+ * сообщают о них без создания исключения.
+ */
+final class FastDoubleParser {
+
+    /**
+     * Диапазон степеней пяти в таблице: за его пределами любое 19-значное число - 0 либо бесконечность.
+     */
+    private static final int SMALLEST_POWER_OF_FIVE = -342;
+    private static final int LARGEST_POWER_OF_FIVE = 308;
+
+    /**
+     * 128-битные приближения 5^q (старшие и младшие 64 бита подряд), нормированные так, что старший бит установлен.
+     * Для q < 0 приближение округлено вверх.
+     */
+    private static final long[] POWERS_OF_FIVE = new long[2 * (LARGEST_POWER_OF_FIVE - SMALLEST_POWER_OF_FIVE + 1)];
+
+    private static final int MAX_DIGITS = 19;
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    static {
+        BigInteger five = BigInteger.valueOf(5);
+        for(int q = SMALLEST_POWER_OF_FIVE; q <= LARGEST_POWER_OF_FIVE; ++q){
+            BigInteger value;
+            if(q < 0){
+                BigInteger power = five.pow(-q);
+                int z = power.bitLength();
+                int bits = q >= -27 ? z + 127 : 2 * z + 128;
+                value = BigInteger.ONE.shiftLeft(bits).divide(power).add(BigInteger.ONE);
+            } else {
+                value = five.pow(q);
+            }
+            value = value.bitLength() > 128
+                    ? value.shiftRight(value.bitLength() - 128)
+                    : value.shiftLeft(128 - value.bitLength());
+            int index = 2 * (q - SMALLEST_POWER_OF_FIVE);
+            POWERS_OF_FIVE[index] = value.shiftRight(64).longValue();
+            POWERS_OF_FIVE[index + 1] = value.longValue();
+        }
+    }
+
+    /**
+     * Формат двоичного числа с плавающей точкой: double либо float.
+     */
+    private static final class Format {
+        final int mantissaBits;
+        final int exponentBits;
+        final int minimumExponent;
+        final int infinitePower;
+        final int smallestPowerOfTen;
+        final int largestPowerOfTen;
+        final int minRoundToEven;
+        final int maxRoundToEven;
+
+        Format(int mantissaBits, int exponentBits, int minimumExponent, int infinitePower, int smallestPowerOfTen,
+               int largestPowerOfTen, int minRoundToEven, int maxRoundToEven) {
+            this.mantissaBits = mantissaBits;
+            this.exponentBits = exponentBits;
+            this.minimumExponent = minimumExponent;
+            this.infinitePower = infinitePower;
+            this.smallestPowerOfTen = smallestPowerOfTen;
+            this.largestPowerOfTen = largestPowerOfTen;
+            this.minRoundToEven = minRoundToEven;
+            this.maxRoundToEven = maxRoundToEven;
+        }
+    }
+
+    private static final Format DOUBLE = new Format(52, 11, -1023, 0x7FF, -342, 308, -4, 23);
+    private static final Format FLOAT = new Format(23, 8, -127, 0xFF, -65, 38, -17, 10);
+
+    /**
+     * Признаки того, что число нужно разобрать JDK, и того, что участок не является числом.
+     * Не совпадают с битами ни одного числа: для double это биты NaN, которые разбор не возвращает,
+     * а биты float занимают только младшие 32 бита.
+     */
+    private static final long FALLBACK = -1;
+    static final long INVALID = -2;
+
+    private FastDoubleParser() {
+    }
+
+    /**
+     * @return число из участка {@code chars[from, to)}, отступы по краям которого пропускаются
+     * @throws NumberFormatException - если участок не является числом
+     */
+    static double parseDouble(CharSequence chars, int from, int to) {
+        long bits = parseBits(chars, from, to, DOUBLE);
+        if(bits == FALLBACK || bits == INVALID){
+            return Double.parseDouble(chars.subSequence(from, to).toString());
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * @return число из участка {@code chars[from, to)}, отступы по краям которого пропускаются
+     * @throws NumberFormatException - если участок не является числом
+     */
+    static float parseFloat(CharSequence chars, int from, int to) {
+        long bits = parseBits(chars, from, to, FLOAT);
+        if(bits == FALLBACK || bits == INVALID){
+            return Float.parseFloat(chars.subSequence(from, to).toString());
+        }
+        return Float.intBitsToFloat((int) bits);
+    }
+
+    /**
+     * @return биты double из участка {@code chars[from, to)}. {@link #INVALID} - если участок не является числом
+     */
+    static long doubleBits(CharSequence chars, int from, int to) {
+        long bits = parseBits(chars, from, to, DOUBLE);
+        if(bits != FALLBACK){
+            return bits;
+        }
+        try{
+            return Double.doubleToRawLongBits(Double.parseDouble(chars.subSequence(from, to).toString()));
+        } catch (NumberFormatException e){
+            return INVALID;
+        }
+    }
+
+    /**
+     * @return биты float (младшие 32 бита) из участка {@code chars[from, to)}.
+     *          {@link #INVALID} - если участок не является числом
+     */
+    static long floatBits(CharSequence chars, int from, int to) {
+        long bits = parseBits(chars, from, to, FLOAT);
+        if(bits != FALLBACK){
+            return bits;
+        }
+        try{
+            return Float.floatToRawIntBits(Float.parseFloat(chars.subSequence(from, to).toString())) & 0xFFFF_FFFFL;
+        } catch (NumberFormatException e){
+            return INVALID;
+        }
+    }
+
+    /**
+     * Разбирает десятичное число (-1)^negative * significand * 10^exponent и переводит его в биты формата.
+     * @return биты числа со знаком. {@link #FALLBACK} - запись не поддерживается быстрым разбором,
+     *          {@link #INVALID} - участок не является числом
+     */
+    private static long parseBits(CharSequence chars, int from, int to, Format format) {
+        int i = CharParsers.trimStart(chars, from, to);
+        int end = CharParsers.trimEnd(chars, i, to);
+        if(i == end){
+            return INVALID;
+        }
+        boolean negative = false;
+        char c = chars.charAt(i);
+        if(c == '-' || c == '+'){
+            negative = c == '-';
+            ++i;
+        }
+        if(i < end && (chars.charAt(i) == 'N' || chars.charAt(i) == 'I')){
+            // "NaN" и "Infinity"
+            return FALLBACK;
+        }
+        // 19 цифр могут не уместиться в long со знаком: значащие цифры хранятся как беззнаковое число
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean tooManyDigits = false;
+        boolean afterPoint = false;
+        for(; i < end; ++i){
+            c = chars.charAt(i);
+            if(c == '.' && !afterPoint){
+                afterPoint = true;
+                continue;
+            }
+            int digit = c - '0';
+            if(digit < 0 || digit > 9){
+                break;
+            }
+            anyDigit = true;
+            if(significand == 0 && digit == 0){
+                exponent -= afterPoint ? 1 : 0;
+                continue;
+            }
+            if(digits == MAX_DIGITS){
+                // запись проверяется до конца, а число разбирает JDK
+                tooManyDigits = true;
+                continue;
+            }
+            significand = significand * 10 + digit;
+            ++digits;
+            exponent -= afterPoint ? 1 : 0;
+        }
+        if(!anyDigit){
+            return INVALID;
+        }
+        if(i < end && (chars.charAt(i) == 'x' || chars.charAt(i) == 'X')){
+            // шестнадцатеричная запись
+            return FALLBACK;
+        }
+        if(i < end && (chars.charAt(i) == 'e' || chars.charAt(i) == 'E')){
+            ++i;
+            boolean negativeExponent = false;
+            if(i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')){
+                negativeExponent = chars.charAt(i) == '-';
+                ++i;
+            }
+            if(i == end){
+                return INVALID;
+            }
+            int explicitExponent = 0;
+            for(; i < end; ++i){
+                int digit = chars.charAt(i) - '0';
+                if(digit < 0 || digit > 9){
+                    return isTypeSuffix(chars, i, end) ? FALLBACK : INVALID;
+                }
+                // за пределами диапазона таблицы значение уже не меняется
+                if(explicitExponent < 100_000){
+                    explicitExponent = explicitExponent * 10 + digit;
+                }
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if(i != end){
+            return isTypeSuffix(chars, i, end) ? FALLBACK : INVALID;
+        }
+        if(tooManyDigits){
+            return FALLBACK;
+        }
+
+        long bits;
+        if(significand == 0){
+            bits = 0;
+        } else if(format == DOUBLE && exponent >= -22 && exponent <= 22
+                && significand > 0 && significand <= (1L << 53)){
+            double value = significand;
+            value = exponent < 0 ? value / DOUBLE_POWERS_OF_TEN[-exponent] : value * DOUBLE_POWERS_OF_TEN[exponent];
+            bits = Double.doubleToRawLongBits(value);
+        } else if(format == FLOAT && exponent >= -10 && exponent <= 10
+                && significand > 0 && significand <= (1L << 24)){
+            float value = significand;
+            value = exponent < 0 ? value / FLOAT_POWERS_OF_TEN[-exponent] : value * FLOAT_POWERS_OF_TEN[exponent];
+            bits = Float.floatToRawIntBits(value);
+        } else {
+            bits = computeFloat(format, exponent, significand);
+            if(bits == FALLBACK){
+                return FALLBACK;
+            }
+        }
+        return negative ? bits | (1L << (format.mantissaBits + format.exponentBits)) : bits;
+    }
+
+    /**
+     * Алгоритм Эйзеля-Лемира: переводит w * 10^q в биты числа формата без знака.
+     * @param format - формат числа
+     * @param q - десятичный порядок
+     * @param w - значащие цифры, не 0
+     * @return биты числа. {@link #FALLBACK} - приближения недостаточно для правильного округления
+     */
+    private static long computeFloat(Format format, int q, long w) {
+        if(q < format.smallestPowerOfTen){
+            return 0;
+        }
+        if(q > format.largestPowerOfTen){
+            return toBits(format, 0, format.infinitePower);
+        }
+        int leadingZeros = Long.numberOfLeadingZeros(w);
+        w <<= leadingZeros;
+
+        int index = 2 * (q - SMALLEST_POWER_OF_FIVE);
+        long high = unsignedMultiplyHigh(w, POWERS_OF_FIVE[index]);
+        long low = w * POWERS_OF_FIVE[index];
+        long precisionMask = -1L >>> (format.mantissaBits + 3);
+        if((high & precisionMask) == precisionMask){
+            // старших 64 бит приближения мало: учитываются младшие
+            long secondHigh = unsignedMultiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            long newLow = low + secondHigh;
+            if(Long.compareUnsigned(secondHigh, newLow) > 0){
+                ++high;
+            }
+            low = newLow;
+            if(low == -1L && (q < -27 || q > 55)){
+                return FALLBACK;
+            }
+        }
+
+        int upperBit = (int) (high >>> 63);
+        int shift = upperBit + 64 - format.mantissaBits - 3;
+        long mantissa = high >>> shift;
+        int power2 = power(q) + upperBit - leadingZeros - format.minimumExponent;
+        if(power2 <= 0){
+            // денормализованное число
+            if(-power2 + 1 >= 64){
+                return 0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << format.mantissaBits) ? 0 : 1;
+            return toBits(format, mantissa, power2);
+        }
+        // ровно посередине между соседними числами округляется к чётному
+        if(Long.compareUnsigned(low, 1) <= 0
+                && q >= format.minRoundToEven && q <= format.maxRoundToEven
+                && (mantissa & 3) == 1
+                && (mantissa << shift) == high){
+            mantissa &= ~1L;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if(mantissa >= (2L << format.mantissaBits)){
+            mantissa = 1L << format.mantissaBits;
+            ++power2;
+        }
+        mantissa &= ~(1L << format.mantissaBits);
+        if(power2 >= format.infinitePower){
+            return toBits(format, 0, format.infinitePower);
+        }
+        return toBits(format, mantissa, power2);
+    }
+
+    /**
+     * Проверяет, что символ {@code chars[i]} - последний в записи и является суффиксом типа: 'd', 'D', 'f' или 'F'.
+     */
+    private static boolean isTypeSuffix(CharSequence chars, int i, int end) {
+        char c = chars.charAt(i);
+        return i == end - 1 && (c == 'd' || c == 'D' || c == 'f' || c == 'F');
+    }
+
+    private static long toBits(Format format, long mantissa, int power2) {
+        return mantissa | ((long) power2 << format.mantissaBits);
+    }
+
+    /**
+     * @return floor(log2(10^q)) + 63
+     */
+    private static int power(int q) {
+        return (((152170 + 65536) * q) >> 16) + 63;
+    }
+
+    /**
+     * Старшие 64 бита беззнакового произведения.
+     */
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+}
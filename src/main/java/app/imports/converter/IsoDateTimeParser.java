@@ -0,0 +1,129 @@
+package app.imports.converter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Разбор даты и даты со временем в формате ISO-8601 из участка последовательности символов
+ * без {@link java.time.format.DateTimeFormatter}: поля читаются по фиксированным позициям,
+ * а некорректная запись возвращается как null без создания исключения.
+ *
+ * Дата - {@code yyyy-MM-dd}, дата со временем - {@code yyyy-MM-dd[( |T)HH:mm[:ss[.n]]]},
+ * где дробная часть секунды содержит от 1 до 9 цифр. Часовой пояс не поддерживается.
+ * Как и в postgresql, год должен быть не меньше 1, а время "24:00[:00[.0]]" означает полночь следующего дня.
+ */
+final class IsoDateTimeParser {
+
+    private static final int DATE_LENGTH = 10;
+    private static final int MAX_FRACTION_DIGITS = 9;
+
+    private IsoDateTimeParser() {
+    }
+
+    /**
+     * @return дата из участка {@code chars[from, to)} без отступов. null - если участок не является датой
+     */
+    static LocalDate parseDate(CharSequence chars, int from, int to) {
+        int start = CharParsers.trimStart(chars, from, to);
+        int end = CharParsers.trimEnd(chars, start, to);
+        if(end - start != DATE_LENGTH){
+            return null;
+        }
+        int year = digits(chars, start, 4);
+        int month = digits(chars, start + 5, 2);
+        int day = digits(chars, start + 8, 2);
+        if(!isDate(chars, start, year, month, day)){
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * @return дата со временем из участка {@code chars[from, to)} без отступов.
+     *          null - если участок не является датой со временем
+     */
+    static LocalDateTime parseDateTime(CharSequence chars, int from, int to) {
+        int start = CharParsers.trimStart(chars, from, to);
+        int end = CharParsers.trimEnd(chars, start, to);
+        if(end - start < DATE_LENGTH){
+            return null;
+        }
+        int year = digits(chars, start, 4);
+        int month = digits(chars, start + 5, 2);
+        int day = digits(chars, start + 8, 2);
+        if(!isDate(chars, start, year, month, day)){
+            return null;
+        }
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int nano = 0;
+        int i = start + DATE_LENGTH;
+        if(i < end){
+            char separator = chars.charAt(i);
+            if((separator != 'T' && separator != ' ') || end - i < 6 || chars.charAt(i + 3) != ':'){
+                return null;
+            }
+            hour = digits(chars, i + 1, 2);
+            minute = digits(chars, i + 4, 2);
+            i += 6;
+            if(i < end){
+                if(end - i < 3 || chars.charAt(i) != ':'){
+                    return null;
+                }
+                second = digits(chars, i + 1, 2);
+                i += 3;
+            }
+            if(i < end){
+                int fractionDigits = end - i - 1;
+                if(chars.charAt(i) != '.' || fractionDigits < 1 || fractionDigits > MAX_FRACTION_DIGITS){
+                    return null;
+                }
+                nano = digits(chars, i + 1, fractionDigits);
+                if(nano < 0){
+                    return null;
+                }
+                for(int j = fractionDigits; j < MAX_FRACTION_DIGITS; ++j){
+                    nano *= 10;
+                }
+            }
+            if(hour == 24 && minute == 0 && second == 0 && nano == 0){
+                return LocalDateTime.of(year, month, day, 0, 0).plusDays(1);
+            }
+            if(hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59){
+                return null;
+            }
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * Проверяет разделители даты, которая начинается с позиции start, и значения её полей.
+     */
+    private static boolean isDate(CharSequence chars, int start, int year, int month, int day) {
+        if(chars.charAt(start + 4) != '-' || chars.charAt(start + 7) != '-'){
+            return false;
+        }
+        if(year < 1 || month < 1 || month > 12 || day < 1){
+            return false;
+        }
+        return day <= Month.of(month).length(Year.isLeap(year));
+    }
+
+    /**
+     * @return число из count цифр, начиная с позиции from. -1 - если среди символов есть не цифра
+     */
+    private static int digits(CharSequence chars, int from, int count) {
+        int result = 0;
+        for(int i = from; i < from + count; ++i){
+            int digit = chars.charAt(i) - '0';
+            if(digit < 0 || digit > 9){
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+}
@@ -1,11 +1,14 @@
 package app.imports.converter;
 
+import app.table.RowBatch;
+
 /**
  * Абстрактная реализация, которая возвращает null,
  *          если строка {@code str = null || str.equalsIgnoreCase("null")}.
+ * Для записи в пачку строк без создания объектов конвертер также реализует {@link PrimitiveConverter}.
  * @param <T> - тип, в который необходимо преобразовать строку.
  */
-public abstract class NullableStringConverter<T> implements StringConverter<T> {
+public abstract class NullableStringConverter<T> implements StringConverter<T>, PrimitiveConverter {
 
     /**
      * Преобразует строку в нужный тип.
@@ -16,12 +19,34 @@ public abstract class NullableStringConverter<T> implements StringConverter<T> {
      */
     @Override
     public T convert(String s) {
-        if(s == null || s.equalsIgnoreCase("null")){
+        if(s == null || CharParsers.isNullToken(s, 0, s.length())){
             return null;
         }
         return convertNotNullString(s);
     }
 
+    @Override
+    public boolean convertInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        if(CharParsers.isNullToken(chars, from, to)){
+            batch.setNull(column, row);
+            return true;
+        }
+        return convertNotNullInto(chars, from, to, batch, column, row);
+    }
+
+    /**
+     * Преобразует символы {@code chars[from, to)}, которые не равны "null", и записывает значение в пачку строк.
+     * @param chars - символы
+     * @param from - начало участка
+     * @param to - конец участка (не включительно)
+     * @param batch - пачка строк
+     * @param column - номер столбца
+     * @param row - номер строки
+     * @return false - если преобразовать не получается
+     */
+    protected abstract boolean convertNotNullInto(CharSequence chars, int from, int to,
+                                               RowBatch batch, int column, int row);
+
     /**
      * Преобразует строку в нужный тип.
      * Строка не должна быть равняться null.
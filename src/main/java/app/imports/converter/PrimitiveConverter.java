@@ -0,0 +1,32 @@
+package app.imports.converter;
+
+import app.table.DataType;
+import app.table.RowBatch;
+
+/**
+ * Преобразует участок последовательности символов в значение столбца и записывает его в пачку строк
+ * ({@link RowBatch}) без создания промежуточных строк и упаковки значений.
+ * Отступы обрезаются по индексам, признак null сравнивается с символами на месте ({@link CharParsers}).
+ * О неудаче конвертер сообщает возвращаемым значением без создания исключения.
+ * Конвертеры есть для каждого {@link DataType}: {@link ConverterFactory#getPrimitiveConverter(DataType)}.
+ */
+public interface PrimitiveConverter {
+
+    /**
+     * @return тип, в который преобразуются символы
+     */
+    DataType getType();
+
+    /**
+     * Преобразует символы {@code chars[from, to)} и записывает значение в строку пачки.
+     * Если символы равны "null" без учёта регистра, записывается null.
+     * @param chars - символы
+     * @param from - начало участка
+     * @param to - конец участка (не включительно)
+     * @param batch - пачка строк
+     * @param column - номер столбца
+     * @param row - номер строки
+     * @return false - если преобразовать не получается, значение ячейки при этом не определено
+     */
+    boolean convertInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row);
+}
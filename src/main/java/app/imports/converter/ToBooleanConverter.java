@@ -1,5 +1,8 @@
 package app.imports.converter;
 
+import app.table.DataType;
+import app.table.RowBatch;
+
 /**
  * Конвертирует строку в {@link Boolean}.
  */
@@ -15,14 +18,16 @@ public class ToBooleanConverter extends NullableStringConverter<Boolean> {
      */
     @Override
     public Boolean convertNotNullString(String s) {
-        if(s.trim().equalsIgnoreCase("true")){
-            return true;
-        }
-        if(s.trim().equalsIgnoreCase("false")){
-            return false;
-        }
-        throw new ClassCastException(
-                String.format("Cannot convert string '%s' to boolean.", s)
-        );
+        return CharParsers.parseBoolean(s, 0, s.length());
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        return CharParsers.parseBooleanInto(chars, from, to, batch, column, row);
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.BOOLEAN;
     }
 }
@@ -0,0 +1,42 @@
+package app.imports.converter;
+
+import app.table.DataType;
+import app.table.RowBatch;
+
+import java.time.LocalDate;
+
+/**
+ * Конвертирует строку в {@link LocalDate} ({@link IsoDateTimeParser}).
+ */
+public class ToDateConverter extends NullableStringConverter<LocalDate> {
+
+    /**
+     * Конвертирует строку в {@link LocalDate}.
+     * @param s - строка
+     * @return дата
+     * @throws IllegalArgumentException - если преобразовать не получается
+     */
+    @Override
+    public LocalDate convertNotNullString(String s) {
+        LocalDate value = IsoDateTimeParser.parseDate(s, 0, s.length());
+        if(value == null){
+            throw CharParsers.cannotConvert(s, 0, s.length(), "date");
+        }
+        return value;
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        LocalDate value = IsoDateTimeParser.parseDate(chars, from, to);
+        if(value == null){
+            return false;
+        }
+        batch.setObject(column, row, value);
+        return true;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.DATE;
+    }
+}
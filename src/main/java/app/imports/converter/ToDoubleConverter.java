@@ -1,5 +1,8 @@
 package app.imports.converter;
 
+import app.table.DataType;
+import app.table.RowBatch;
+
 /**
  * Конвертирует строку в {@link Double}.
  */
@@ -13,12 +16,16 @@ public class ToDoubleConverter extends NullableStringConverter<Double> {
      */
     @Override
     public Double convertNotNullString(String s) {
-        try{
-            return Double.valueOf(s.trim());
-        }catch (Exception e){
-            throw new IllegalArgumentException(
-                    String.format("Cannot convert string '%s' to double.", s)
-            );
-        }
+        return CharParsers.parseDouble(s, 0, s.length());
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        return CharParsers.parseDoubleInto(chars, from, to, batch, column, row);
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.DOUBLE;
     }
 }
@@ -1,5 +1,8 @@
 package app.imports.converter;
 
+import app.table.DataType;
+import app.table.RowBatch;
+
 /**
  * Конвертирует строку в {@link Float}.
  */
@@ -13,12 +16,16 @@ public class ToFloatConverter extends NullableStringConverter<Float> {
      */
     @Override
     public Float convertNotNullString(String s) {
-        try{
-            return Float.valueOf(s.trim());
-        }catch (Exception e){
-            throw new IllegalArgumentException(
-                    String.format("Cannot convert string '%s' to float.", s)
-            );
-        }
+        return CharParsers.parseFloat(s, 0, s.length());
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        return CharParsers.parseFloatInto(chars, from, to, batch, column, row);
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.FLOAT;
     }
 }
@@ -1,5 +1,8 @@
 package app.imports.converter;
 
+import app.table.DataType;
+import app.table.RowBatch;
+
 /**
  * Конвертирует строку в {@link Integer}.
  */
@@ -13,12 +16,16 @@ public class ToIntegerConverter extends NullableStringConverter<Integer> {
      */
     @Override
     public Integer convertNotNullString(String s) {
-        try{
-            return Integer.valueOf(s.trim());
-        }catch (Exception e){
-            throw new IllegalArgumentException(
-                    String.format("Cannot convert string '%s' to integer.", s)
-            );
-        }
+        return CharParsers.parseInt(s, 0, s.length());
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        return CharParsers.parseIntInto(chars, from, to, batch, column, row);
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.INTEGER;
     }
 }
@@ -0,0 +1,32 @@
+package app.imports.converter;
+
+import app.table.DataType;
+import app.table.RowBatch;
+
+/**
+ * Конвертирует строку в json для столбца типа jsonb.
+ * Значение передаётся в БД строкой без отступов по краям, корректность json проверяет postgresql.
+ */
+public class ToJsonConverter extends NullableStringConverter<String> {
+
+    /**
+     * Возвращает строку без отступов по краям.
+     * @param s - строка
+     * @return json
+     */
+    @Override
+    public String convertNotNullString(String s) {
+        return s.trim();
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        batch.setString(column, row, CharParsers.parseString(chars, from, to));
+        return true;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.JSONB;
+    }
+}
@@ -1,5 +1,8 @@
 package app.imports.converter;
 
+import app.table.DataType;
+import app.table.RowBatch;
+
 /**
  * Конвертирует строку в {@link Long}.
  */
@@ -13,12 +16,16 @@ public class ToLongConverter extends NullableStringConverter<Long> {
      */
     @Override
     public Long convertNotNullString(String s) {
-        try{
-            return Long.valueOf(s.trim());
-        }catch (Exception e){
-            throw new IllegalArgumentException(
-                    String.format("Cannot convert string '%s' to long.", s)
-            );
-        }
+        return CharParsers.parseLong(s, 0, s.length());
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        return CharParsers.parseLongInto(chars, from, to, batch, column, row);
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.LONG;
     }
 }
@@ -0,0 +1,42 @@
+package app.imports.converter;
+
+import app.table.DataType;
+import app.table.RowBatch;
+
+import java.math.BigDecimal;
+
+/**
+ * Конвертирует строку в {@link BigDecimal} ({@link DecimalParser}).
+ */
+public class ToNumericConverter extends NullableStringConverter<BigDecimal> {
+
+    /**
+     * Конвертирует строку в {@link BigDecimal}.
+     * @param s - строка
+     * @return число
+     * @throws IllegalArgumentException - если преобразовать не получается
+     */
+    @Override
+    public BigDecimal convertNotNullString(String s) {
+        BigDecimal value = DecimalParser.parse(s, 0, s.length());
+        if(value == null){
+            throw CharParsers.cannotConvert(s, 0, s.length(), "numeric");
+        }
+        return value;
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        BigDecimal value = DecimalParser.parse(chars, from, to);
+        if(value == null){
+            return false;
+        }
+        batch.setObject(column, row, value);
+        return true;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.NUMERIC;
+    }
+}
@@ -1,5 +1,8 @@
 package app.imports.converter;
 
+import app.table.DataType;
+import app.table.RowBatch;
+
 /**
  * Конвертер-пустышка, который ничего не делает со строкой.
  */
@@ -14,4 +17,15 @@ public class ToStringConverter extends NullableStringConverter<String> {
     public String convertNotNullString(String s) {
         return s.trim();
     }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        batch.setString(column, row, CharParsers.parseString(chars, from, to));
+        return true;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.STRING;
+    }
 }
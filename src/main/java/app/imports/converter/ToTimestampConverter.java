@@ -0,0 +1,42 @@
+package app.imports.converter;
+
+import app.table.DataType;
+import app.table.RowBatch;
+
+import java.time.LocalDateTime;
+
+/**
+ * Конвертирует строку в {@link LocalDateTime} ({@link IsoDateTimeParser}).
+ */
+public class ToTimestampConverter extends NullableStringConverter<LocalDateTime> {
+
+    /**
+     * Конвертирует строку в {@link LocalDateTime}.
+     * @param s - строка
+     * @return дата со временем
+     * @throws IllegalArgumentException - если преобразовать не получается
+     */
+    @Override
+    public LocalDateTime convertNotNullString(String s) {
+        LocalDateTime value = IsoDateTimeParser.parseDateTime(s, 0, s.length());
+        if(value == null){
+            throw CharParsers.cannotConvert(s, 0, s.length(), "timestamp");
+        }
+        return value;
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        LocalDateTime value = IsoDateTimeParser.parseDateTime(chars, from, to);
+        if(value == null){
+            return false;
+        }
+        batch.setObject(column, row, value);
+        return true;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.TIMESTAMP;
+    }
+}
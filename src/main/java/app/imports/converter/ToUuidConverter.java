@@ -0,0 +1,42 @@
+package app.imports.converter;
+
+import app.table.DataType;
+import app.table.RowBatch;
+
+import java.util.UUID;
+
+/**
+ * Конвертирует строку в {@link UUID} ({@link UuidParser}).
+ */
+public class ToUuidConverter extends NullableStringConverter<UUID> {
+
+    /**
+     * Конвертирует строку в {@link UUID}.
+     * @param s - строка
+     * @return uuid
+     * @throws IllegalArgumentException - если преобразовать не получается
+     */
+    @Override
+    public UUID convertNotNullString(String s) {
+        UUID value = UuidParser.parse(s, 0, s.length());
+        if(value == null){
+            throw CharParsers.cannotConvert(s, 0, s.length(), "uuid");
+        }
+        return value;
+    }
+
+    @Override
+    protected boolean convertNotNullInto(CharSequence chars, int from, int to, RowBatch batch, int column, int row) {
+        UUID value = UuidParser.parse(chars, from, to);
+        if(value == null){
+            return false;
+        }
+        batch.setObject(column, row, value);
+        return true;
+    }
+
+    @Override
+    public DataType getType() {
+        return DataType.UUID;
+    }
+}
@@ -0,0 +1,69 @@
+package app.imports.converter;
+
+import java.util.UUID;
+
+/**
+ * Разбор {@link UUID} из участка последовательности символов в тех же записях, что принимает postgresql:
+ * 32 шестнадцатеричные цифры в любом регистре, необязательно в фигурных скобках,
+ * с необязательным дефисом после каждой группы из четырёх цифр.
+ * Некорректная запись возвращается как null без создания исключения.
+ */
+final class UuidParser {
+
+    private static final int HEX_DIGITS = 32;
+
+    private UuidParser() {
+    }
+
+    /**
+     * @return uuid из участка {@code chars[from, to)} без отступов. null - если участок не является uuid
+     */
+    static UUID parse(CharSequence chars, int from, int to) {
+        int start = CharParsers.trimStart(chars, from, to);
+        int end = CharParsers.trimEnd(chars, start, to);
+        if(start < end && chars.charAt(start) == '{'){
+            if(chars.charAt(end - 1) != '}'){
+                return null;
+            }
+            ++start;
+            --end;
+        }
+        long mostSignificant = 0;
+        long leastSignificant = 0;
+        int count = 0;
+        boolean afterHyphen = false;
+        for(int i = start; i < end; ++i){
+            char c = chars.charAt(i);
+            if(c == '-' && count % 4 == 0 && count > 0 && count < HEX_DIGITS && !afterHyphen){
+                afterHyphen = true;
+                continue;
+            }
+            int digit = hexDigit(c);
+            if(digit < 0 || count == HEX_DIGITS){
+                return null;
+            }
+            if(count < HEX_DIGITS / 2){
+                mostSignificant = mostSignificant << 4 | digit;
+            } else {
+                leastSignificant = leastSignificant << 4 | digit;
+            }
+            ++count;
+            afterHyphen = false;
+        }
+        if(count != HEX_DIGITS || afterHyphen){
+            return null;
+        }
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    private static int hexDigit(char c) {
+        if(c >= '0' && c <= '9'){
+            return c - '0';
+        }
+        char lower = (char) (c | 0x20);
+        if(lower >= 'a' && lower <= 'f'){
+            return lower - 'a' + 10;
+        }
+        return -1;
+    }
+}
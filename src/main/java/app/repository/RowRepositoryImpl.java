@@ -2,14 +2,12 @@ package app.repository;
 
 import app.dao.RowDao;
 import app.table.Column;
-import app.table.Row;
+import app.table.RowBatch;
 import app.imports.transaction.ThreadConnectionPool;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 public class RowRepositoryImpl extends AbstractRepository implements RowRepository {
 
@@ -27,62 +25,86 @@ public class RowRepositoryImpl extends AbstractRepository implements RowReposito
      *      строки {null, 2} и {null, 2} равны.
      * Если строку вставить нельзя: нарушает ограничение и т.д. -
      *      она пропускается(on conflict do nothing).
-     * @param rows строки, которые необходимо вставить
+     * Пачка не изменяется, поэтому задачу можно повторить в новой транзакции.
+     * @param rows пачка строк, которые необходимо вставить
      * @param rowColumns столбцы, по которым происходит вставка строк
      * @param uniqueColumns столбцы, по которым определяется уникальность строк
      * @param tableName имя таблицы
      * @return кол-во вставленных строк
      * @throws SQLException если произошла ошибка во время вставки строк
      */
-    public int insertUniqueRows(List<Row> rows, List<Column> rowColumns,
+    public int insertUniqueRows(RowBatch rows, List<Column> rowColumns,
                                 List<Column> uniqueColumns, String tableName) throws SQLException {
-        List<Row> uniqueRows = leaveUniques(rows, tableName, uniqueColumns);
-        return insertRows(uniqueRows, rowColumns, tableName);
+        int[] uniqueRows = leaveUniques(rows, tableName, uniqueColumns);
+        return rowDao.insertRowsAsPossible(rows, uniqueRows, rowColumns, tableName);
     }
 
     /**
      * Вставляет строки по указанным столбцам в таблицу.
      * Если строку вставить нельзя: нарушает ограничение и т.д. -
      *      она пропускается(on conflict do nothing).
-     * @param rows строки, которые необходимо вставить
+     * @param rows пачка строк, которые необходимо вставить
      * @param rowColumns столбцы, по которым происходит вставка строк
      * @param tableName имя таблицы
      * @return кол-во вставленных строк
      * @throws SQLException если произошла ошибка во время вставки строк
      */
-    public int insertRows(List<Row> rows, List<Column> rowColumns, String tableName) throws SQLException {
-        return rowDao.insertRowsAsPossible(rows, rowColumns, tableName);
+    public int insertRows(RowBatch rows, List<Column> rowColumns, String tableName) throws SQLException {
+        return rowDao.insertRowsAsPossible(rows, allRows(rows), rowColumns, tableName);
     }
 
+    private static int[] allRows(RowBatch rows) {
+        int[] indexes = new int[rows.size()];
+        Arrays.setAll(indexes, i -> i);
+        return indexes;
+    }
 
     /**
-     * Возвращает список строк, дубликатов которых нет в таблице и в самом списке.
+     * Возвращает номера строк пачки, дубликатов которых нет в таблице и в самой пачке.
      * Уникальность строки определяется сравнением значений
      *          по уникальным столбцам(по null тоже сравниваются).
-     * @param rows - строки
+     * Дубликаты в пачке ищутся хэш-таблицей с открытой адресацией по номерам строк,
+     *          поэтому значения не упаковываются, а ключи-проекции не создаются.
+     * @param rows - пачка строк
      * @param tableName - имя таблицы
      * @param uniqueColumns - уникальные столбцы, по которым сравниваются строки
-     * @return строки, уникальные по определённым столбцам
+     * @return номера строк, уникальных по определённым столбцам
      */
-    private List<Row> leaveUniques(List<Row> rows, String tableName, List<Column> uniqueColumns)
+    private int[] leaveUniques(RowBatch rows, String tableName, List<Column> uniqueColumns)
             throws SQLException {
         if(uniqueColumns.isEmpty() || rows.isEmpty()){
-            return rows;
+            return allRows(rows);
         }
 
         List<Boolean> isRowDuplicateInTable =
                 rowDao.hasDuplicateRow(rows, tableName, uniqueColumns);
-        List<Row> rowsToInsert = new ArrayList<>();
-        Set<Row> uniqueKeys = new HashSet<>();
+        int[] uniqueOrdinals = new int[uniqueColumns.size()];
+        for(int i = 0; i < uniqueOrdinals.length; ++i){
+            uniqueOrdinals[i] = rows.getSchema().ordinalOf(uniqueColumns.get(i).getName());
+        }
+
+        int[] slots = new int[Integer.highestOneBit(rows.size() * 2 - 1) << 1];
+        Arrays.fill(slots, -1);
+        int mask = slots.length - 1;
+        int[] rowsToInsert = new int[rows.size()];
+        int count = 0;
         for(int i = 0; i<rows.size();++i){
-            Row rowProjection = rows.get(i).projectOnto(uniqueColumns);
-            if(!isRowDuplicateInTable.get(i) && !uniqueKeys.contains(rowProjection)){
-                rowsToInsert.add(rows.get(i));
-                uniqueKeys.add(rowProjection);
+            if(isRowDuplicateInTable.get(i)){
+                continue;
+            }
+            int hash = rows.hashRow(i, uniqueOrdinals);
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            boolean duplicate = false;
+            while(slots[slot] >= 0 && !duplicate){
+                duplicate = rows.rowsEqual(slots[slot], i, uniqueOrdinals);
+                slot = (slot + 1) & mask;
+            }
+            if(!duplicate){
+                slots[slot] = i;
+                rowsToInsert[count++] = i;
             }
         }
 
-        return rowsToInsert;
+        return Arrays.copyOf(rowsToInsert, count);
     }
 }
-
@@ -1,23 +1,52 @@
 package app.table;
 
+import java.sql.Types;
 import java.util.Arrays;
 import java.util.Optional;
 
 /**
  * Связь между типами в java и в postgresql.
+ * Значения столбцов типов {@link #TIMESTAMP}, {@link #DATE}, {@link #NUMERIC}, {@link #UUID} и {@link #JSONB}
+ * хранятся как {@link java.time.LocalDateTime}, {@link java.time.LocalDate}, {@link java.math.BigDecimal},
+ * {@link java.util.UUID} и строка с json.
  */
 public enum DataType {
-    INTEGER("integer"),
-    DOUBLE("double precision"),
-    FLOAT("real"),
-    LONG("bigint"),
-    STRING("character varying"),
-    BOOLEAN("boolean");
+    INTEGER("integer", Types.INTEGER),
+    DOUBLE("double precision", Types.DOUBLE),
+    FLOAT("real", Types.REAL),
+    LONG("bigint", Types.BIGINT),
+    STRING("character varying", Types.VARCHAR),
+    BOOLEAN("boolean", Types.BOOLEAN),
+    TIMESTAMP("timestamp without time zone", Types.TIMESTAMP),
+    DATE("date", Types.DATE),
+    NUMERIC("numeric", Types.NUMERIC),
+    UUID("uuid", Types.OTHER),
+    JSONB("jsonb", Types.OTHER);
 
     private final String sqlType;
 
-    private DataType(String sqlType){
+    /**
+     * Тип из {@link Types}, с которым передаётся null в {@link java.sql.PreparedStatement#setNull(int, int)}.
+     */
+    private final int jdbcType;
+
+    private DataType(String sqlType, int jdbcType){
         this.sqlType = sqlType;
+        this.jdbcType = jdbcType;
+    }
+
+    /**
+     * @return sql-тип, как он указан в information_schema.columns.data_type. Подходит для приведения типа в запросе
+     */
+    public String getSqlType(){
+        return sqlType;
+    }
+
+    /**
+     * @return тип из {@link Types}
+     */
+    public int getJdbcType(){
+        return jdbcType;
     }
 
     /**
@@ -3,52 +3,134 @@ package app.table;
 import app.xml.Node;
 
 import java.util.*;
-import java.util.function.Supplier;
 
 /**
  * Строка таблицы.
+ * Значения хранятся в массиве по номерам столбцов набора {@link RowSchema}, который общий для всех строк импорта.
+ * Поэтому строка не создаёт собственную хэш-таблицу, а поиск значения по столбцу - перевод имени в номер
+ * хэш-функцией набора ({@link RowSchema#ordinalOf(String)}).
+ *
+ * Строки равны, если у них одинаковые пары столбец-значение, независимо от порядка столбцов в наборах.
+ * Если наборы строк совпадают, значения сравниваются по номерам.
  */
 public class Row {
 
     /**
-     * Значения строки. Ключ - имя столбца.
+     * Набор столбцов строки.
      */
-    private Map<String, Object> values;
+    private final RowSchema schema;
 
-    public Row(Map<String, Object> values){
+    /**
+     * Значения строки по номерам столбцов набора.
+     */
+    private final Object[] values;
+
+    /**
+     * Создаёт строку из значений, расположенных по номерам столбцов набора. Массив не копируется.
+     * @param schema - набор столбцов
+     * @param values - значения по номерам столбцов
+     */
+    public Row(RowSchema schema, Object[] values){
+        if(schema.size() != values.length){
+            throw new IllegalArgumentException(
+                    String.format("Row has %d values, but the schema has %d columns.", values.length, schema.size())
+            );
+        }
+        this.schema = schema;
         this.values = values;
     }
 
+    /**
+     * Создаёт строку по парам столбец-значение. Для строки создаётся собственный набор столбцов,
+     * поэтому конструктор предназначен для тестов и единичных строк.
+     * @param values - значения. Ключ - имя столбца
+     */
+    public Row(Map<String, Object> values){
+        List<Column> columns = new ArrayList<>(values.size());
+        Object[] slots = new Object[values.size()];
+        for(Map.Entry<String, Object> entry : values.entrySet()){
+            slots[columns.size()] = entry.getValue();
+            columns.add(new Column(entry.getKey()));
+        }
+        this.schema = new RowSchema(columns);
+        this.values = slots;
+    }
+
     /**
      * Создание строки по xml-узлам.
      * В качестве столбца выступает имя узла, а в качестве значения - тело узла.
+     * Если встречаются несколько узлов с одинаковым именем - сохраняется значение последнего из них.
      * @param nodes - xml-узлы.
      */
     public Row(List<Node> nodes){
-        Supplier<Map<String,Object>> supp = HashMap::new;
-        this.values = nodes.stream()
-                .collect(
-                        supp,
-                        (map, node) -> map.put(node.getName(), node.getStringBody()),
-                        Map::putAll
-                );
+        this(nodesToMap(nodes));
     }
 
-    public Map<String, Object> getValues(){
+    private static Map<String, Object> nodesToMap(List<Node> nodes){
+        Map<String, Object> values = new LinkedHashMap<>();
+        for(Node node : nodes){
+            values.put(node.getName(), node.getStringBody());
+        }
         return values;
     }
 
     /**
-     * Добавляет новую пару столбец со значением в строку.
-     * Если уже есть пара с таким столбцом, тогда заменяется значение на новое.
-     * @param column - столбец
-     * @param newValue - значение
-     * @return если столбец уже был, тогда старое значение. Иначе - новое.
+     * Создаёт строку из значений, расположенных по номерам столбцов набора.
+     * @param schema - набор столбцов
+     * @param values - значения по номерам столбцов
+     * @return строка
+     */
+    public static Row of(RowSchema schema, Object[] values){
+        return new Row(schema, values);
+    }
+
+    /**
+     * Привязывает строку к набору столбцов, если столбцы строки совпадают с ним.
+     * @param schema - набор столбцов
+     * @return строка со значениями по номерам столбцов набора. null - если столбцы строки другие
+     */
+    public Row bind(RowSchema schema){
+        if(this.schema == schema){
+            return this;
+        }
+        if(values.length != schema.size()){
+            return null;
+        }
+        Object[] slots = new Object[schema.size()];
+        for(int i = 0; i < slots.length; ++i){
+            int ordinal = this.schema.ordinalOf(schema.getColumn(i).getName());
+            if(ordinal < 0){
+                return null;
+            }
+            slots[i] = values[ordinal];
+        }
+        return new Row(schema, slots);
+    }
+
+    /**
+     * @return набор столбцов строки
      */
-    public Object addValue(String column, Object newValue){
-        Object oldValue = values.get(column);
-        values.put(column, newValue);
-        return oldValue != null ? oldValue : newValue;
+    public RowSchema getSchema(){
+        return schema;
+    }
+
+    /**
+     * @return кол-во столбцов строки
+     */
+    public int size(){
+        return values.length;
+    }
+
+    /**
+     * Возвращает копию значений строки в виде пар столбец-значение.
+     * @return значения в порядке номеров столбцов. Ключ - имя столбца
+     */
+    public Map<String, Object> getValues(){
+        Map<String, Object> result = new LinkedHashMap<>(Math.max(16, values.length * 4 / 3 + 1));
+        for(int i = 0; i < values.length; ++i){
+            result.put(schema.getColumn(i).getName(), values[i]);
+        }
+        return result;
     }
 
     @Override
@@ -60,17 +142,36 @@ public class Row {
             return false;
         }
         Row other = (Row) o;
-        return Objects.equals(values, other.values);
+        if(schema == other.schema){
+            return Arrays.equals(values, other.values);
+        }
+        if(values.length != other.values.length){
+            return false;
+        }
+        for(int i = 0; i < values.length; ++i){
+            int ordinal = other.schema.ordinalOf(schema.getColumn(i).getName());
+            if(ordinal < 0 || !Objects.equals(values[i], other.values[ordinal])){
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public String toString(){
-        return "Row:" + values.toString();
+        return "Row:" + getValues().toString();
     }
 
+    /**
+     * Хэш-код не зависит от порядка столбцов в наборе и совпадает с {@link Map#hashCode()} пар столбец-значение.
+     */
     @Override
     public int hashCode(){
-        return values.hashCode();
+        int hash = 0;
+        for(int i = 0; i < values.length; ++i){
+            hash += schema.getColumn(i).getName().hashCode() ^ Objects.hashCode(values[i]);
+        }
+        return hash;
     }
 
     /**
@@ -88,7 +189,7 @@ public class Row {
      * @return есть - true. Иначе - false
      */
     public boolean containsColumn(String columnName) {
-        return values.containsKey(columnName);
+        return schema.ordinalOf(columnName) >= 0;
     }
 
     /**
@@ -109,23 +210,51 @@ public class Row {
      * @return значение. Если столбца нет - null.
      */
     public Object get(Column col){
-        return values.get(col.getName());
+        int ordinal = schema.ordinalOf(col.getName());
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    /**
+     * Возвращает значение по номеру столбца в наборе строки.
+     * @param ordinal - номер столбца
+     * @return значение
+     */
+    public Object get(int ordinal){
+        return values[ordinal];
     }
 
     /**
      * Проецирует строку на указанные столбцы. При этом создается новый экземпляр {@link Row},
      *      который содержит эти столбцы со значениями из строки.
      * Те требуемые столбцы, которые отсутствуют в строке, пропускаются.
+     * Для проекции создаётся новый набор столбцов, поэтому для проекции многих строк
+     *      следует использовать {@link #projectOnto(RowSchema)}.
      * @param columns - требуемые для проекции столбцы
      * @return новая строка, которая является проекцией текущей на указанный набор строк.
      */
     public Row projectOnto(Collection<Column> columns){
-        Map<String, Object> projectionValues = new HashMap<>();
+        List<Column> projectionColumns = new ArrayList<>();
         for(Column col : columns){
-            if(containsColumn(col)){
-                projectionValues.put(col.getName(), get(col));
+            if(containsColumn(col) && !projectionColumns.contains(col)){
+                projectionColumns.add(col);
             }
         }
-        return new Row(projectionValues);
+        return projectOnto(new RowSchema(projectionColumns));
+    }
+
+    /**
+     * Проецирует строку на набор столбцов. Новая строка привязана к этому набору,
+     *      поэтому проекции разных строк на один набор сравниваются по номерам столбцов.
+     * Столбцы набора, которых нет в строке, получают значение null.
+     * @param projection - набор столбцов проекции
+     * @return новая строка, которая является проекцией текущей на набор
+     */
+    public Row projectOnto(RowSchema projection){
+        Object[] projectionValues = new Object[projection.size()];
+        for(int i = 0; i < projectionValues.length; ++i){
+            int ordinal = schema.ordinalOf(projection.getColumn(i).getName());
+            projectionValues[i] = ordinal < 0 ? null : values[ordinal];
+        }
+        return new Row(projection, projectionValues);
     }
 }
@@ -0,0 +1,362 @@
+package app.table;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Пачка строк в поколоночном виде: для каждого столбца набора {@link RowSchema} - массив значений
+ * примитивного типа, соответствующего {@link DataType} столбца, и битовая маска наличия значений (null - бит не установлен).
+ * Значения числовых и логических столбцов не упаковываются в объекты.
+ *
+ * Размер пачки задаётся при создании, после обработки пачка очищается ({@link #clear()}) и используется повторно.
+ * Пачка не потокобезопасна: в каждый момент её заполняет либо читает один поток.
+ */
+public final class RowBatch {
+
+    private final RowSchema schema;
+    private final DataType[] types;
+    private final int capacity;
+
+    /**
+     * Значения по номерам столбцов: int[], long[], double[], float[], boolean[], String[] либо Object[].
+     */
+    private final Object[] data;
+
+    /**
+     * Маски наличия значений по номерам столбцов: бит строки установлен - значение не null.
+     */
+    private final long[][] validity;
+
+    private int size;
+
+    /**
+     * @param schema - набор столбцов. Тип хранения значений определяется типом столбца
+     * @param capacity - максимальное кол-во строк
+     */
+    public RowBatch(RowSchema schema, int capacity) {
+        if(capacity < 1){
+            throw new IllegalArgumentException("Batch capacity must be positive.");
+        }
+        this.schema = schema;
+        this.capacity = capacity;
+        this.types = new DataType[schema.size()];
+        this.data = new Object[schema.size()];
+        this.validity = new long[schema.size()][(capacity + 63) / 64];
+        for(int i = 0; i < types.length; ++i){
+            types[i] = schema.getColumn(i).getType();
+            data[i] = allocate(types[i], capacity);
+        }
+    }
+
+    private static Object allocate(DataType type, int capacity) {
+        if(type == null){
+            return new Object[capacity];
+        }
+        switch(type){
+            case INTEGER: return new int[capacity];
+            case LONG: return new long[capacity];
+            case DOUBLE: return new double[capacity];
+            case FLOAT: return new float[capacity];
+            case BOOLEAN: return new boolean[capacity];
+            case STRING: return new String[capacity];
+            default: return new Object[capacity];
+        }
+    }
+
+    /**
+     * @return набор столбцов
+     */
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @param column - номер столбца
+     * @return тип столбца. null - значения хранятся как объекты
+     */
+    public DataType getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * @return максимальное кол-во строк
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return кол-во строк
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Добавляет строку, все значения которой null.
+     * @return номер добавленной строки
+     * @throws IllegalStateException - если пачка заполнена
+     */
+    public int addRow() {
+        if(size == capacity){
+            throw new IllegalStateException("Row batch is full.");
+        }
+        return size++;
+    }
+
+    /**
+     * Удаляет последнюю строку, например, если значение какого-либо столбца не удалось преобразовать.
+     */
+    public void discardLastRow() {
+        if(size == 0){
+            throw new IllegalStateException("Row batch is empty.");
+        }
+        --size;
+        for(int column = 0; column < data.length; ++column){
+            validity[column][size >>> 6] &= ~(1L << size);
+            if(data[column] instanceof Object[]){
+                ((Object[]) data[column])[size] = null;
+            }
+        }
+    }
+
+    /**
+     * Удаляет все строки. Массивы значений сохраняются для повторного использования.
+     */
+    public void clear() {
+        for(int column = 0; column < data.length; ++column){
+            Arrays.fill(validity[column], 0);
+            if(data[column] instanceof Object[]){
+                Arrays.fill((Object[]) data[column], 0, size, null);
+            }
+        }
+        size = 0;
+    }
+
+    private void setValid(int column, int row) {
+        validity[column][row >>> 6] |= 1L << row;
+    }
+
+    public void setNull(int column, int row) {
+        validity[column][row >>> 6] &= ~(1L << row);
+        if(data[column] instanceof Object[]){
+            ((Object[]) data[column])[row] = null;
+        }
+    }
+
+    public void setInt(int column, int row, int value) {
+        ((int[]) data[column])[row] = value;
+        setValid(column, row);
+    }
+
+    public void setLong(int column, int row, long value) {
+        ((long[]) data[column])[row] = value;
+        setValid(column, row);
+    }
+
+    public void setDouble(int column, int row, double value) {
+        ((double[]) data[column])[row] = value;
+        setValid(column, row);
+    }
+
+    public void setFloat(int column, int row, float value) {
+        ((float[]) data[column])[row] = value;
+        setValid(column, row);
+    }
+
+    public void setBoolean(int column, int row, boolean value) {
+        ((boolean[]) data[column])[row] = value;
+        setValid(column, row);
+    }
+
+    public void setString(int column, int row, String value) {
+        setObject(column, row, value);
+    }
+
+    /**
+     * Устанавливает значение любого типа. Значения числовых и логических столбцов распаковываются.
+     * @param column - номер столбца
+     * @param row - номер строки
+     * @param value - значение. null - значения нет
+     * @throws ClassCastException - если значение не соответствует типу столбца
+     */
+    public void setObject(int column, int row, Object value) {
+        if(value == null){
+            setNull(column, row);
+            return;
+        }
+        Object values = data[column];
+        if(values instanceof int[]){
+            ((int[]) values)[row] = (Integer) value;
+        } else if(values instanceof long[]){
+            ((long[]) values)[row] = (Long) value;
+        } else if(values instanceof double[]){
+            ((double[]) values)[row] = (Double) value;
+        } else if(values instanceof float[]){
+            ((float[]) values)[row] = (Float) value;
+        } else if(values instanceof boolean[]){
+            ((boolean[]) values)[row] = (Boolean) value;
+        } else if(values instanceof String[]){
+            ((String[]) values)[row] = (String) value;
+        } else {
+            ((Object[]) values)[row] = value;
+        }
+        setValid(column, row);
+    }
+
+    public boolean isNull(int column, int row) {
+        return (validity[column][row >>> 6] & (1L << row)) == 0;
+    }
+
+    public int getInt(int column, int row) {
+        return ((int[]) data[column])[row];
+    }
+
+    public long getLong(int column, int row) {
+        return ((long[]) data[column])[row];
+    }
+
+    public double getDouble(int column, int row) {
+        return ((double[]) data[column])[row];
+    }
+
+    public float getFloat(int column, int row) {
+        return ((float[]) data[column])[row];
+    }
+
+    public boolean getBoolean(int column, int row) {
+        return ((boolean[]) data[column])[row];
+    }
+
+    public String getString(int column, int row) {
+        return ((String[]) data[column])[row];
+    }
+
+    /**
+     * Возвращает значение любого типа. Значения числовых и логических столбцов упаковываются.
+     * @param column - номер столбца
+     * @param row - номер строки
+     * @return значение. null - значения нет
+     */
+    public Object getObject(int column, int row) {
+        if(isNull(column, row)){
+            return null;
+        }
+        Object values = data[column];
+        if(values instanceof int[]){
+            return ((int[]) values)[row];
+        } else if(values instanceof long[]){
+            return ((long[]) values)[row];
+        } else if(values instanceof double[]){
+            return ((double[]) values)[row];
+        } else if(values instanceof float[]){
+            return ((float[]) values)[row];
+        } else if(values instanceof boolean[]){
+            return ((boolean[]) values)[row];
+        }
+        return ((Object[]) values)[row];
+    }
+
+    /**
+     * Создаёт строку из значений пачки. Значения упаковываются, поэтому метод не предназначен для горячего пути.
+     * @param row - номер строки
+     * @return строка с набором столбцов пачки
+     */
+    public Row getRow(int row) {
+        Object[] values = new Object[data.length];
+        for(int column = 0; column < values.length; ++column){
+            values[column] = getObject(column, row);
+        }
+        return new Row(schema, values);
+    }
+
+    /**
+     * Вычисляет хэш-код значений строки по указанным столбцам без упаковки значений.
+     * @param row - номер строки
+     * @param columns - номера столбцов
+     * @return хэш-код
+     */
+    public int hashRow(int row, int[] columns) {
+        int hash = 1;
+        for(int column : columns){
+            hash = 31 * hash + hashValue(column, row);
+        }
+        return hash;
+    }
+
+    private int hashValue(int column, int row) {
+        if(isNull(column, row)){
+            return 0;
+        }
+        Object values = data[column];
+        if(values instanceof int[]){
+            return Integer.hashCode(((int[]) values)[row]);
+        } else if(values instanceof long[]){
+            return Long.hashCode(((long[]) values)[row]);
+        } else if(values instanceof double[]){
+            return Double.hashCode(((double[]) values)[row]);
+        } else if(values instanceof float[]){
+            return Float.hashCode(((float[]) values)[row]);
+        } else if(values instanceof boolean[]){
+            return Boolean.hashCode(((boolean[]) values)[row]);
+        }
+        Object value = ((Object[]) values)[row];
+        if(value instanceof BigDecimal){
+            return ((BigDecimal) value).stripTrailingZeros().hashCode();
+        }
+        return value.hashCode();
+    }
+
+    /**
+     * Сравнивает значения двух строк по указанным столбцам так же, как {@link Row#equals(Object)}:
+     *      null-ы равны между собой, дробные числа сравниваются как {@link Double#equals(Object)}.
+     *      Значения {@link BigDecimal} сравниваются без учёта масштаба, как в БД: 1.5 равно 1.50.
+     * @param row - номер строки
+     * @param other - номер другой строки
+     * @param columns - номера столбцов
+     * @return true - значения по всем столбцам равны
+     */
+    public boolean rowsEqual(int row, int other, int[] columns) {
+        for(int column : columns){
+            if(!valuesEqual(column, row, other)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean valuesEqual(int column, int row, int other) {
+        boolean rowNull = isNull(column, row);
+        if(rowNull || isNull(column, other)){
+            return rowNull && isNull(column, other);
+        }
+        Object values = data[column];
+        if(values instanceof int[]){
+            return ((int[]) values)[row] == ((int[]) values)[other];
+        } else if(values instanceof long[]){
+            return ((long[]) values)[row] == ((long[]) values)[other];
+        } else if(values instanceof double[]){
+            return Double.doubleToLongBits(((double[]) values)[row])
+                    == Double.doubleToLongBits(((double[]) values)[other]);
+        } else if(values instanceof float[]){
+            return Float.floatToIntBits(((float[]) values)[row])
+                    == Float.floatToIntBits(((float[]) values)[other]);
+        } else if(values instanceof boolean[]){
+            return ((boolean[]) values)[row] == ((boolean[]) values)[other];
+        }
+        Object value = ((Object[]) values)[row];
+        Object otherValue = ((Object[]) values)[other];
+        if(value instanceof BigDecimal && otherValue instanceof BigDecimal){
+            return ((BigDecimal) value).compareTo((BigDecimal) otherValue) == 0;
+        }
+        return value.equals(otherValue);
+    }
+}
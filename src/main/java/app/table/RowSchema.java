@@ -0,0 +1,193 @@
+package app.table;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый набор столбцов строки, в котором каждому столбцу соответствует его порядковый номер.
+ * Набор создаётся один раз на импорт, после чего имя ячейки переводится в номер столбца без {@link HashMap}:
+ * по заранее подобранной хэш-функции без коллизий ({@link #ordinalOf(String)}).
+ *
+ * Хэш-функция - умножение {@link String#hashCode()} (который кэшируется в строке) на множитель
+ * и взятие старших бит. Множитель подбирается перебором так, чтобы все имена попали в разные ячейки таблицы,
+ * размер которой не меньше удвоенного кол-ва столбцов.
+ *
+ * Набор ячеек строки проверяется битовой маской ({@link #newMask()}, {@link #isComplete(long[])}).
+ */
+public final class RowSchema {
+
+    /**
+     * Максимальная степень двойки размера хэш-таблицы и кол-во множителей, перебираемых для каждого размера.
+     */
+    private static final int MAX_TABLE_BITS = 16;
+    private static final int SEEDS_PER_SIZE = 1024;
+
+    private final List<Column> columns;
+
+    /**
+     * Хэш-таблица: имя столбца и его номер в ячейке, номер ячейки которой вычисляется {@link #slot(int)}.
+     */
+    private final String[] slotNames;
+    private final int[] slotOrdinals;
+    private final int seed;
+    private final int shift;
+
+    /**
+     * Номера столбцов, если множитель без коллизий не найден (у имён совпадает {@link String#hashCode()}).
+     */
+    private final Map<String, Integer> fallback;
+
+    /**
+     * Маска, в которой установлены биты всех столбцов.
+     */
+    private final long[] fullMask;
+
+    /**
+     * @param columns - столбцы в порядке номеров
+     * @throws IllegalArgumentException - если имена столбцов повторяются
+     */
+    public RowSchema(List<Column> columns) {
+        this.columns = List.copyOf(columns);
+        Map<String, Integer> ordinals = new HashMap<>();
+        for(int i = 0; i < columns.size(); ++i){
+            if(ordinals.put(columns.get(i).getName(), i) != null){
+                throw new IllegalArgumentException(
+                        String.format("Column '%s' is repeated in the schema.", columns.get(i).getName())
+                );
+            }
+        }
+
+        int bits = 1;
+        while((1 << bits) < columns.size() * 2){
+            ++bits;
+        }
+        // имена с одинаковым hashCode не разделяет никакой множитель
+        int foundSeed = 0;
+        boolean distinctHashCodes = hasDistinctHashCodes();
+        for(; bits <= MAX_TABLE_BITS && foundSeed == 0 && distinctHashCodes; ++bits){
+            foundSeed = findSeed(bits);
+        }
+        --bits;
+        if(foundSeed != 0){
+            this.seed = foundSeed;
+            this.shift = 32 - bits;
+            this.slotNames = new String[1 << bits];
+            this.slotOrdinals = new int[1 << bits];
+            for(int i = 0; i < columns.size(); ++i){
+                int slot = slot(columns.get(i).getName().hashCode());
+                slotNames[slot] = columns.get(i).getName();
+                slotOrdinals[slot] = i;
+            }
+            this.fallback = null;
+        } else {
+            this.seed = 0;
+            this.shift = 0;
+            this.slotNames = null;
+            this.slotOrdinals = null;
+            this.fallback = ordinals;
+        }
+
+        this.fullMask = newMask();
+        for(int i = 0; i < columns.size(); ++i){
+            setBit(fullMask, i);
+        }
+    }
+
+    private boolean hasDistinctHashCodes() {
+        return columns.stream().map(column -> column.getName().hashCode()).distinct().count() == columns.size();
+    }
+
+    /**
+     * Подбирает множитель, при котором все имена попадают в разные ячейки таблицы размера 2^bits.
+     * @return множитель. 0 - множитель не найден
+     */
+    private int findSeed(int bits) {
+        boolean[] used = new boolean[1 << bits];
+        int candidate = 0x9E3779B1;
+        for(int attempt = 0; attempt < SEEDS_PER_SIZE; ++attempt){
+            Arrays.fill(used, false);
+            boolean collision = false;
+            for(int i = 0; i < columns.size() && !collision; ++i){
+                int slot = (columns.get(i).getName().hashCode() * candidate) >>> (32 - bits);
+                collision = used[slot];
+                used[slot] = true;
+            }
+            if(!collision){
+                return candidate;
+            }
+            // следующий нечётный множитель
+            candidate += 0x61C88646;
+            candidate |= 1;
+        }
+        return 0;
+    }
+
+    private int slot(int hash) {
+        return (hash * seed) >>> shift;
+    }
+
+    /**
+     * Возвращает номер столбца по имени.
+     * @param name - имя столбца
+     * @return номер столбца. -1 - столбца нет в наборе
+     */
+    public int ordinalOf(String name) {
+        if(fallback != null){
+            return fallback.getOrDefault(name, -1);
+        }
+        int slot = slot(name.hashCode());
+        String slotName = slotNames[slot];
+        return slotName != null && (slotName == name || slotName.equals(name)) ? slotOrdinals[slot] : -1;
+    }
+
+    /**
+     * @return кол-во столбцов
+     */
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * @param ordinal - номер столбца
+     * @return столбец
+     */
+    public Column getColumn(int ordinal) {
+        return columns.get(ordinal);
+    }
+
+    /**
+     * @return столбцы в порядке номеров
+     */
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Создаёт пустую маску столбцов: по одному биту на столбец.
+     * @return маска
+     */
+    public long[] newMask() {
+        return new long[(columns.size() + 63) / 64];
+    }
+
+    /**
+     * Устанавливает бит столбца в маске.
+     * @param mask - маска
+     * @param ordinal - номер столбца
+     */
+    public static void setBit(long[] mask, int ordinal) {
+        mask[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    /**
+     * Проверяет, что в маске установлены биты всех столбцов.
+     * @param mask - маска
+     * @return true - в маске есть все столбцы
+     */
+    public boolean isComplete(long[] mask) {
+        return Arrays.equals(mask, fullMask);
+    }
+}
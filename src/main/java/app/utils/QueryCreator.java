@@ -26,9 +26,12 @@ public class QueryCreator {
      *                      when True then True else False end<br>
      *                      from (values <b>строки</b>) as vals(<b>столбцы</b>))
      *
-     *  </i>
+     *  </i><br>
+     * Значения первой строки приводятся к типам столбцов ({@code ?::тип}), если тип задан:
+     *      по ним postgresql определяет типы столбцов vals, даже если остальные значения переданы без типа
+     *      (например, null с типом {@link java.sql.Types#OTHER}).
      * @param rowSize количество строк, для которых будет проиходить поиск дублирующих
-     * @param columns набор столбцов, по которому происходит сравнение
+     * @param columns набор столбцов, по которому происходит сравнение. Тип столбца может быть не задан
      * @param tableName название таблицы
      * @return запрос
      */
@@ -57,8 +60,11 @@ public class QueryCreator {
         query.append(") when True then True else False end\n");
 
         query.append("from (values ");
+        String firstRowValues = columns.stream()
+                .map(column -> column.getType() == null ? "?" : "?::" + column.getType().getSqlType())
+                .collect(Collectors.joining(",", "(", ")"));
         String rowValues = "(" + "?,".repeat(columns.size()-1) + "?)";
-        query.append((rowValues + ",").repeat(rowSize - 1)).append(rowValues);
+        query.append(firstRowValues).append(("," + rowValues).repeat(rowSize - 1));
         query.append(") as ").append(rowValuesAlies).append("(");
         query.append(columns.stream()
                 .map(Column::getName)
@@ -1,31 +1,59 @@
 package app.xml;
 
-import lombok.Getter;
-
 import java.util.function.Predicate;
 
 /**
  *  Атрибут xml-элемента. Он состоит из пары ключ-значение.
+ *  Атрибут, созданный парсером элементов, хранит ссылку на строку с атрибутами элемента
+ *  и позиции ключа и значения в ней: строки ключа и значения создаются только при первом обращении к ним.
+ *  Ссылки на сущности в значении раскрываются тогда же ({@link XmlEntities}).
  */
-@Getter
 public class Attribute {
 
     private String name;
     private String value;
 
+    /**
+     * Строка, в которой находятся ключ и значение, и их позиции.
+     * Равна null, если ключ и значение заданы строками.
+     */
+    private final String source;
+    private final int nameStart;
+    private final int nameEnd;
+    private final int valueStart;
+    private final int valueEnd;
+
     /**
      * Возвращает предикат для фильтрации атрибутов по ключу.
      * @param name - ключ для фильтрации
      * @return предикат для фильтрации
      */
     public static Predicate<Attribute> filterByName(String name){
-        return (attr) -> attr.name.equals(name);
+        return (attr) -> attr.hasName(name);
     }
 
     public Attribute(String name, String value) {
 //        validateName(name);
         this.name = name.trim();
         this.value = value;
+        this.source = null;
+        this.nameStart = this.nameEnd = this.valueStart = this.valueEnd = 0;
+    }
+
+    /**
+     * Создаёт атрибут, ключ и значение которого находятся в строке.
+     * @param source - строка с ключом и значением
+     * @param nameStart - начало ключа
+     * @param nameEnd - конец ключа (не включительно)
+     * @param valueStart - начало значения
+     * @param valueEnd - конец значения (не включительно)
+     */
+    Attribute(String source, int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        this.source = source;
+        this.nameStart = nameStart;
+        this.nameEnd = nameEnd;
+        this.valueStart = valueStart;
+        this.valueEnd = valueEnd;
     }
 
 //    private void validateName(String name){
@@ -37,9 +65,36 @@ public class Attribute {
 //        }
 //    }
 
+    public String getName() {
+        if(name == null){
+            name = source.substring(nameStart, nameEnd);
+        }
+        return name;
+    }
+
+    public String getValue() {
+        if(value == null){
+            value = XmlEntities.decode(source, valueStart, valueEnd);
+        }
+        return value;
+    }
+
+    /**
+     * Сравнивает ключ атрибута с указанным без создания строки ключа.
+     * @param otherName - ключ
+     * @return true - ключи совпадают
+     */
+    public boolean hasName(String otherName) {
+        if(name != null){
+            return name.equals(otherName);
+        }
+        int length = nameEnd - nameStart;
+        return otherName.length() == length && source.regionMatches(nameStart, otherName, 0, length);
+    }
+
     @Override
     public String toString(){
-        return String.format("Attribute: %s=\"%s\"", name, value);
+        return String.format("Attribute: %s=\"%s\"", getName(), getValue());
     }
 
     @Override
@@ -51,6 +106,6 @@ public class Attribute {
             return false;
         }
         Attribute other = (Attribute) o;
-        return other.getName().equals(name) && other.getValue().equals(value);
+        return other.getName().equals(getName()) && other.getValue().equals(getValue());
     }
 }
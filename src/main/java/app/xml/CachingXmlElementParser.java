@@ -0,0 +1,249 @@
+package app.xml;
+
+import app.xml.exception.XmlElementParseException;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Парсер элементов, который кэширует разобранные элементы по их исходному тексту.
+ * В файле с таблицей почти все тэги повторяются ("row", "/row", имена столбцов и их закрывающие тэги),
+ * поэтому повторный тэг находится одним поиском в хэш-таблице без разбора и без создания объектов.
+ * Закэшированные элементы неизменяемы и общие для всех узлов, а имена элементов интернируются.
+ *
+ * Кэш ограничен: после заполнения новые тэги не добавляются, а разбираются основным парсером.
+ * Длинные тэги (длиннее {@link #MAX_KEY_LENGTH}) не кэшируются.
+ *
+ * Класс является потоко-безопасным, если потоко-безопасен основной парсер:
+ * таблица кэша не изменяется после публикации, а при добавлении элемента создаётся новая таблица.
+ */
+public class CachingXmlElementParser implements XmlElementParser {
+
+    /**
+     * Кол-во элементов в кэше по умолчанию.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Максимальная длина кэшируемого тэга.
+     */
+    public static final int MAX_KEY_LENGTH = 256;
+
+    private final XmlElementParser parser;
+    private final int capacity;
+
+    /**
+     * Текущая таблица кэша.
+     */
+    private volatile Table table = new Table(16);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingXmlElementParser(XmlElementParser parser) {
+        this(parser, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param parser - основной парсер, которому передаются тэги, отсутствующие в кэше
+     * @param capacity - максимальное кол-во элементов в кэше
+     */
+    public CachingXmlElementParser(XmlElementParser parser, int capacity) {
+        if(capacity < 0){
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        }
+        this.parser = parser;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Element parseElement(String strElement) throws XmlElementParseException {
+        return parseElement(strElement, 0, strElement.length());
+    }
+
+    /**
+     * Ищет элемент в кэше по тексту участка. Если его нет - разбирает основным парсером
+     * и, если в кэше есть место, добавляет в него неизменяемую копию элемента.
+     * @param chars - последовательность символов
+     * @param start - начало содержимого элемента
+     * @param end - конец содержимого элемента (не включительно)
+     * @return элемент
+     * @throws XmlElementParseException - в случае нарушения правил
+     */
+    @Override
+    public Element parseElement(CharSequence chars, int start, int end) throws XmlElementParseException {
+        int length = end - start;
+        if(length > MAX_KEY_LENGTH){
+            misses.increment();
+            return parser.parseElement(chars, start, end);
+        }
+        int hash = hash(chars, start, end);
+        Element cached = table.find(chars, start, end, hash);
+        if(cached != null){
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        Element element = parser.parseElement(chars, start, end);
+        return put(chars, start, end, hash, element);
+    }
+
+    /**
+     * Добавляет неизменяемую копию элемента в кэш, если в нём есть место.
+     * @return элемент, который лежит в кэше, либо исходный элемент, если кэш заполнен
+     */
+    private synchronized Element put(CharSequence chars, int start, int end, int hash, Element element) {
+        Table current = table;
+        Element cached = current.find(chars, start, end, hash);
+        if(cached != null){
+            return cached;
+        }
+        if(current.size >= capacity){
+            return element;
+        }
+        char[] key = new char[end - start];
+        for(int i = 0; i < key.length; ++i){
+            key[i] = chars.charAt(start + i);
+        }
+        Element immutable = new Element(
+                element.getName().intern(),
+                List.copyOf(element.getAttributes()),
+                element.getType()
+        );
+        table = current.with(key, hash, immutable);
+        return immutable;
+    }
+
+    @Override
+    public String parseName(String strElement) throws XmlElementParseException {
+        return parser.parseName(strElement);
+    }
+
+    @Override
+    public List<Attribute> parseAttributes(String str) throws XmlElementParseException {
+        return parser.parseAttributes(str);
+    }
+
+    @Override
+    public ElementType parseType(char c) {
+        return parser.parseType(c);
+    }
+
+    /**
+     * Кол-во тэгов, найденных в кэше.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Кол-во тэгов, разобранных основным парсером.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Доля тэгов, найденных в кэше. 0 - если тэгов ещё не было.
+     */
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Кол-во элементов в кэше.
+     */
+    public int size() {
+        return table.size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Element cache: size = %d, hits = %d, misses = %d, hit rate = %.2f%%",
+                size(), getHitCount(), getMissCount(), getHitRate() * 100);
+    }
+
+    private static int hash(CharSequence chars, int start, int end) {
+        int h = 0;
+        for(int i = start; i < end; ++i){
+            h = 31 * h + chars.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Неизменяемая хэш-таблица с открытой адресацией: тексты тэгов и соответствующие им элементы.
+     * Таблица заполнена не более чем наполовину, поэтому поиск всегда заканчивается на пустой ячейке.
+     */
+    private static final class Table {
+
+        private final char[][] keys;
+        private final int[] hashes;
+        private final Element[] elements;
+        private final int size;
+
+        Table(int slots) {
+            this(new char[slots][], new int[slots], new Element[slots], 0);
+        }
+
+        private Table(char[][] keys, int[] hashes, Element[] elements, int size) {
+            this.keys = keys;
+            this.hashes = hashes;
+            this.elements = elements;
+            this.size = size;
+        }
+
+        Element find(CharSequence chars, int start, int end, int hash) {
+            int mask = keys.length - 1;
+            for(int i = hash & mask; ; i = (i + 1) & mask){
+                char[] key = keys[i];
+                if(key == null){
+                    return null;
+                }
+                if(hashes[i] == hash && matches(key, chars, start, end)){
+                    return elements[i];
+                }
+            }
+        }
+
+        /**
+         * Создаёт новую таблицу с добавленным элементом.
+         */
+        Table with(char[] key, int hash, Element element) {
+            int slots = (size + 1) * 2 > keys.length ? keys.length * 2 : keys.length;
+            Table result = new Table(new char[slots][], new int[slots], new Element[slots], size + 1);
+            for(int i = 0; i < keys.length; ++i){
+                if(keys[i] != null){
+                    result.insert(keys[i], hashes[i], elements[i]);
+                }
+            }
+            result.insert(key, hash, element);
+            return result;
+        }
+
+        private void insert(char[] key, int hash, Element element) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            while(keys[i] != null){
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            hashes[i] = hash;
+            elements[i] = element;
+        }
+
+        private static boolean matches(char[] key, CharSequence chars, int start, int end) {
+            if(key.length != end - start){
+                return false;
+            }
+            for(int i = 0; i < key.length; ++i){
+                if(key[i] != chars.charAt(start + i)){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
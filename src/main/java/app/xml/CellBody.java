@@ -0,0 +1,105 @@
+package app.xml;
+
+/**
+ * Тело ячейки строки, которое собирается из текста событий ({@link XmlEventReader}).
+ * Пока тело состоит из одного участка окна лексера, оно хранится как ссылка на окно ({@link CharSlice})
+ * без копирования. Символы копируются в буфер, только если к телу добавляется ещё текст
+ * или окно лексера сдвигается ({@link #detach()}). Строка значения создаётся только по запросу ({@link #toValue()}).
+ *
+ * Тело хранит текст в том виде, в котором он записан в файле: ссылки на сущности раскрываются в {@link #toValue()}.
+ */
+public final class CellBody implements CharSequence {
+
+    private final CharSlice reference = new CharSlice();
+    private boolean referenced;
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Очищает тело для следующей ячейки.
+     */
+    void clear() {
+        referenced = false;
+        buffer.setLength(0);
+    }
+
+    /**
+     * Добавляет текст текущего события в конец тела.
+     * Если тело пустое, то по возможности запоминается только ссылка на текст.
+     * @param events - поток событий, текущее событие которого {@link XmlEventReader.Event#TEXT}
+     * @param from - позиция в тексте события
+     */
+    void append(XmlEventReader events, int from) {
+        if(length() == 0 && events.referenceText(reference, from)){
+            referenced = true;
+            return;
+        }
+        detach();
+        events.appendText(buffer, from);
+    }
+
+    /**
+     * Копирует символы, на которые ссылается тело, в собственный буфер.
+     * Вызывается перед сдвигом окна лексера.
+     */
+    void detach() {
+        if(referenced){
+            reference.appendTo(buffer);
+            referenced = false;
+        }
+    }
+
+    /**
+     * Создаёт значение ячейки: строку с раскрытыми ссылками на сущности ({@link XmlEntities}).
+     * @return значение
+     */
+    public String toValue() {
+        return XmlEntities.decode(this);
+    }
+
+    /**
+     * Длина значения ({@link #toValue()}). Строка значения создаётся, только если в теле есть ссылки на сущности.
+     * @return длина значения
+     */
+    public int valueLength() {
+        return valueChars().length();
+    }
+
+    /**
+     * Символы значения без создания строки: само тело, если в нём нет ссылок на сущности, иначе {@link #toValue()}.
+     * Тело, которое возвращено, действительно только до чтения следующей строки.
+     * @return символы значения
+     */
+    public CharSequence valueChars() {
+        CharSequence chars = current();
+        for(int i = 0, length = chars.length(); i < length; ++i){
+            if(chars.charAt(i) == '&'){
+                return toValue();
+            }
+        }
+        return this;
+    }
+
+    private CharSequence current() {
+        return referenced ? reference : buffer;
+    }
+
+    @Override
+    public int length() {
+        return current().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return current().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return current().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return current().toString();
+    }
+}
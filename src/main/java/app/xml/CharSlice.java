@@ -0,0 +1,71 @@
+package app.xml;
+
+/**
+ * Изменяемое представление участка массива символов в виде {@link CharSequence} без копирования.
+ * Используется лексерами, чтобы отдавать содержимое окна без создания строк.
+ * Представление действительно, пока не изменились символы массива или границы участка.
+ */
+public final class CharSlice implements CharSequence {
+
+    private char[] chars;
+    private int offset;
+    private int length;
+
+    public CharSlice() {
+        this(new char[0], 0, 0);
+    }
+
+    public CharSlice(char[] chars, int offset, int length) {
+        set(chars, offset, length);
+    }
+
+    /**
+     * Переводит представление на другой участок.
+     * @param chars - массив символов
+     * @param offset - начало участка
+     * @param length - длина участка
+     * @return это же представление
+     */
+    public CharSlice set(char[] chars, int offset, int length) {
+        this.chars = chars;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if(index < 0 || index >= length){
+            throw new IndexOutOfBoundsException(index);
+        }
+        return chars[offset + index];
+    }
+
+    /**
+     * Создаёт строку из части участка.
+     */
+    @Override
+    public String subSequence(int start, int end) {
+        if(start < 0 || start > end || end > length){
+            throw new IndexOutOfBoundsException(String.format("[%d, %d) of %d", start, end, length));
+        }
+        return new String(chars, offset + start, end - start);
+    }
+
+    /**
+     * Добавляет символы участка в конец {@code target}.
+     */
+    public void appendTo(StringBuilder target) {
+        target.append(chars, offset, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, offset, length);
+    }
+}
@@ -1,28 +1,28 @@
 package app.xml;
 
+import lombok.Getter;
+
+/**
+ * Позиция в xml-файле: смещение от начала входных данных (в символах или байтах - зависит от лексера),
+ * номер строки и номер столбца (оба с 1, столбец - в тех же единицах, что и смещение).
+ * Строка и столбец вычисляются только при создании позиции, то есть при возникновении ошибки
+ * ({@link XmlLexer#getPosition()}), поэтому чтение файла не тратит время на их подсчёт.
+ */
+@Getter
 public class CursorPosition {
 
-    private long row = 1;
-    private long column = 1;
-    private Character prevChar = null;
-    private String lineSeparator = System.lineSeparator();
+    private final long offset;
+    private final long row;
+    private final long column;
 
-    public void move(char c){
-        String ch = String.valueOf(c);
-        if(ch.equals(lineSeparator)){
-            moveToNextLine();
-            return;
-        }
-        if(prevChar != null
-                && String.valueOf(prevChar).concat(ch).equals(lineSeparator)){
-            moveToNextLine();
-        }
-        prevChar = c;
+    public CursorPosition(long offset, long row, long column) {
+        this.offset = offset;
+        this.row = row;
+        this.column = column;
     }
 
-    private void moveToNextLine(){
-        row++;
-        column = 1;
+    @Override
+    public String toString() {
+        return String.format("line %d, column %d", row, column);
     }
-
 }
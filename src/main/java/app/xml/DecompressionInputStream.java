@@ -0,0 +1,207 @@
+package app.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Поток, который распаковывает данные в отдельном потоке выполнения.
+ * Поток-распаковщик читает исходный (распаковывающий) поток блоками и передаёт их читателю через ограниченную очередь,
+ * поэтому распаковка и разбор файла выполняются на разных ядрах.
+ * Блоки переиспользуются: прочитанный блок возвращается распаковщику через очередь свободных блоков.
+ *
+ * Ошибка распаковщика выбрасывается читателю после того, как он прочитает все блоки до неё,
+ * и затем при каждом следующем чтении: повреждённые данные не выглядят как конец потока.
+ */
+public class DecompressionInputStream extends InputStream {
+
+    /**
+     * Размер блока по умолчанию.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Кол-во блоков по умолчанию.
+     */
+    public static final int DEFAULT_BLOCK_COUNT = 8;
+
+    /**
+     * Признак окончания данных в очереди.
+     */
+    private static final Block END = new Block(0);
+
+    private final InputStream source;
+    private final BlockingQueue<Block> filled;
+    private final BlockingQueue<Block> free;
+    private final Thread worker;
+
+    /**
+     * Ошибка, возникшая при распаковке.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Текущий читаемый блок и позиция в нём.
+     */
+    private Block current;
+    private int position;
+
+    private boolean closed;
+
+    public DecompressionInputStream(InputStream source) {
+        this(source, DEFAULT_BLOCK_SIZE, DEFAULT_BLOCK_COUNT);
+    }
+
+    /**
+     * Запускает поток-распаковщик.
+     * @param source - распаковывающий поток
+     * @param blockSize - размер блока в байтах
+     * @param blockCount - кол-во блоков (ограничивает расход памяти и опережение распаковщика)
+     */
+    public DecompressionInputStream(InputStream source, int blockSize, int blockCount) {
+        if(blockSize < 1 || blockCount < 1){
+            throw new IllegalArgumentException("Block size and count must be positive.");
+        }
+        this.source = source;
+        this.filled = new ArrayBlockingQueue<>(blockCount + 1);
+        this.free = new ArrayBlockingQueue<>(blockCount);
+        for(int i = 0; i < blockCount; ++i){
+            free.add(new Block(blockSize));
+        }
+        this.worker = new Thread(this::decompress, "xml-decompression");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Читает исходный поток в свободные блоки и передаёт их читателю.
+     */
+    private void decompress() {
+        try{
+            while(true){
+                Block block = free.take();
+                block.length = readFully(block.data);
+                if(block.length == 0){
+                    break;
+                }
+                filled.put(block);
+            }
+        } catch (InterruptedException e){
+            return;
+        } catch (IOException e){
+            failure = e;
+        } catch (Throwable e){
+            failure = new IOException(e);
+        }
+        try{
+            filled.put(END);
+        } catch (InterruptedException ignored){
+        }
+    }
+
+    /**
+     * Заполняет массив данными исходного потока.
+     * @return кол-во прочитанных байт. 0 - если данные закончились
+     */
+    private int readFully(byte[] data) throws IOException {
+        int length = 0;
+        while(length < data.length){
+            int read = source.read(data, length, data.length - length);
+            if(read < 0){
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(!nextBlock()){
+            return -1;
+        }
+        return current.data[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if(len == 0){
+            return 0;
+        }
+        if(!nextBlock()){
+            return -1;
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Переходит к следующему блоку, если текущий прочитан.
+     * @return false - если данные закончились
+     */
+    private boolean nextBlock() throws IOException {
+        if(closed){
+            throw new IOException("Stream closed.");
+        }
+        if(current == END){
+            return finish();
+        }
+        if(current != null && position < current.length){
+            return true;
+        }
+        if(current != null){
+            free.add(current);
+        }
+        try{
+            current = filled.take();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompressed data.");
+        }
+        position = 0;
+        if(current == END){
+            return finish();
+        }
+        return true;
+    }
+
+    /**
+     * Завершает чтение: выбрасывает ошибку распаковщика, если она была.
+     * @return false - данные закончились
+     */
+    private boolean finish() throws IOException {
+        if(failure != null){
+            throw failure;
+        }
+        return false;
+    }
+
+    /**
+     * Останавливает поток-распаковщик и закрывает исходный поток.
+     */
+    @Override
+    public void close() throws IOException {
+        if(closed){
+            return;
+        }
+        closed = true;
+        worker.interrupt();
+        source.close();
+    }
+
+    /**
+     * Блок распакованных данных.
+     */
+    private static final class Block {
+        private final byte[] data;
+        private int length;
+
+        private Block(int size) {
+            this.data = new byte[size];
+        }
+    }
+}
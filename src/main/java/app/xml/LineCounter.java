@@ -0,0 +1,133 @@
+package app.xml;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Счётчик переводов строк ('\n') для вычисления позиции ошибки ({@link CursorPosition}).
+ * Лексеры не считают строки в циклах сканирования: счётчик продвигается одним проходом по той части окна,
+ * которая отбрасывается при его сдвиге, то есть один раз на окно. Поэтому в каждый момент известны
+ * номер строки и начало строки для начала окна, а точная позиция внутри окна вычисляется только по запросу.
+ */
+final class LineCounter {
+
+    /**
+     * Кол-во переводов строк до {@link #counted}.
+     */
+    private long lines;
+
+    /**
+     * Смещение начала последней строки до {@link #counted}.
+     */
+    private long lineStart;
+
+    /**
+     * Смещение, до которого посчитаны переводы строк.
+     */
+    private long counted;
+
+    /**
+     * @param start - смещение, с которого начинается подсчёт
+     */
+    LineCounter(long start) {
+        this.counted = start;
+        this.lineStart = start;
+    }
+
+    long getCounted() {
+        return counted;
+    }
+
+    /**
+     * Считает переводы строк в следующем участке входных данных.
+     * @param chars - символы
+     * @param from - начало участка, соответствующее смещению {@link #getCounted()}
+     * @param to - конец участка
+     */
+    void advance(char[] chars, int from, int to) {
+        long newLines = 0;
+        int last = -1;
+        for(int i = from; i < to; ++i){
+            if(chars[i] == '\n'){
+                ++newLines;
+                last = i;
+            }
+        }
+        update(newLines, last < 0 ? -1 : counted + last - from + 1, to - from);
+    }
+
+    /**
+     * Считает переводы строк в следующем участке входных данных.
+     * @param bytes - байты
+     * @param from - начало участка, соответствующее смещению {@link #getCounted()}
+     * @param to - конец участка
+     */
+    void advance(ByteBuffer bytes, int from, int to) {
+        long newLines = 0;
+        int last = -1;
+        for(int i = from; i < to; ++i){
+            if(bytes.get(i) == '\n'){
+                ++newLines;
+                last = i;
+            }
+        }
+        update(newLines, last < 0 ? -1 : counted + last - from + 1, to - from);
+    }
+
+    private void update(long newLines, long newLineStart, int length) {
+        lines += newLines;
+        if(newLineStart >= 0){
+            lineStart = newLineStart;
+        }
+        counted += length;
+    }
+
+    /**
+     * Добавляет переводы строк, которые находятся перед началом подсчёта.
+     * Используется, когда чтение начинается не с начала файла.
+     * @param prefix - счётчик, посчитавший участок от начала файла до начала подсчёта
+     */
+    void prepend(LineCounter prefix) {
+        if(lines == 0){
+            lineStart = prefix.lineStart;
+        }
+        lines += prefix.lines;
+    }
+
+    /**
+     * Вычисляет позицию, не изменяя счётчик.
+     * @param chars - символы окна
+     * @param from - позиция окна, соответствующая смещению {@link #getCounted()}
+     * @param to - позиция окна, для которой вычисляется позиция
+     */
+    CursorPosition position(char[] chars, int from, int to) {
+        LineCounter copy = copy();
+        copy.advance(chars, from, to);
+        return copy.position();
+    }
+
+    /**
+     * Вычисляет позицию, не изменяя счётчик.
+     * @param bytes - байты окна
+     * @param from - позиция окна, соответствующая смещению {@link #getCounted()}
+     * @param to - позиция окна, для которой вычисляется позиция
+     */
+    CursorPosition position(ByteBuffer bytes, int from, int to) {
+        LineCounter copy = copy();
+        copy.advance(bytes, from, to);
+        return copy.position();
+    }
+
+    /**
+     * Позиция {@link #getCounted()}.
+     */
+    CursorPosition position() {
+        return new CursorPosition(counted, lines + 1, counted - lineStart + 1);
+    }
+
+    private LineCounter copy() {
+        LineCounter copy = new LineCounter(counted);
+        copy.lines = lines;
+        copy.lineStart = lineStart;
+        return copy;
+    }
+}
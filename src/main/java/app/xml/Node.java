@@ -26,7 +26,7 @@ public class Node {
     /**
      * Открывающий элемент узла.
      */
-    private final Element element;
+    private Element element;
     /**
      * Тело узла: содержит символы, находящиеся между элементами узла.
      */
@@ -37,7 +37,7 @@ public class Node {
     /**
      * Ссылка на родителя узла. Может быть null, если является корневым элементом.
      */
-    private final Node parent;
+    private Node parent;
 
     public Node(Node parent, Element element, NodeStatus status){
         this(parent, element);
@@ -50,6 +50,18 @@ public class Node {
         body = new StringBuilder();
     }
 
+    /**
+     * Переиспользует узел как новый: заменяет родителя, элемент и статус и очищает тело.
+     * Буфер тела сохраняет свою ёмкость, поэтому повторное заполнение не требует выделения памяти.
+     * @see XmlParser#releaseNode(Node)
+     */
+    void reset(Node parent, Element element, NodeStatus status){
+        this.parent = parent;
+        this.element = element;
+        this.status = status;
+        body.setLength(0);
+    }
+
     /**
      * Возвращает имя узла, находящееся в его открывающем элементе.
      * @return имя узла
@@ -72,8 +84,11 @@ public class Node {
         return body.length() == 0;
     }
 
+    /**
+     * Возвращает тело узла с раскрытыми ссылками на сущности ({@link XmlEntities}).
+     */
     public String getStringBody(){
-        return body.toString();
+        return XmlEntities.decode(body);
     }
 
     public String toString(){
@@ -7,6 +7,7 @@ import java.util.List;
  * Упорядоченная последовательность узлов в дереве.
  * При изменении последовательности(удаление, добавление узла)
  *      создается новый экземпляр {@code NodePath}.
+ * Парсер для текущей ветви дерева использует изменяемый {@link NodeStack}.
  */
 public class NodePath{
 
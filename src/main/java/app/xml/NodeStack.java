@@ -0,0 +1,103 @@
+package app.xml;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Стек открытых узлов (текущая ветвь дерева), индексированный глубиной узла.
+ * В отличие от {@link NodePath}, стек изменяется на месте: добавление и удаление узла не создают объектов,
+ * а массив расширяется только при превышении максимальной глубины, встреченной ранее.
+ * Используется парсером; внешнему коду отдаётся представление только для чтения {@link #asList()}.
+ */
+class NodeStack {
+
+    /**
+     * Начальная ёмкость стека.
+     */
+    static final int DEFAULT_CAPACITY = 16;
+
+    private Node[] nodes;
+    private int depth;
+
+    NodeStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    NodeStack(int capacity) {
+        this.nodes = new Node[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Добавляет узел на вершину стека.
+     * @param node - узел
+     */
+    void push(Node node) {
+        if(depth == nodes.length){
+            nodes = Arrays.copyOf(nodes, depth * 2);
+        }
+        nodes[depth++] = node;
+    }
+
+    /**
+     * Удаляет узел с вершины стека.
+     * @return удалённый узел
+     * @throws ArrayIndexOutOfBoundsException - если стек пуст
+     */
+    Node pop() {
+        if(depth == 0){
+            throw new ArrayIndexOutOfBoundsException("Node stack is empty.");
+        }
+        Node node = nodes[--depth];
+        nodes[depth] = null;
+        return node;
+    }
+
+    /**
+     * Возвращает узел на вершине стека.
+     * @return последний открытый узел. null - если стек пуст
+     */
+    Node peek() {
+        return depth == 0 ? null : nodes[depth - 1];
+    }
+
+    /**
+     * Возвращает узел на указанной глубине.
+     * @param level - глубина, 0 - корень ветви
+     */
+    Node get(int level) {
+        if(level < 0 || level >= depth){
+            throw new IndexOutOfBoundsException(level);
+        }
+        return nodes[level];
+    }
+
+    /**
+     * Кол-во узлов в стеке.
+     */
+    int depth() {
+        return depth;
+    }
+
+    boolean isEmpty() {
+        return depth == 0;
+    }
+
+    /**
+     * Возвращает представление стека только для чтения: от корня ветви к последнему открытому узлу.
+     * Представление отражает последующие изменения стека.
+     */
+    List<Node> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Node get(int index) {
+                return NodeStack.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return depth;
+            }
+        };
+    }
+}
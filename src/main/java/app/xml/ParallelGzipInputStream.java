@@ -0,0 +1,300 @@
+package app.xml;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Поток, который распаковывает gzip-файл из нескольких блоков (members) в несколько потоков выполнения.
+ * Распаковать блок, не распаковав предыдущие, можно только если известна его граница. Поэтому поддерживается
+ * формат BGZF (blocked gzip, создаётся bgzip): в заголовке каждого блока есть поле "BC" с его размером.
+ *
+ * Поток-координатор читает блоки файла по их размерам и отдаёт их на распаковку пулу потоков,
+ * а результаты в порядке следования блоков передаёт читателю через ограниченную очередь.
+ * Контрольная сумма и размер каждого блока проверяются. Ошибка распаковки выбрасывается
+ * при каждом чтении после неё, а не только при первом.
+ * @see #isBlockedGzip(File)
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+    private static final int HEADER_SIZE = 12;
+    private static final int TRAILER_SIZE = 8;
+    private static final int FLAG_EXTRA = 4;
+
+    /**
+     * Максимальный размер распакованных данных блока в формате BGZF.
+     */
+    private static final int MAX_BLOCK_DATA_SIZE = 1 << 16;
+
+    /**
+     * Признак окончания данных в очереди.
+     */
+    private static final Future<byte[]> END = CompletableFuture.completedFuture(null);
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private final FileChannel channel;
+    private final ExecutorService executor;
+    private final BlockingQueue<Future<byte[]>> blocks;
+    private final Thread coordinator;
+
+    /**
+     * Текущий читаемый блок и позиция в нём.
+     */
+    private byte[] current = new byte[0];
+    private int position;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Ошибка распаковки, полученная читателем.
+     */
+    private IOException failure;
+
+    /**
+     * @param file - gzip-файл в формате BGZF
+     * @param threads - кол-во потоков распаковки
+     * @throws IOException - если файл не удалось открыть
+     */
+    public ParallelGzipInputStream(File file, int threads) throws IOException {
+        if(threads < 1){
+            throw new IllegalArgumentException("Threads count must be positive.");
+        }
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "xml-gzip-inflater");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.blocks = new ArrayBlockingQueue<>(threads * 2);
+        this.coordinator = new Thread(this::readBlocks, "xml-decompression");
+        this.coordinator.setDaemon(true);
+        this.coordinator.start();
+    }
+
+    /**
+     * Проверяет, является ли файл gzip-файлом в формате BGZF: заголовок первого блока содержит его размер.
+     * @param file - файл
+     * @return true - файл в формате BGZF
+     * @throws IOException - если произошла ошибка во время чтения файла
+     */
+    public static boolean isBlockedGzip(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            return readBlockSize(channel, 0) > 0;
+        }
+    }
+
+    /**
+     * Читает размер блока из его заголовка.
+     * @param channel - файл
+     * @param offset - начало блока
+     * @return размер блока вместе с заголовком. -1 - если заголовок не содержит размера.
+     *          0 - если в позиции нет блока (конец файла)
+     */
+    private static int readBlockSize(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header, offset);
+        if(header.position() == 0){
+            return 0;
+        }
+        if(header.position() < HEADER_SIZE
+                || (header.get(0) & 0xff) != 0x1f || (header.get(1) & 0xff) != 0x8b || header.get(2) != 8){
+            return -1;
+        }
+        if((header.get(3) & FLAG_EXTRA) == 0){
+            return -1;
+        }
+        int extraLength = header.getShort(10) & 0xffff;
+        ByteBuffer extra = ByteBuffer.allocate(extraLength).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, extra, offset + HEADER_SIZE);
+        for(int i = 0; i + 4 <= extra.position(); ){
+            int subfieldLength = extra.getShort(i + 2) & 0xffff;
+            if(extra.get(i) == 'B' && extra.get(i + 1) == 'C' && subfieldLength == 2 && i + 6 <= extra.position()){
+                return (extra.getShort(i + 4) & 0xffff) + 1;
+            }
+            i += 4 + subfieldLength;
+        }
+        return -1;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer, offset + buffer.position()) < 0){
+                break;
+            }
+        }
+    }
+
+    /**
+     * Читает блоки файла по очереди и отдаёт их на распаковку.
+     * В конце работы в очередь всегда добавляется ошибка, если она возникла, и признак окончания данных.
+     */
+    private void readBlocks() {
+        IOException error = null;
+        try{
+            long offset = 0;
+            int size;
+            while((size = readBlockSize(channel, offset)) != 0){
+                if(size < 0){
+                    throw new ZipException(String.format("Gzip block at %d has no block size.", offset));
+                }
+                ByteBuffer block = ByteBuffer.allocate(size);
+                readFully(channel, block, offset);
+                if(block.hasRemaining()){
+                    throw new EOFException(String.format("Gzip block at %d is truncated.", offset));
+                }
+                blocks.put(executor.submit(() -> inflate(block.array())));
+                offset += size;
+            }
+        } catch (InterruptedException e){
+            // поток прерван закрытием: очередь больше никто не читает, и ждать места в ней не нужно
+            Thread.currentThread().interrupt();
+        } catch (IOException e){
+            error = e;
+        } catch (Throwable e){
+            error = new IOException(e);
+        } finally {
+            finishBlocks(error);
+        }
+    }
+
+    private void finishBlocks(IOException error) {
+        try{
+            if(error != null){
+                blocks.put(CompletableFuture.failedFuture(error));
+            }
+            blocks.put(END);
+        } catch (InterruptedException ignored){
+        }
+    }
+
+    /**
+     * Распаковывает блок и проверяет его контрольную сумму и размер.
+     * @param block - блок вместе с заголовком
+     * @return распакованные данные
+     */
+    private static byte[] inflate(byte[] block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(block).order(ByteOrder.LITTLE_ENDIAN);
+        int dataStart = HEADER_SIZE + (buffer.getShort(10) & 0xffff);
+        int dataEnd = block.length - TRAILER_SIZE;
+        int expectedCrc = buffer.getInt(dataEnd);
+        int size = buffer.getInt(dataEnd + 4);
+        if(dataEnd < dataStart || size < 0 || size > MAX_BLOCK_DATA_SIZE){
+            throw new ZipException("Invalid gzip block.");
+        }
+
+        // на байт больше, чтобы заметить лишние данные и завершить распаковку пустого блока
+        byte[] output = new byte[size + 1];
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(block, dataStart, dataEnd - dataStart);
+        int length = 0;
+        try{
+            while(length < output.length && !inflater.finished()){
+                int inflated = inflater.inflate(output, length, output.length - length);
+                if(inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())){
+                    break;
+                }
+                length += inflated;
+            }
+        } catch (DataFormatException e){
+            throw new ZipException(e.getMessage());
+        }
+        if(length != size || !inflater.finished()){
+            throw new ZipException("Gzip block size does not match its content.");
+        }
+        byte[] result = Arrays.copyOf(output, size);
+        CRC32 crc = new CRC32();
+        crc.update(result);
+        if((int) crc.getValue() != expectedCrc){
+            throw new ZipException("Gzip block checksum mismatch.");
+        }
+        return result;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(!nextBlock()){
+            return -1;
+        }
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if(len == 0){
+            return 0;
+        }
+        if(!nextBlock()){
+            return -1;
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Переходит к следующему непустому блоку, если текущий прочитан.
+     * @return false - если данные закончились
+     */
+    private boolean nextBlock() throws IOException {
+        if(closed){
+            throw new IOException("Stream closed.");
+        }
+        if(failure != null){
+            throw failure;
+        }
+        while(!finished && position == current.length){
+            try{
+                Future<byte[]> next = blocks.take();
+                if(next == END){
+                    finished = true;
+                    break;
+                }
+                current = next.get();
+                position = 0;
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for decompressed data.");
+            } catch (ExecutionException e){
+                finished = true;
+                failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                throw failure;
+            }
+        }
+        return position < current.length;
+    }
+
+    /**
+     * Останавливает распаковку и закрывает файл.
+     */
+    @Override
+    public void close() throws IOException {
+        if(closed){
+            return;
+        }
+        closed = true;
+        coordinator.interrupt();
+        executor.shutdownNow();
+        channel.close();
+    }
+}
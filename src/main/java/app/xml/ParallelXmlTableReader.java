@@ -0,0 +1,228 @@
+package app.xml;
+
+import app.table.Row;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Считыватель строк таблицы, который разбирает один xml-файл в кодировке UTF-8 в несколько потоков.
+ * Тело табличного узла делится на диапазоны байт примерно одинакового размера.
+ * Граница каждого диапазона сдвигается вперёд до ближайшего открывающего тэга строки ("&lt;row"),
+ * поэтому каждая строка целиком попадает ровно в один диапазон.
+ * Каждый диапазон разбирает свой поток собственным считывателем ({@link XmlTableReaderFactory#openRange(long, long)}),
+ * а прочитанные строки передаются в {@link #readRow()} пачками через ограниченную очередь.
+ *
+ * Строки возвращаются в порядке поступления пачек, а не в порядке следования в файле,
+ * но набор строк совпадает с набором, который возвращает последовательный {@link XmlTableReaderImpl}.
+ *
+ * Ограничения: узлы с именем "row" должны встречаться только как дочерние узлы таблицы,
+ * и последовательность "&lt;row" не должна встречаться внутри комментариев и CDATA.
+ * Если граница попадёт внутрь строки, разбор диапазона завершится ошибкой {@link app.xml.exception.XmlParseException}.
+ */
+public class ParallelXmlTableReader implements XmlTableReader {
+
+    /**
+     * Размер пачки строк по умолчанию.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * Признак окончания диапазона в очереди.
+     */
+    private static final List<Row> END_OF_RANGE = new ArrayList<>();
+
+    private final int threads;
+    private final int batchSize;
+
+    /**
+     * Очередь пачек строк, прочитанных потоками.
+     */
+    private final BlockingQueue<List<Row>> batches;
+
+    /**
+     * Первая ошибка, возникшая в потоках.
+     */
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    private final XmlTableReaderFactory readerFactory;
+
+    private ExecutorService executor;
+    private Node tableNode;
+
+    /**
+     * Кол-во диапазонов и кол-во полностью прочитанных диапазонов.
+     */
+    private int ranges;
+    private int finishedRanges;
+
+    /**
+     * Текущая пачка строк и позиция следующей строки в ней.
+     */
+    private List<Row> batch = List.of();
+    private int batchPosition;
+
+    public ParallelXmlTableReader(File file, XmlElementParser elementParser, int threads) {
+        this(file, elementParser, threads, DEFAULT_BATCH_SIZE, XmlMappedLexer.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param file - xml-файл
+     * @param elementParser - парсер для тэгов. Должен быть потоко-безопасным
+     * @param threads - кол-во потоков, разбирающих файл
+     * @param batchSize - кол-во строк в пачке, передаваемой из потока
+     * @param windowSize - размер окна отображения файла в память для каждого потока
+     */
+    public ParallelXmlTableReader(File file, XmlElementParser elementParser,
+                                  int threads, int batchSize, int windowSize) {
+        if(threads < 1 || batchSize < 1){
+            throw new IllegalArgumentException("Threads and batch size must be positive.");
+        }
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.readerFactory = new XmlTableReaderFactory(file, elementParser, windowSize);
+        this.batches = new ArrayBlockingQueue<>(threads * 2);
+    }
+
+    /**
+     * Возвращает табличный узел. При первом вызове считывает его,
+     * делит тело таблицы на диапазоны и запускает их разбор.
+     * @return табличный узел
+     * @throws IOException - если произошла ошибка в парсере
+     */
+    @Override
+    public Node getTable() throws IOException {
+        if(tableNode == null){
+            start();
+        }
+        return tableNode;
+    }
+
+    /**
+     * Возвращает следующую строку таблицы. Если больше нет строк в таблице - null.
+     * @return следующую строку. null - если строк больше нет
+     * @throws IOException - если произошла ошибка в каком-либо из потоков разбора
+     */
+    @Override
+    public Row readRow() throws IOException {
+        getTable();
+        while(batchPosition >= batch.size()){
+            if(finishedRanges == ranges){
+                throwFailure();
+                return null;
+            }
+            List<Row> next;
+            try{
+                next = batches.take();
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for rows.");
+            }
+            if(next == END_OF_RANGE){
+                finishedRanges++;
+                throwFailure();
+                continue;
+            }
+            batch = next;
+            batchPosition = 0;
+        }
+        return batch.get(batchPosition++);
+    }
+
+    /**
+     * Считывает табличный узел, делит файл на диапазоны и запускает потоки.
+     */
+    private void start() throws IOException {
+        tableNode = readerFactory.getTable();
+        List<Long> bounds = readerFactory.splitBody(threads);
+        ranges = bounds.size() - 1;
+        executor = Executors.newFixedThreadPool(ranges, runnable -> {
+            Thread thread = new Thread(runnable, "xml-range-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for(int i = 0; i < ranges; ++i){
+            long from = bounds.get(i);
+            long to = bounds.get(i + 1);
+            executor.submit(() -> readRange(from, to));
+        }
+    }
+
+    /**
+     * Разбирает диапазон файла и передаёт прочитанные строки в очередь пачками.
+     * В конце работы в очередь всегда добавляется признак окончания диапазона, даже после {@link Error}:
+     * иначе {@link #readRow()} ждал бы его бесконечно.
+     * @param from - начало диапазона
+     * @param to - конец диапазона (не включительно)
+     */
+    private void readRange(long from, long to) {
+        try(XmlTableReader rangeReader = readerFactory.openRange(from, to)){
+            List<Row> rows = new ArrayList<>(batchSize);
+            Row row;
+            while((row = rangeReader.readRow()) != null){
+                rows.add(row);
+                if(rows.size() == batchSize){
+                    batches.put(rows);
+                    rows = new ArrayList<>(batchSize);
+                }
+            }
+            if(!rows.isEmpty()){
+                batches.put(rows);
+            }
+        } catch (InterruptedException e){
+            failure.compareAndSet(null, new InterruptedIOException("Range reading is interrupted."));
+            Thread.currentThread().interrupt();
+        } catch (IOException e){
+            failure.compareAndSet(null, e);
+        } catch (Throwable e){
+            failure.compareAndSet(null, new IOException(e));
+        } finally {
+            finishRange();
+        }
+    }
+
+    /**
+     * Добавляет в очередь признак окончания диапазона. Если поток прерван закрытием считывателя,
+     * очередь больше никто не читает, поэтому признак добавляется без ожидания места в очереди.
+     */
+    private void finishRange() {
+        if(Thread.interrupted()){
+            batches.offer(END_OF_RANGE);
+            return;
+        }
+        try{
+            batches.put(END_OF_RANGE);
+        } catch (InterruptedException e){
+            failure.compareAndSet(null, new InterruptedIOException("Range reading is interrupted."));
+            batches.offer(END_OF_RANGE);
+        }
+    }
+
+    /**
+     * Выбрасывает первую ошибку, возникшую в потоках, если она есть.
+     */
+    private void throwFailure() throws IOException {
+        IOException e = failure.get();
+        if(e != null){
+            throw e;
+        }
+    }
+
+    /**
+     * Останавливает потоки разбора.
+     */
+    @Override
+    public void close() {
+        if(executor != null){
+            executor.shutdownNow();
+        }
+    }
+}
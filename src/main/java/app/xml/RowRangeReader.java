@@ -0,0 +1,65 @@
+package app.xml;
+
+import app.table.Row;
+
+import java.io.IOException;
+
+/**
+ * Считыватель, пропускающий первые строки другого считывателя и ограничивающий кол-во строк.
+ * Без индекса строк пропущенные строки всё равно разбираются, поэтому он подходит и для сжатого файла,
+ * и для файла не в UTF-8.
+ */
+public class RowRangeReader implements XmlTableReader {
+
+    private final XmlTableReader reader;
+    private long skip;
+    private long remaining;
+
+    /**
+     * @param reader - считыватель строк
+     * @param skip - кол-во пропускаемых строк
+     * @param limit - наибольшее кол-во строк после пропущенных. {@link Long#MAX_VALUE} - до конца таблицы
+     */
+    public RowRangeReader(XmlTableReader reader, long skip, long limit) {
+        this.reader = reader;
+        this.skip = skip;
+        this.remaining = limit;
+    }
+
+    /**
+     * Проверяет диапазон номеров строк [fromRow, toRow).
+     * @throws IllegalArgumentException - если номер первой строки отрицательный или больше номера последней
+     */
+    public static void checkRange(long fromRow, long toRow) {
+        if(fromRow < 0 || toRow < fromRow){
+            throw new IllegalArgumentException(String.format("Wrong row range [%d, %d).", fromRow, toRow));
+        }
+    }
+
+    @Override
+    public Node getTable() throws IOException {
+        return reader.getTable();
+    }
+
+    @Override
+    public Row readRow() throws IOException {
+        while(skip > 0){
+            --skip;
+            if(reader.readRow() == null){
+                skip = 0;
+                remaining = 0;
+            }
+        }
+        if(remaining == 0){
+            return null;
+        }
+        Row row = reader.readRow();
+        remaining = row == null ? 0 : remaining - 1;
+        return row;
+    }
+
+    @Override
+    public void close() throws Exception {
+        reader.close();
+    }
+}
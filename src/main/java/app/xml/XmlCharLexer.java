@@ -0,0 +1,433 @@
+package app.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Лексер xml-файла, считывающий символы из потока блоками в переиспользуемое окно ({@code char[]}).
+ * Вместо посимвольного чтения лексер ищет границы тэгов ('<' и '>') в окне циклами по индексам
+ * и отдаёт найденный текст и содержимое тэгов в виде срезов окна [{@link #getSliceStart()}, {@link #getSliceEnd()}).
+ *
+ * Содержимое тэга всегда возвращается одним непрерывным срезом: если тэг не помещается в остаток окна,
+ * его начало переносится в начало окна, а при необходимости окно увеличивается.
+ * Текст между тэгами может возвращаться несколькими срезами подряд.
+ */
+public class XmlCharLexer implements XmlLexer {
+
+    /**
+     * Размер окна по умолчанию (в символах).
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 16;
+
+    private static final char[] COMMENT_START = "!--".toCharArray();
+    private static final char[] CDATA_START = "![CDATA[".toCharArray();
+    private static final char[] PROCESSING_INSTRUCTION_END = "?>".toCharArray();
+    private static final char[] COMMENT_END = "-->".toCharArray();
+    private static final char[] CDATA_END = "]]>".toCharArray();
+
+    /**
+     * Поток символов.
+     */
+    private final Reader reader;
+
+    /**
+     * Окно с символами из потока.
+     */
+    private char[] window;
+
+    /**
+     * Позиция следующего непрочитанного символа в окне.
+     */
+    private int position;
+
+    /**
+     * Кол-во прочитанных в окно символов.
+     */
+    private int limit;
+
+    /**
+     * Границы последнего найденного среза.
+     */
+    private int sliceStart;
+    private int sliceEnd;
+
+    /**
+     * Флаг: true - поток прочитан полностью.
+     */
+    private boolean endOfInput;
+
+    /**
+     * Представление текущего среза.
+     */
+    private final CharSlice slice = new CharSlice();
+
+    /**
+     * Счётчик переводов строк до начала окна.
+     */
+    private final LineCounter lines = new LineCounter(0);
+
+    /**
+     * Слушатель, который вызывается перед перезаписью окна.
+     */
+    private Runnable windowListener;
+
+    public XmlCharLexer(Reader reader) {
+        this(reader, DEFAULT_WINDOW_SIZE);
+    }
+
+    public XmlCharLexer(Reader reader, int windowSize) {
+        if(windowSize < 1){
+            throw new IllegalArgumentException("Window size must be positive.");
+        }
+        this.reader = reader;
+        this.window = new char[windowSize];
+    }
+
+    @Override
+    public TextToken scanText() throws IOException {
+        if(position >= limit && !fill()){
+            sliceStart = sliceEnd = position;
+            return TextToken.END_OF_INPUT;
+        }
+        char[] w = window;
+        int end = limit;
+        int i = position;
+        while(i < end && w[i] != '<'){
+            ++i;
+        }
+        sliceStart = position;
+        sliceEnd = i;
+        if(i < end){
+            position = i + 1;
+            return TextToken.MARKUP;
+        }
+        position = i;
+        return TextToken.TEXT;
+    }
+
+    @Override
+    public TagToken scanTag() throws IOException {
+        int start = position;
+        int i = position;
+        while(true){
+            char[] w = window;
+            int end = limit;
+            while(i < end){
+                char c = w[i];
+                if(c == '>'){
+                    sliceStart = start;
+                    sliceEnd = i;
+                    position = i + 1;
+                    return TagToken.TAG;
+                }
+                if(c == '<'){
+                    position = i + 1;
+                    return TagToken.DOUBLE_OPEN;
+                }
+                ++i;
+            }
+            if(!refillKeeping(start)){
+                position = limit;
+                return TagToken.END_OF_INPUT;
+            }
+            i -= start;
+            start = 0;
+        }
+    }
+
+    @Override
+    public MarkupType scanMarkupType() throws IOException {
+        ensureAvailable(CDATA_START.length);
+        if(position >= limit){
+            return MarkupType.TAG;
+        }
+        char c = window[position];
+        if(c == '?'){
+            ++position;
+            return MarkupType.PROCESSING_INSTRUCTION;
+        }
+        if(c != '!'){
+            return MarkupType.TAG;
+        }
+        if(startsWith(COMMENT_START)){
+            position += COMMENT_START.length;
+            return MarkupType.COMMENT;
+        }
+        if(startsWith(CDATA_START)){
+            position += CDATA_START.length;
+            return MarkupType.CDATA;
+        }
+        ++position;
+        return MarkupType.DECLARATION;
+    }
+
+    /**
+     * Дочитывает окно, пока после текущей позиции не станет хотя бы {@code count} символов или не закончится поток.
+     */
+    private void ensureAvailable(int count) throws IOException {
+        while(limit - position < count){
+            if(!refillKeeping(position)){
+                return;
+            }
+        }
+    }
+
+    private boolean startsWith(char[] prefix) {
+        if(limit - position < prefix.length){
+            return false;
+        }
+        for(int i = 0; i < prefix.length; ++i){
+            if(window[position + i] != prefix[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean skipMarkup(MarkupType type) throws IOException {
+        switch (type){
+            case PROCESSING_INSTRUCTION:
+                return skipPast(PROCESSING_INSTRUCTION_END);
+            case COMMENT:
+                return skipPast(COMMENT_END);
+            case DECLARATION:
+                return skipDeclaration();
+            default:
+                throw new IllegalArgumentException("Markup " + type + " can not be skipped.");
+        }
+    }
+
+    @Override
+    public TextToken scanCData() throws IOException {
+        while(true){
+            int found = indexOf(CDATA_END);
+            if(found >= 0){
+                sliceStart = position;
+                sliceEnd = found;
+                position = found + CDATA_END.length;
+                return TextToken.MARKUP;
+            }
+            // последние символы окна могут оказаться началом "]]>", поэтому они остаются до следующего чтения
+            int safeEnd = limit - (CDATA_END.length - 1);
+            if(safeEnd > position){
+                sliceStart = position;
+                sliceEnd = safeEnd;
+                position = safeEnd;
+                return TextToken.TEXT;
+            }
+            if(!refillKeeping(position)){
+                sliceStart = sliceEnd = position = limit;
+                return TextToken.END_OF_INPUT;
+            }
+        }
+    }
+
+    /**
+     * Пропускает символы до окончания {@code terminator} включительно.
+     * @return true - окончание найдено, false - поток закончился
+     */
+    private boolean skipPast(char[] terminator) throws IOException {
+        while(true){
+            int found = indexOf(terminator);
+            if(found >= 0){
+                position = found + terminator.length;
+                return true;
+            }
+            if(!refillKeeping(Math.max(position, limit - (terminator.length - 1)))){
+                position = limit;
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Ищет в окне, начиная с текущей позиции, последовательность символов, которая заканчивается на '>'.
+     * Сначала ищется последний символ, а уже затем сравниваются предыдущие.
+     * @return позиция начала последовательности. -1 - если её нет в окне
+     */
+    private int indexOf(char[] terminator) {
+        char[] w = window;
+        int last = terminator.length - 1;
+        char lastChar = terminator[last];
+        int end = limit;
+        for(int i = position + last; i < end; ++i){
+            if(w[i] != lastChar){
+                continue;
+            }
+            int k = 0;
+            while(k < last && w[i - last + k] == terminator[k]){
+                ++k;
+            }
+            if(k == last){
+                return i - last;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Пропускает объявление до '>', который находится вне квадратных скобок.
+     * @return true - окончание найдено, false - поток закончился
+     */
+    private boolean skipDeclaration() throws IOException {
+        int brackets = 0;
+        while(true){
+            char[] w = window;
+            int end = limit;
+            for(int i = position; i < end; ++i){
+                char c = w[i];
+                if(c == '['){
+                    ++brackets;
+                } else if(c == ']'){
+                    --brackets;
+                } else if(c == '>' && brackets <= 0){
+                    position = i + 1;
+                    return true;
+                }
+            }
+            position = limit;
+            if(!fill()){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Заполняет окно новыми символами из потока, когда все прежние прочитаны.
+     * @return true - символы прочитаны, false - поток закончился
+     */
+    private boolean fill() throws IOException {
+        if(endOfInput){
+            return false;
+        }
+        beforeWindowMove();
+        lines.advance(window, 0, limit);
+        int n;
+        do{
+            n = reader.read(window, 0, window.length);
+        } while(n == 0);
+        if(n < 0){
+            endOfInput = true;
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    /**
+     * Дочитывает символы в окно, сохраняя символы начиная с указанной позиции:
+     * они переносятся в начало окна. Если окно заполнено сохраняемыми символами, оно увеличивается вдвое.
+     * @param keepFrom - позиция первого сохраняемого символа
+     * @return true - символы прочитаны, false - поток закончился
+     */
+    private boolean refillKeeping(int keepFrom) throws IOException {
+        if(endOfInput){
+            return false;
+        }
+        beforeWindowMove();
+        lines.advance(window, 0, keepFrom);
+        int kept = limit - keepFrom;
+        if(keepFrom > 0){
+            System.arraycopy(window, keepFrom, window, 0, kept);
+        } else if(kept == window.length){
+            window = Arrays.copyOf(window, window.length * 2);
+        }
+        position = 0;
+        limit = kept;
+        int n;
+        do{
+            n = reader.read(window, kept, window.length - kept);
+        } while(n == 0);
+        if(n < 0){
+            endOfInput = true;
+            return false;
+        }
+        limit = kept + n;
+        return true;
+    }
+
+    private void beforeWindowMove() {
+        if(windowListener != null){
+            windowListener.run();
+        }
+    }
+
+    /**
+     * Окно, в котором находится текущий срез.
+     */
+    public char[] getWindow() {
+        return window;
+    }
+
+    public int getSliceStart() {
+        return sliceStart;
+    }
+
+    public int getSliceEnd() {
+        return sliceEnd;
+    }
+
+    @Override
+    public int sliceLength() {
+        return sliceEnd - sliceStart;
+    }
+
+    @Override
+    public char sliceCharAt(int index) {
+        return window[sliceStart + index];
+    }
+
+    @Override
+    public int indexOfNonWhitespace(int from) {
+        char[] w = window;
+        for(int i = sliceStart + from; i < sliceEnd; ++i){
+            if(!Character.isWhitespace(w[i])){
+                return i - sliceStart;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void appendSlice(StringBuilder target, int from) {
+        target.append(window, sliceStart + from, sliceEnd - sliceStart - from);
+    }
+
+    @Override
+    public boolean referenceSlice(CharSlice target, int from) {
+        target.set(window, sliceStart + from, sliceEnd - sliceStart - from);
+        return true;
+    }
+
+    @Override
+    public void setWindowListener(Runnable listener) {
+        this.windowListener = listener;
+    }
+
+    /**
+     * Смещение и столбец измеряются в символах.
+     */
+    @Override
+    public CursorPosition getPosition() {
+        return lines.position(window, 0, position);
+    }
+
+    @Override
+    public String sliceToString() {
+        return new String(window, sliceStart, sliceEnd - sliceStart);
+    }
+
+    @Override
+    public CharSequence slice() {
+        return slice.set(window, sliceStart, sliceEnd - sliceStart);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,288 @@
+package app.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Поток символов, декодирующий байты в указанной кодировке с быстрыми путями для xml-разметки.
+ * <ul>
+ *     <li>UTF-8 и US-ASCII: участки ASCII-байт расширяются в символы напрямую,
+ *     а {@link CharsetDecoder} вызывается только для многобайтовых последовательностей.
+ *     Байты ASCII в UTF-8 никогда не входят в многобайтовые последовательности, поэтому это корректно.</li>
+ *     <li>Однобайтовые кодировки (windows-1251, ISO-8859-*, KOI8-R и т.д.): каждый байт переводится
+ *     в символ по таблице, построенной один раз.</li>
+ *     <li>Остальные кодировки (например, UTF-16) декодируются {@link CharsetDecoder} целыми буферами.</li>
+ * </ul>
+ * Некорректные последовательности байт заменяются символом замены, как в {@link java.io.InputStreamReader}.
+ */
+public class XmlDecodingReader extends Reader {
+
+    /**
+     * Размер буфера байт по умолчанию.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Способ декодирования.
+     */
+    private enum Mode {
+        ASCII_COMPATIBLE, SINGLE_BYTE, GENERAL;
+    }
+
+    private final InputStream in;
+    private final CharsetDecoder decoder;
+    private final Mode mode;
+
+    /**
+     * Таблица символов для однобайтовой кодировки.
+     */
+    private final char[] singleByteTable;
+
+    private final byte[] bytes;
+    private final ByteBuffer byteBuffer;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private boolean flushed;
+
+    /**
+     * Символ, который не поместился в выходной массив (вторая половина суррогатной пары). -1 - если его нет.
+     */
+    private int pendingChar = -1;
+    private final char[] pairBuffer = new char[2];
+
+    public XmlDecodingReader(InputStream in, Charset charset) {
+        this(in, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param in - поток байт
+     * @param charset - кодировка
+     * @param bufferSize - размер буфера байт
+     */
+    public XmlDecodingReader(InputStream in, Charset charset, int bufferSize) {
+        if(bufferSize < 4){
+            throw new IllegalArgumentException("Buffer size must be at least 4 bytes.");
+        }
+        this.in = in;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = new byte[bufferSize];
+        this.byteBuffer = ByteBuffer.wrap(bytes);
+        this.singleByteTable = buildSingleByteTable(charset);
+        if(charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)){
+            this.mode = Mode.ASCII_COMPATIBLE;
+        } else if(singleByteTable != null){
+            this.mode = Mode.SINGLE_BYTE;
+        } else {
+            this.mode = Mode.GENERAL;
+        }
+    }
+
+    /**
+     * Строит таблицу символов, если кодировка однобайтовая: каждый байт декодируется ровно в один символ.
+     * @return таблица символов. null - если кодировка не однобайтовая
+     */
+    private static char[] buildSingleByteTable(Charset charset) {
+        if(!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1.0f){
+            return null;
+        }
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        char[] table = new char[256];
+        for(int b = 0; b < 256; ++b){
+            CharBuffer decoded;
+            try{
+                decoded = decoder.reset().decode(ByteBuffer.wrap(new byte[]{(byte) b}));
+            } catch (CharacterCodingException e){
+                return null;
+            }
+            if(decoded.remaining() != 1){
+                return null;
+            }
+            table[b] = decoded.get();
+        }
+        return table;
+    }
+
+    @Override
+    public int read(char[] chars, int off, int len) throws IOException {
+        if(len == 0){
+            return 0;
+        }
+        int count = 0;
+        if(pendingChar >= 0){
+            chars[off] = (char) pendingChar;
+            pendingChar = -1;
+            count = 1;
+        }
+        while(count < len){
+            if(position == limit && !fill()){
+                break;
+            }
+            int decoded = decode(chars, off + count, len - count);
+            if(decoded > 0){
+                count += decoded;
+                continue;
+            }
+            // в конце буфера незавершённая последовательность байт: либо отдаём прочитанное, либо дочитываем
+            if(count > 0 || endOfInput || !fill()){
+                break;
+            }
+        }
+        if(count > 0){
+            return count;
+        }
+        return flush(chars, off, len);
+    }
+
+    private int decode(char[] chars, int off, int len) throws IOException {
+        switch (mode){
+            case SINGLE_BYTE:
+                return decodeSingleByte(chars, off, len);
+            case ASCII_COMPATIBLE:
+                return decodeAsciiCompatible(chars, off, len);
+            default:
+                return decodeRange(chars, off, len, limit, false);
+        }
+    }
+
+    private int decodeSingleByte(char[] chars, int off, int len) {
+        int count = Math.min(len, limit - position);
+        char[] table = singleByteTable;
+        for(int i = 0; i < count; ++i){
+            chars[off + i] = table[bytes[position + i] & 0xff];
+        }
+        position += count;
+        return count;
+    }
+
+    private int decodeAsciiCompatible(char[] chars, int off, int len) throws IOException {
+        int count = 0;
+        while(count < len && position < limit){
+            int max = Math.min(len - count, limit - position);
+            int i = 0;
+            while(i < max){
+                byte b = bytes[position + i];
+                if(b < 0){
+                    break;
+                }
+                chars[off + count + i] = (char) b;
+                ++i;
+            }
+            position += i;
+            count += i;
+            if(i == max){
+                continue;
+            }
+            int runEnd = position;
+            while(runEnd < limit && bytes[runEnd] < 0){
+                ++runEnd;
+            }
+            // участок, за которым следует ASCII-байт, завершён: незаконченная последовательность в нём - ошибка
+            int decoded = decodeRange(chars, off + count, len - count, runEnd, runEnd < limit);
+            if(decoded == 0){
+                break;
+            }
+            count += decoded;
+        }
+        return count;
+    }
+
+    /**
+     * Декодирует байты от текущей позиции до {@code end} декодером.
+     * Если в выходной массив не помещается суррогатная пара, вторая её половина откладывается.
+     * @param complete - true - участок завершён, и незаконченная последовательность в его конце заменяется.
+     *                 Используется только для кодировок без состояния (UTF-8)
+     * @return кол-во символов. 0 - если последовательность байт не завершена
+     */
+    private int decodeRange(char[] chars, int off, int len, int end, boolean complete) throws IOException {
+        byteBuffer.limit(end).position(position);
+        CharBuffer out = CharBuffer.wrap(chars, off, len);
+        CoderResult result = decoder.decode(byteBuffer, out, complete);
+        position = byteBuffer.position();
+        checkError(result);
+        int count = out.position() - off;
+        if(count == 0 && result.isOverflow()){
+            CharBuffer pair = CharBuffer.wrap(pairBuffer);
+            result = decoder.decode(byteBuffer, pair, complete);
+            position = byteBuffer.position();
+            checkError(result);
+            if(pair.position() > 0){
+                chars[off] = pairBuffer[0];
+                if(pair.position() > 1){
+                    pendingChar = pairBuffer[1];
+                }
+                count = 1;
+            }
+        }
+        if(complete){
+            decoder.reset();
+        }
+        return count;
+    }
+
+    private static void checkError(CoderResult result) throws IOException {
+        if(result.isError()){
+            result.throwException();
+        }
+    }
+
+    /**
+     * Переносит незавершённые байты в начало буфера и дочитывает поток.
+     * @return false - если поток закончился и в буфере нет байт
+     */
+    private boolean fill() throws IOException {
+        if(endOfInput){
+            return position < limit;
+        }
+        int remaining = limit - position;
+        System.arraycopy(bytes, position, bytes, 0, remaining);
+        position = 0;
+        limit = remaining;
+        int read = in.read(bytes, limit, bytes.length - limit);
+        if(read < 0){
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+        return position < limit;
+    }
+
+    /**
+     * Декодирует оставшиеся в конце потока байты (незавершённую последовательность заменяет символом замены).
+     * @return кол-во символов. -1 - если символов больше нет
+     */
+    private int flush(char[] chars, int off, int len) throws IOException {
+        if(flushed){
+            return -1;
+        }
+        byteBuffer.limit(limit).position(position);
+        CharBuffer out = CharBuffer.wrap(chars, off, len);
+        CoderResult result = decoder.decode(byteBuffer, out, true);
+        checkError(result);
+        position = byteBuffer.position();
+        if(result.isUnderflow()){
+            checkError(decoder.flush(out));
+            flushed = true;
+        }
+        int count = out.position() - off;
+        return count == 0 && flushed ? -1 : count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -37,6 +37,18 @@ public interface XmlElementParser {
      */
     Element parseElement(String strElement) throws XmlElementParseException;
 
+    /**
+     * Полностью разбирает участок последовательности символов, хранящий имя элемента и его атрибуты.
+     * Символы за пределами участка не читаются, а сам участок не копируется без необходимости.
+     * Реализация не должна сохранять ссылку на {@code chars}: последовательность может переиспользоваться.
+     * @param chars - последовательность символов
+     * @param start - начало содержимого элемента
+     * @param end - конец содержимого элемента (не включительно)
+     * @return элемент
+     * @throws XmlElementParseException - в случае нарушения правил
+     */
+    Element parseElement(CharSequence chars, int start, int end) throws XmlElementParseException;
+
     /**
      * Достаёт имя элемента из строки.
      * @param strElement - строка с содержимым элемента(можно без атрибутов)
@@ -4,10 +4,15 @@ import app.xml.exception.XmlElementParseException;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Реализация парсера из строки в {@link Element}.
+ * Разбор ведётся по индексам внутри участка {@link CharSequence} без промежуточных подстрок:
+ * строка создаётся только для имени элемента, а для атрибутов - одна строка на весь участок с атрибутами,
+ * из которой ключи и значения выделяются только при обращении к ним ({@link Attribute}).
+ * Уникальность атрибутов проверяется за линейное время по хэш-таблице.
+ *
+ * Класс не хранит состояния и является потоко-безопасным.
  */
 public class XmlElementParserImpl implements XmlElementParser {
 
@@ -19,11 +24,24 @@ public class XmlElementParserImpl implements XmlElementParser {
      */
     @Override
     public Element parseElement(String strElement) throws XmlElementParseException {
-        checkElementIsEmpty(strElement);
-        String name = parseName(strElement);
-        int attributeStart = strElement.indexOf(name) + name.length();
-        List<Attribute> attributes = parseAttributes(strElement.substring(attributeStart));
-        ElementType type = parseType(strElement.charAt(0));
+        return parseElement(strElement, 0, strElement.length());
+    }
+
+    /**
+     * Полностью разбирает участок последовательности символов, хранящий имя элемента и его атрибуты.
+     * @param chars - последовательность символов
+     * @param start - начало содержимого элемента
+     * @param end - конец содержимого элемента (не включительно)
+     * @return элемент
+     * @throws XmlElementParseException - в случае нарушения правил
+     */
+    @Override
+    public Element parseElement(CharSequence chars, int start, int end) throws XmlElementParseException {
+        checkElementIsEmpty(chars, start, end);
+        int nameEnd = findNameEnd(chars, start, end);
+        String name = createName(chars, start, nameEnd);
+        List<Attribute> attributes = parseAttributes(chars, nameEnd, end);
+        ElementType type = parseType(chars.charAt(start));
         return new Element(name, attributes, type);
     }
 
@@ -36,28 +54,49 @@ public class XmlElementParserImpl implements XmlElementParser {
      */
     @Override
     public String parseName(String strElement) throws XmlElementParseException {
-        checkElementIsEmpty(strElement);
+        checkElementIsEmpty(strElement, 0, strElement.length());
+        int nameEnd = findNameEnd(strElement, 0, strElement.length());
+        return createName(strElement, 0, nameEnd);
+    }
 
-        int nameStart = findFirstNotWhitespaceChar(strElement, 0);
-        if(nameStart > 0){
+    /**
+     * Находит и проверяет имя элемента в участке.
+     * @param chars - последовательность символов
+     * @param start - начало содержимого элемента
+     * @param end - конец содержимого элемента
+     * @return позиция конца имени (первый отступ после имени либо конец участка)
+     * @throws XmlElementParseException - если нарушены правила (отступы вначале, некорректное имя).
+     */
+    private int findNameEnd(CharSequence chars, int start, int end) throws XmlElementParseException {
+        int nameStart = findFirstNotWhitespaceChar(chars, start, end);
+        if(nameStart > start){
             throw new XmlElementParseException("Whitespaces before element name.");
         }
         // между '/' и именем элемента могут быть отступы: </   table>
-        if (hasElementTypeSymbol(strElement, nameStart)) {
-            nameStart = findFirstNotWhitespaceChar(strElement, nameStart + 1);
+        if (hasElementTypeSymbol(chars, nameStart)) {
+            nameStart = findFirstNotWhitespaceChar(chars, nameStart + 1, end);
         }
         if(nameStart < 0){
             throw new XmlElementParseException("Element name is not found.");
         }
-        int nameEnd = findWhitespace(strElement, nameStart + 1);
-        nameEnd = (nameEnd < 0) ? strElement.length() : nameEnd;
-
-        String name = strElement.substring(nameStart, nameEnd).trim();
-        validateName(name);
+        int nameEnd = findWhitespace(chars, nameStart + 1, end);
+        nameEnd = (nameEnd < 0) ? end : nameEnd;
 
-        return name;
+        validateName(chars, nameStart, nameEnd);
+        return nameEnd;
     }
 
+    /**
+     * Создаёт строку с именем элемента, имя которого уже проверено {@link #findNameEnd}.
+     */
+    private String createName(CharSequence chars, int start, int nameEnd) {
+        int nameStart = start;
+        char c = chars.charAt(nameStart);
+        if(c == '/' || c == '?'){
+            nameStart = findFirstNotWhitespaceChar(chars, nameStart + 1, nameEnd);
+        }
+        return chars.subSequence(trimStart(chars, nameStart, nameEnd), trimEnd(chars, nameStart, nameEnd)).toString();
+    }
 
     /**
      * Разбирает строку по атрибутам элемента.
@@ -69,39 +108,61 @@ public class XmlElementParserImpl implements XmlElementParser {
      */
     @Override
     public List<Attribute> parseAttributes(String str) throws XmlElementParseException {
+        return parseAttributes(str, 0, str.length());
+    }
+
+    /**
+     * Разбирает участок с атрибутами элемента.
+     * Если в участке только отступы, строки не создаются.
+     * Иначе создаётся одна строка с содержимым участка, на которую ссылаются все атрибуты.
+     * @param chars - последовательность символов
+     * @param start - начало участка с атрибутами
+     * @param end - конец участка с атрибутами
+     * @return список атрибутов
+     * @throws XmlElementParseException - если нарушено 1 из правил для атрибута, либо для его ключа.
+     */
+    private List<Attribute> parseAttributes(CharSequence chars, int start, int end)
+            throws XmlElementParseException {
+        if(findFirstNotWhitespaceChar(chars, start, end) == -1){
+            return List.of();
+        }
+        String str = chars.subSequence(start, end).toString();
         List<Attribute> result = new ArrayList<>();
+        AttributeNames names = new AttributeNames();
 
-        int attributeKeyStart = findFirstNotWhitespaceChar(str,0);
+        int length = str.length();
+        int attributeKeyStart = findFirstNotWhitespaceChar(str, 0, length);
         while(attributeKeyStart != -1){
             int equalSign = str.indexOf('=', attributeKeyStart);
             if(equalSign == -1){
                 throw new XmlElementParseException("Attribute must has a value.");
             }
 
-            int attrValueStart = str.indexOf("\"", equalSign + 1);
-            if(attrValueStart == -1 && !str.substring(equalSign + 1).isBlank()){
+            int attrValueStart = str.indexOf('"', equalSign + 1);
+            if(attrValueStart == -1 && findFirstNotWhitespaceChar(str, equalSign + 1, length) != -1){
                 throw new XmlElementParseException("Attribute value must be enclosed in double quotes.");
             }
             if(attrValueStart == -1){
                 throw new XmlElementParseException("Attribute must has a value.");
             }
 
-            int attrValueEnd = str.indexOf("\"", attrValueStart + 1);
+            int attrValueEnd = str.indexOf('"', attrValueStart + 1);
             if(attrValueEnd == -1){
                 throw new XmlElementParseException("Attribute value is not closed.");
             }
-            if(attrValueEnd + 1 < str.length() && !Character.isWhitespace(str.charAt(attrValueEnd + 1))){
+            if(attrValueEnd + 1 < length && !Character.isWhitespace(str.charAt(attrValueEnd + 1))){
                 throw new XmlElementParseException("There must be a whitespace between attributes.");
             }
 
-            String key = str.substring(attributeKeyStart, equalSign).trim();
-            validateName(key);
-            String value = str.substring(attrValueStart + 1, attrValueEnd);
-            result.add(new Attribute(key, value));
+            int keyStart = trimStart(str, attributeKeyStart, equalSign);
+            int keyEnd = trimEnd(str, attributeKeyStart, equalSign);
+            validateName(str, keyStart, keyEnd);
+            Attribute attribute = new Attribute(str, keyStart, keyEnd, attrValueStart + 1, attrValueEnd);
+            result.add(attribute);
 
-            checkAttributeUniqueness(result, key);
+            checkAttributeUniqueness(names, str, keyStart, keyEnd);
 
-            attributeKeyStart = findFirstNotWhitespaceChar(str, attrValueEnd + 1);
+            attributeKeyStart = findFirstNotWhitespaceChar(str, attrValueEnd + 1, length);
         }
 
         return result;
@@ -110,21 +171,19 @@ public class XmlElementParserImpl implements XmlElementParser {
     /**
      * Проверяет на уникальность атрибута.
      * Если атрибут не уникален - возникает исключительная ситуация.
-     * @param attributes - список атрибутов
-     * @param attributeName - имя уникального атрибута
+     * @param names - ключи уже разобранных атрибутов
+     * @param str - строка с атрибутами
+     * @param keyStart - начало ключа атрибута
+     * @param keyEnd - конец ключа атрибута
      * @throws XmlElementParseException - если атрибут не уникален
      */
-    private void checkAttributeUniqueness(List<Attribute> attributes, String attributeName)
+    private void checkAttributeUniqueness(AttributeNames names, String str, int keyStart, int keyEnd)
             throws XmlElementParseException {
-        long attrCount = attributes.stream()
-                .filter(Attribute.filterByName(attributeName))
-                .count();
-
-        if(attrCount > 1){
+        if(!names.add(str, keyStart, keyEnd)){
             throw new XmlElementParseException(
                     String.format(
                             "Duplicate attribute '%s'.",
-                            attributeName
+                            str.substring(keyStart, keyEnd)
                     )
             );
         }
@@ -148,12 +207,12 @@ public class XmlElementParserImpl implements XmlElementParser {
 
     /**
      * Проверяет есть в начале элемента специальный символ.
-     * @param str - элемент
+     * @param chars - элемент
      * @param nameStart - начало элемента
      * @return true - есть, false - нет
      */
-    private boolean hasElementTypeSymbol(String str, int nameStart) {
-        char c = str.charAt(nameStart);
+    private boolean hasElementTypeSymbol(CharSequence chars, int nameStart) {
+        char c = chars.charAt(nameStart);
         return c == '/' || c == '?';
     }
 
@@ -163,19 +222,24 @@ public class XmlElementParserImpl implements XmlElementParser {
      *  1) имена должны начинаться с буквы ({@link Character#isLetter(char)}),
      *  2) все остальные символы должны быть буквой либо символом
      *                          ({@link Character#isLetterOrDigit(char)}).
-     * @param name - имя элемента или ключ атрибута.
+     * Символы в начале и в конце участка, которые отбрасывает {@link String#trim()}, не учитываются.
+     * @param chars - последовательность символов
+     * @param from - начало имени элемента или ключа атрибута
+     * @param to - конец имени
      * @throws XmlElementParseException - если имя не соответствует правилам, либо пусто.
      */
-    private void validateName(String name) throws XmlElementParseException {
-        if(name.isBlank()){
+    private void validateName(CharSequence chars, int from, int to) throws XmlElementParseException {
+        int start = trimStart(chars, from, to);
+        int end = trimEnd(chars, from, to);
+        if(findFirstNotWhitespaceChar(chars, start, end) == -1){
             throw new XmlElementParseException("Name must not be empty.");
         }
-        char firstLetter = name.charAt(0);
+        char firstLetter = chars.charAt(start);
         if(!Character.isLetter(firstLetter)){
             throw new XmlElementParseException("Name must start with letter.");
         }
-        for(int i = 1; i < name.length();++i){
-            char c = name.charAt(i);
+        for(int i = start + 1; i < end; ++i){
+            char c = chars.charAt(i);
             if(!Character.isLetterOrDigit(c)){
                 throw new XmlElementParseException("Name must contain digits and letters only.");
             }
@@ -183,19 +247,37 @@ public class XmlElementParserImpl implements XmlElementParser {
     }
 
     /**
-     * Находит первый символ в строке
+     * Позиция первого символа участка, который не отбрасывает {@link String#trim()}.
+     */
+    private int trimStart(CharSequence chars, int from, int to) {
+        while(from < to && chars.charAt(from) <= ' '){
+            ++from;
+        }
+        return from;
+    }
+
+    /**
+     * Позиция после последнего символа участка, который не отбрасывает {@link String#trim()}.
+     */
+    private int trimEnd(CharSequence chars, int from, int to) {
+        while(to > from && chars.charAt(to - 1) <= ' '){
+            --to;
+        }
+        return to;
+    }
+
+    /**
+     * Находит первый символ в участке
      *      не являющийся отступом({@link Character#isWhitespace(char) == false}),
      *      начиная с заданной позиции.
-     * @param str - строка для поиска
+     * @param chars - последовательность для поиска
      * @param from - позиция, с которой начинается поиск
-     * @return позиция символа в строке. -1 - если символа нет, либо from >= str.length().
+     * @param to - конец участка
+     * @return позиция символа. -1 - если символа нет, либо from >= to.
      */
-    private int findFirstNotWhitespaceChar(String str, int from){
-        if(from >= str.length()){
-            return -1;
-        }
-        for(int i = from;i < str.length();++i){
-            if(!Character.isWhitespace(str.charAt(i))){
+    private int findFirstNotWhitespaceChar(CharSequence chars, int from, int to){
+        for(int i = from; i < to; ++i){
+            if(!Character.isWhitespace(chars.charAt(i))){
                 return i;
             }
         }
@@ -203,18 +285,16 @@ public class XmlElementParserImpl implements XmlElementParser {
     }
 
     /**
-     * Поиск отступа({@link Character#isWhitespace(char) == true}) в строке,
+     * Поиск отступа({@link Character#isWhitespace(char) == true}) в участке,
      *      начиная с заданной позиции.
-     * @param str - строка для поиска
+     * @param chars - последовательность для поиска
      * @param from - позиция, с которой начинается поиск
-     * @return позиция символа в строке. -1 - если отступа нет, либо from >= str.length().
+     * @param to - конец участка
+     * @return позиция символа. -1 - если отступа нет, либо from >= to.
      */
-    private int findWhitespace(String str, int from) {
-        if(from >= str.length()){
-            return -1;
-        }
-        for(int i = from; i < str.length();++i){
-            if(Character.isWhitespace(str.charAt(i))){
+    private int findWhitespace(CharSequence chars, int from, int to) {
+        for(int i = from; i < to; ++i){
+            if(Character.isWhitespace(chars.charAt(i))){
                 return i;
             }
         }
@@ -223,12 +303,73 @@ public class XmlElementParserImpl implements XmlElementParser {
 
     /**
      * Проверяет, пуст ли элемент.
-     * @param str - элемент
+     * @param chars - последовательность символов
+     * @param start - начало элемента
+     * @param end - конец элемента
      * @throws XmlElementParseException - элемент пуст
      */
-    private void checkElementIsEmpty(String str) throws XmlElementParseException {
-        if(str.isBlank()){
+    private void checkElementIsEmpty(CharSequence chars, int start, int end) throws XmlElementParseException {
+        if(findFirstNotWhitespaceChar(chars, start, end) == -1){
             throw new XmlElementParseException("Element must not be empty.");
         }
     }
+
+    /**
+     * Множество ключей атрибутов одного элемента: хэш-таблица с открытой адресацией,
+     * хранящая позиции ключей в строке с атрибутами. Добавление и поиск занимают O(1) в среднем.
+     */
+    private static final class AttributeNames {
+
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int size;
+
+        /**
+         * Добавляет ключ в множество.
+         * @return true - ключ добавлен, false - такой ключ уже есть
+         */
+        boolean add(String str, int start, int end) {
+            if((size + 1) * 2 > starts.length){
+                resize(str);
+            }
+            return insert(str, start, end);
+        }
+
+        private boolean insert(String str, int start, int end) {
+            int mask = starts.length - 1;
+            int length = end - start;
+            for(int i = hash(str, start, end) & mask; ; i = (i + 1) & mask){
+                if(ends[i] == 0){
+                    starts[i] = start;
+                    ends[i] = end;
+                    size++;
+                    return true;
+                }
+                if(ends[i] - starts[i] == length && str.regionMatches(starts[i], str, start, length)){
+                    return false;
+                }
+            }
+        }
+
+        private void resize(String str) {
+            int[] oldStarts = starts;
+            int[] oldEnds = ends;
+            starts = new int[oldStarts.length * 2];
+            ends = new int[oldEnds.length * 2];
+            size = 0;
+            for(int i = 0; i < oldStarts.length; ++i){
+                if(oldEnds[i] != 0){
+                    insert(str, oldStarts[i], oldEnds[i]);
+                }
+            }
+        }
+
+        private static int hash(String str, int start, int end) {
+            int h = 0;
+            for(int i = start; i < end; ++i){
+                h = 31 * h + str.charAt(i);
+            }
+            return h ^ (h >>> 16);
+        }
+    }
 }
@@ -0,0 +1,159 @@
+package app.xml;
+
+/**
+ * Раскрытие ссылок на сущности xml в значениях: предопределённых ({@code &amp; &lt; &gt; &quot; &apos;})
+ * и символьных ({@code &#1055;}, {@code &#x41F;}).
+ *
+ * Текст тел узлов и значений атрибутов хранится в том виде, в котором он записан в файле,
+ * и раскрывается только при создании строки значения. Если в значении нет '&', строка возвращается как есть
+ * без дополнительных копирований, поэтому значения без сущностей ничего не теряют.
+ * Нераспознанные и незавершённые ссылки остаются в значении без изменений.
+ */
+public final class XmlEntities {
+
+    /**
+     * Максимальная длина ссылки между '&' и ';'.
+     */
+    private static final int MAX_REFERENCE_LENGTH = 10;
+
+    private XmlEntities() {
+    }
+
+    /**
+     * Создаёт строку из последовательности символов и раскрывает в ней ссылки на сущности.
+     * @param chars - текст в том виде, в котором он записан в файле
+     * @return значение
+     */
+    public static String decode(CharSequence chars) {
+        String str = chars.toString();
+        int ampersand = str.indexOf('&');
+        if(ampersand < 0){
+            return str;
+        }
+        return decode(str, ampersand, 0, str.length());
+    }
+
+    /**
+     * Создаёт строку из участка строки и раскрывает в ней ссылки на сущности.
+     * @param str - строка
+     * @param from - начало участка
+     * @param to - конец участка (не включительно)
+     * @return значение
+     */
+    public static String decode(String str, int from, int to) {
+        int ampersand = str.indexOf('&', from);
+        if(ampersand < 0 || ampersand >= to){
+            return str.substring(from, to);
+        }
+        return decode(str, ampersand, from, to);
+    }
+
+    /**
+     * Раскрывает ссылки за один проход, начиная с первого '&'.
+     */
+    private static String decode(String str, int ampersand, int from, int to) {
+        StringBuilder result = new StringBuilder(to - from);
+        result.append(str, from, ampersand);
+        int i = ampersand;
+        while(i < to){
+            char c = str.charAt(i);
+            if(c != '&'){
+                result.append(c);
+                ++i;
+                continue;
+            }
+            int semicolon = indexOfSemicolon(str, i + 1, to);
+            if(semicolon < 0 || !appendReference(result, str, i + 1, semicolon)){
+                result.append(c);
+                ++i;
+                continue;
+            }
+            i = semicolon + 1;
+        }
+        return result.toString();
+    }
+
+    private static int indexOfSemicolon(String str, int from, int to) {
+        int end = Math.min(to, from + MAX_REFERENCE_LENGTH + 1);
+        for(int i = from; i < end; ++i){
+            if(str.charAt(i) == ';'){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Добавляет символ, на который ссылается ссылка.
+     * @param from - начало ссылки (после '&')
+     * @param to - конец ссылки (позиция ';')
+     * @return false - ссылка не распознана
+     */
+    private static boolean appendReference(StringBuilder result, String str, int from, int to) {
+        int length = to - from;
+        if(length > 1 && str.charAt(from) == '#'){
+            return appendCharacterReference(result, str, from + 1, to);
+        }
+        char c;
+        if(length == 3 && str.startsWith("amp", from)){
+            c = '&';
+        } else if(length == 2 && str.startsWith("lt", from)){
+            c = '<';
+        } else if(length == 2 && str.startsWith("gt", from)){
+            c = '>';
+        } else if(length == 4 && str.startsWith("quot", from)){
+            c = '"';
+        } else if(length == 4 && str.startsWith("apos", from)){
+            c = '\'';
+        } else {
+            return false;
+        }
+        result.append(c);
+        return true;
+    }
+
+    private static boolean appendCharacterReference(StringBuilder result, String str, int from, int to) {
+        int radix = 10;
+        if(str.charAt(from) == 'x' || str.charAt(from) == 'X'){
+            radix = 16;
+            ++from;
+        }
+        if(from == to){
+            return false;
+        }
+        int codePoint = 0;
+        for(int i = from; i < to; ++i){
+            int digit = Character.digit(str.charAt(i), radix);
+            if(digit < 0){
+                return false;
+            }
+            codePoint = codePoint * radix + digit;
+            if(codePoint > Character.MAX_CODE_POINT){
+                return false;
+            }
+        }
+        if(codePoint == 0 || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)){
+            return false;
+        }
+        result.appendCodePoint(codePoint);
+        return true;
+    }
+
+    /**
+     * Добавляет символы в конец {@code target} за один проход, заменяя '&' на "&amp;amp;".
+     * Используется для текста секций CDATA, чтобы его можно было раскрывать вместе с обычным текстом.
+     * @param target - куда добавляются символы
+     * @param text - текст
+     * @param from - позиция в тексте, с которой начинается добавление
+     */
+    static void appendEscapingAmpersands(StringBuilder target, CharSequence text, int from) {
+        int runStart = from;
+        for(int i = from; i < text.length(); ++i){
+            if(text.charAt(i) == '&'){
+                target.append(text, runStart, i + 1).append("amp;");
+                runStart = i + 1;
+            }
+        }
+        target.append(text, runStart, text.length());
+    }
+}
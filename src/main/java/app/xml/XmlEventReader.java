@@ -0,0 +1,111 @@
+package app.xml;
+
+import java.io.IOException;
+
+/**
+ * Потоковый интерфейс чтения xml-файла в виде последовательности событий ({@link Event}):
+ * открытие элемента, текст, закрытие элемента.
+ * В отличие от {@link XmlParser}, он не создаёт узлов ({@link Node}) и не хранит тела элементов:
+ * текст доступен как срез входных данных только до следующего вызова {@link #next()}.
+ * Поэтому файл любого размера читается с постоянным расходом памяти.
+ * Пример:
+ * <table>
+ *     <row>1</row>
+ * </table>
+ * В примере выше будут прочитаны события: START(table) -> START(row) -> TEXT("1") -> END(row) -> END(table).
+ * Текст, состоящий только из отступов вне элементов, событий не порождает. Длинный текст может прийти
+ * несколькими событиями TEXT подряд.
+ * @see XmlEventReaderImpl
+ */
+public interface XmlEventReader extends AutoCloseable {
+
+    /**
+     * Проверяет, есть ли ещё события в файле.
+     * @return true - есть ещё события. false - файл прочитан полностью и без ошибок
+     * @throws IOException - если произошла ошибка во время чтения или парсинга файла
+     */
+    boolean hasNext() throws IOException;
+
+    /**
+     * Переходит к следующему событию.
+     * @return тип события
+     * @throws IOException - если произошла ошибка во время чтения файла
+     * @throws app.xml.exception.XmlNoMoreNodesException - если событий больше нет
+     * @throws app.xml.exception.XmlParseException - если произошла ошибка во время парсинга файла
+     */
+    Event next() throws IOException;
+
+    /**
+     * Элемент текущего события {@link Event#START} или {@link Event#END}.
+     * Для закрывающего элемента возвращается закрывающий элемент ({@link ElementType#CLOSE}).
+     */
+    Element getElement();
+
+    /**
+     * Имя элемента текущего события {@link Event#START} или {@link Event#END}.
+     */
+    String getName();
+
+    /**
+     * Текст текущего события {@link Event#TEXT} в том виде, в котором он записан в файле:
+     * ссылки на сущности не раскрываются, а '&' из секции CDATA возвращается как "&amp;amp;".
+     * Поэтому весь текст значения раскрывается одинаково методом {@link XmlEntities#decode(CharSequence)}.
+     * Возвращаемый объект может переиспользоваться и действителен только до следующего вызова {@link #next()}.
+     */
+    CharSequence getText();
+
+    /**
+     * Ищет в тексте текущего события первый символ, не являющийся отступом.
+     * @param from - позиция в тексте, с которой начинается поиск
+     * @return позиция символа. -1 - если текст состоит только из отступов
+     */
+    int indexOfNonWhitespace(int from);
+
+    /**
+     * Добавляет текст текущего события, начиная с указанной позиции, в конец {@code target}.
+     * @param target - куда добавляется текст
+     * @param from - позиция в тексте
+     */
+    void appendText(StringBuilder target, int from);
+
+    /**
+     * Переводит {@code target} на текст текущего события, начиная с указанной позиции, без копирования.
+     * Ссылка действительна до сдвига окна входных данных, перед которым вызывается слушатель
+     * {@link #setWindowListener(Runnable)}.
+     * @param target - представление, которое переводится на текст
+     * @param from - позиция в тексте
+     * @return true - ссылка создана; false - текст нужно копировать ({@link #appendText(StringBuilder, int)})
+     */
+    default boolean referenceText(CharSlice target, int from) {
+        return false;
+    }
+
+    /**
+     * Устанавливает слушателя, который вызывается перед сдвигом окна входных данных.
+     * Нужен только тем, кто хранит ссылки на текст ({@link #referenceText(CharSlice, int)}).
+     * @param listener - слушатель. null - слушателя нет
+     */
+    default void setWindowListener(Runnable listener) {
+    }
+
+    /**
+     * Позиция во входных данных после текущего события. Вычисляется дорого, используется для сообщений об ошибках.
+     * @return позиция; null - позиция неизвестна
+     */
+    default CursorPosition getPosition() {
+        return null;
+    }
+
+    /**
+     * Глубина текущего события: для {@link Event#START} и {@link Event#END} - глубина элемента
+     * (у корневого элемента - 1), для {@link Event#TEXT} - глубина элемента, в котором находится текст.
+     */
+    int getDepth();
+
+    /**
+     * Тип события.
+     */
+    enum Event {
+        START, TEXT, END;
+    }
+}
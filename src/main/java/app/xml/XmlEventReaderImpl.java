@@ -0,0 +1,430 @@
+package app.xml;
+
+import app.xml.exception.XmlElementParseException;
+import app.xml.exception.XmlNoMoreNodesException;
+import app.xml.exception.XmlParseException;
+import app.xml.exception.XmlUnexpectedSymbolMetException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Реализация {@link XmlEventReader} поверх лексера ({@link XmlLexer}).
+ * Проверяет структуру файла так же, как {@link XmlLazyParser}: единственный корневой элемент,
+ * соответствие закрывающих элементов открытым, отсутствие текста вне корневого элемента и
+ * корректное завершение файла. Для проверки хранятся только имена открытых элементов.
+ * Пролог, инструкции обработки, комментарии и объявления (DOCTYPE) пропускаются лексером без разбора,
+ * а содержимое секций CDATA возвращается событиями {@link Event#TEXT}, как обычный текст.
+ *
+ * {@link #hasNext()} может заранее прочитать следующее событие, поэтому текст текущего события
+ * действителен только до вызова {@link #hasNext()} или {@link #next()}. Элемент и глубина события
+ * действительны до вызова {@link #next()}.
+ *
+ * В случае возникновения ошибки при продолжении работы будет воссоздаваться первая встреченная ошибка.
+ */
+public class XmlEventReaderImpl implements XmlEventReader {
+
+    private final XmlLexer lexer;
+    private final XmlElementParser elementParser;
+
+    /**
+     * Имена открытых элементов, индексированные глубиной.
+     */
+    private String[] names = new String[NodeStack.DEFAULT_CAPACITY];
+    private int depth;
+
+    /**
+     * Глубина, до которой файл может закончиться без ошибки: 1 - для фрагмента с открытым корнем,
+     * который не доходит до конца файла, иначе 0.
+     */
+    private final int baseDepth;
+
+    /**
+     * Флаг: true - найден корневой элемент.
+     */
+    private boolean rootElementIsFound;
+
+    /**
+     * Текущее событие, его элемент и глубина.
+     */
+    private Event event;
+    private Element element;
+    private int eventDepth;
+
+    /**
+     * Заранее прочитанное событие, его элемент и глубина. null - если событие не прочитано.
+     */
+    private Event nextEvent;
+    private Element nextElement;
+    private int nextEventDepth;
+
+    /**
+     * Флаги: true - текст текущего (заранее прочитанного) события находится в секции CDATA.
+     */
+    private boolean cdataText;
+    private boolean nextCDataText;
+
+    /**
+     * Буфер для текста секции CDATA с экранированными '&'.
+     */
+    private final StringBuilder escapedText = new StringBuilder();
+
+    /**
+     * Флаг: true - лексер остановился на '<' и следующим нужно читать тэг.
+     */
+    private boolean markupPending;
+    /**
+     * Флаг: true - лексер находится внутри секции CDATA.
+     */
+    private boolean insideCData;
+    /**
+     * Флаг: true - лексер дошёл до конца входных данных.
+     */
+    private boolean endOfInput;
+    /**
+     * Флаг: true - все события прочитаны.
+     */
+    private boolean finished;
+
+    /**
+     * Первая возникшая ошибка. Она выбрасывается повторно при следующих вызовах.
+     */
+    private IOException thrownException = null;
+
+    /**
+     * Открывает файл в кодировке UTF-8.
+     * @param file - xml-файл
+     * @param elementParser - парсер для тэгов
+     * @throws IOException - если файл не удалось открыть
+     */
+    public XmlEventReaderImpl(File file, XmlElementParser elementParser) throws IOException {
+        this(file, elementParser, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Открывает файл в указанной кодировке.
+     * @param file - xml-файл
+     * @param elementParser - парсер для тэгов
+     * @param charset - кодировка файла
+     * @throws IOException - если файл не удалось открыть
+     */
+    public XmlEventReaderImpl(File file, XmlElementParser elementParser, Charset charset) throws IOException {
+        this(new XmlCharLexer(XmlFileInput.openReader(file, charset)), elementParser);
+    }
+
+    /**
+     * @param lexer - лексер, из которого читается xml-файл
+     * @param elementParser - парсер для тэгов
+     */
+    public XmlEventReaderImpl(XmlLexer lexer, XmlElementParser elementParser) {
+        this.lexer = lexer;
+        this.elementParser = elementParser;
+        this.baseDepth = 0;
+    }
+
+    /**
+     * Создаёт читателя фрагмента файла, который находится внутри уже открытого корневого элемента.
+     * Событие открытия корня не возвращается, но элементы верхнего уровня фрагмента находятся на глубине 2,
+     * а закрывающий элемент корня, если он есть во фрагменте, возвращается событием {@link Event#END}.
+     * Если фрагмент закончился, когда открыт только корневой элемент, считается, что он прочитан без ошибок.
+     * @param lexer - лексер, из которого читается фрагмент
+     * @param elementParser - парсер для тэгов
+     * @param root - открывающий элемент корня
+     */
+    public XmlEventReaderImpl(XmlLexer lexer, XmlElementParser elementParser, Element root) {
+        this(lexer, elementParser, root, false);
+    }
+
+    /**
+     * Создаёт читателя фрагмента файла, который находится внутри уже открытого корневого элемента.
+     * @param lexer - лексер, из которого читается фрагмент
+     * @param elementParser - парсер для тэгов
+     * @param root - открывающий элемент корня
+     * @param endsFile - true, если фрагмент заканчивается вместе с файлом:
+     *                 тогда корневой элемент должен быть закрыт во фрагменте, как при чтении всего файла
+     * @see #XmlEventReaderImpl(XmlLexer, XmlElementParser, Element)
+     */
+    public XmlEventReaderImpl(XmlLexer lexer, XmlElementParser elementParser, Element root, boolean endsFile) {
+        this.lexer = lexer;
+        this.elementParser = elementParser;
+        this.baseDepth = endsFile ? 0 : 1;
+        this.rootElementIsFound = true;
+        push(root.getName());
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if(thrownException instanceof XmlNoMoreNodesException){
+            return false;
+        }
+        if(thrownException != null){
+            throw thrownException;
+        }
+        if(nextEvent == null && !finished){
+            try{
+                nextEvent = readEvent();
+            } catch (IOException e){
+                thrownException = e;
+                throw e;
+            }
+            finished = nextEvent == null;
+        }
+        return nextEvent != null;
+    }
+
+    @Override
+    public Event next() throws IOException {
+        if(!hasNext()){
+            thrownException = new XmlNoMoreNodesException("There is no more events in the file.", getPosition());
+            throw thrownException;
+        }
+        event = nextEvent;
+        element = nextElement;
+        eventDepth = nextEventDepth;
+        cdataText = nextCDataText;
+        nextEvent = null;
+        return event;
+    }
+
+    @Override
+    public Element getElement() {
+        return element;
+    }
+
+    @Override
+    public String getName() {
+        return element.getName();
+    }
+
+    @Override
+    public CharSequence getText() {
+        if(cdataText){
+            escapedText.setLength(0);
+            appendText(escapedText, 0);
+            return escapedText;
+        }
+        return lexer.slice();
+    }
+
+    @Override
+    public int indexOfNonWhitespace(int from) {
+        return lexer.indexOfNonWhitespace(from);
+    }
+
+    @Override
+    public void appendText(StringBuilder target, int from) {
+        if(!cdataText){
+            lexer.appendSlice(target, from);
+            return;
+        }
+        XmlEntities.appendEscapingAmpersands(target, lexer.slice(), from);
+    }
+
+    /**
+     * Текст секции CDATA всегда копируется, потому что '&' в нём экранируется.
+     */
+    @Override
+    public boolean referenceText(CharSlice target, int from) {
+        return !cdataText && lexer.referenceSlice(target, from);
+    }
+
+    @Override
+    public void setWindowListener(Runnable listener) {
+        lexer.setWindowListener(listener);
+    }
+
+    @Override
+    public CursorPosition getPosition() {
+        return lexer.getPosition();
+    }
+
+    /**
+     * Проверяет, прочитал ли лексер символ '<' следующей разметки вместе с текстом последнего события.
+     * Нужен, чтобы по позиции лексера найти начало следующей разметки ({@link XmlRowIndex}).
+     * @return true - '<' уже прочитан
+     */
+    boolean isMarkupStarted() {
+        return markupPending;
+    }
+
+    @Override
+    public int getDepth() {
+        return eventDepth;
+    }
+
+    /**
+     * Считывает данные до следующего события.
+     * Текст вне корневого элемента, состоящий из отступов, пропускается.
+     * @return следующее событие. null - если файл закончился без ошибок
+     * @throws XmlUnexpectedSymbolMetException - вне корневого элемента встретился не символ-отступ
+     * @throws XmlParseException - если нарушена структура файла
+     * @throws IOException - если произошла ошибка во время чтения файла
+     */
+    private Event readEvent() throws IOException {
+        while(true){
+            if(markupPending){
+                markupPending = false;
+                Event markupEvent = readMarkupEvent();
+                if(markupEvent != null){
+                    return markupEvent;
+                }
+                continue;
+            }
+            if(endOfInput){
+                checkCorrectionOfFileEnd();
+                return null;
+            }
+            nextCDataText = insideCData;
+            if(insideCData){
+                XmlLexer.TextToken token = lexer.scanCData();
+                if(token == XmlLexer.TextToken.END_OF_INPUT){
+                    throw new XmlParseException("Unexpected file end.", getPosition());
+                }
+                insideCData = token == XmlLexer.TextToken.TEXT;
+            } else {
+                XmlLexer.TextToken token = lexer.scanText();
+                if(token == XmlLexer.TextToken.MARKUP){
+                    markupPending = true;
+                } else if(token == XmlLexer.TextToken.END_OF_INPUT){
+                    endOfInput = true;
+                }
+            }
+            if(lexer.sliceLength() == 0){
+                continue;
+            }
+            if(depth == 0){
+                int symbol = lexer.indexOfNonWhitespace(0);
+                if(symbol >= 0){
+                    throw new XmlUnexpectedSymbolMetException(lexer.sliceCharAt(symbol), getPosition());
+                }
+                continue;
+            }
+            nextElement = null;
+            nextEventDepth = depth;
+            return Event.TEXT;
+        }
+    }
+
+    /**
+     * Считывает разметку, начинающуюся с '<'. Инструкции обработки, комментарии и объявления пропускаются,
+     * а для секции CDATA запоминается, что следующий текст нужно читать до её конца.
+     * @return {@link Event#START} или {@link Event#END} для тэга. null - если тэга не было
+     * @throws XmlParseException - если нарушена структура файла, либо разметка не закончена до конца файла
+     * @throws IOException - если произошла ошибка во время чтения файла
+     */
+    private Event readMarkupEvent() throws IOException {
+        XmlLexer.MarkupType type = lexer.scanMarkupType();
+        switch (type){
+            case TAG:
+                return readElementEvent();
+            case CDATA:
+                if(depth == 0){
+                    throw new XmlParseException("CDATA section outside the root element.", getPosition());
+                }
+                insideCData = true;
+                return null;
+            default:
+                if(!lexer.skipMarkup(type)){
+                    throw new XmlParseException("Unexpected file end.", getPosition());
+                }
+                return null;
+        }
+    }
+
+    /**
+     * Считывает тэг и проверяет его место в дереве.
+     * @return {@link Event#START} или {@link Event#END}
+     * @throws XmlParseException - если найден второй корневой элемент, либо закрывающий элемент
+     *          не соответствует последнему открытому
+     * @throws IOException - если произошла ошибка во время чтения файла
+     */
+    private Event readElementEvent() throws IOException {
+        CharSequence chars = readElement();
+        Element element;
+        try{
+            element = elementParser.parseElement(chars, 0, chars.length());
+        } catch (XmlElementParseException e){
+            throw new XmlElementParseException(e.getMessage(), getPosition());
+        }
+
+        if(rootElementIsFound && depth == 0){
+            throw new XmlParseException("Multiply root elements.", getPosition());
+        }
+        nextElement = element;
+        if(element.isClose()){
+            if(!checkElementClose(element)){
+                throw new XmlParseException("Close element name does not equal to the current node one.", getPosition());
+            }
+            nextEventDepth = depth;
+            names[--depth] = null;
+            return Event.END;
+        }
+        push(element.getName());
+        rootElementIsFound = true;
+        nextEventDepth = depth;
+        return Event.START;
+    }
+
+    /**
+     * Считывает элемент полностью до появления закрывающего тэга('>').
+     * @return содержимое элемента. Действительно до следующего чтения из лексера
+     * @throws IOException - если произошла ошибка во время чтения данных из файла
+     * @throws XmlUnexpectedSymbolMetException - если найден открывающий тэг('<')
+     * @throws  XmlParseException - если достигнут конец файла
+     */
+    private CharSequence readElement() throws IOException {
+        switch (lexer.scanTag()){
+            case DOUBLE_OPEN:
+                throw new XmlUnexpectedSymbolMetException("Double open tag.", getPosition());
+            case END_OF_INPUT:
+                throw new XmlParseException("Unexpected file end.", getPosition());
+            default:
+                return lexer.slice();
+        }
+    }
+
+    /**
+     * Проверяет на корректность закрытия файла.
+     * @throws XmlParseException - если достигнут конец файла во время прохода дерева, либо файл пуст.
+     */
+    private void checkCorrectionOfFileEnd() throws XmlParseException {
+        if(!rootElementIsFound){
+            throw new XmlParseException("File is empty.", getPosition());
+        }
+        if(depth > baseDepth){
+            throw new XmlParseException("Xml file closed before end.", getPosition());
+        }
+    }
+
+    /**
+     * Проверяет, является ли элемент закрывающим для последнего открытого элемента.
+     * @param element - закрывающий элемент
+     * @return true - является закрывающим элементом для последнего открытого
+     */
+    private boolean checkElementClose(Element element){
+        if(depth == 0){
+            return false;
+        }
+        String elementName = element.getName().trim();
+        return elementName.equals(names[depth - 1]);
+    }
+
+    private void push(String name) {
+        if(depth == names.length){
+            names = Arrays.copyOf(names, depth * 2);
+        }
+        names[depth++] = name;
+    }
+
+    /**
+     * Закрывает лексер.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        lexer.close();
+    }
+}
@@ -0,0 +1,127 @@
+package app.xml;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Открывает xml-файл на чтение, определяя по первым байтам, сжат ли он.
+ * Сжатый файл распаковывается на лету в отдельном потоке выполнения ({@link DecompressionInputStream}),
+ * а gzip-файл в формате BGZF - в несколько потоков ({@link ParallelGzipInputStream}).
+ * Поэтому сжатый файл не нужно предварительно распаковывать на диск.
+ */
+public final class XmlFileInput {
+
+    /**
+     * Кол-во потоков распаковки BGZF по умолчанию: все ядра, кроме ядра, на котором идёт разбор.
+     */
+    public static final int DEFAULT_DECOMPRESSION_THREADS =
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private XmlFileInput() {
+    }
+
+    /**
+     * Формат сжатия файла.
+     */
+    public enum Compression {
+        /**
+         * Файл не сжат.
+         */
+        NONE,
+        /**
+         * gzip (в том числе из нескольких блоков).
+         */
+        GZIP,
+        /**
+         * gzip в формате BGZF: блоки можно распаковывать независимо.
+         */
+        BGZF,
+        /**
+         * deflate в обёртке zlib.
+         */
+        ZLIB;
+    }
+
+    /**
+     * Определяет формат сжатия по первым байтам файла.
+     * @param file - файл
+     * @return формат сжатия
+     * @throws IOException - если произошла ошибка во время чтения файла
+     */
+    public static Compression detectCompression(File file) throws IOException {
+        int first;
+        int second;
+        try(InputStream in = new FileInputStream(file)){
+            first = in.read();
+            second = in.read();
+        }
+        if(first == 0x1f && second == 0x8b){
+            return ParallelGzipInputStream.isBlockedGzip(file) ? Compression.BGZF : Compression.GZIP;
+        }
+        // заголовок zlib: метод deflate (CM = 8), окно не больше 32К и контрольная сумма заголовка, кратная 31
+        if(first >= 0 && second >= 0 && (first & 0x0f) == 8 && (first >> 4) <= 7
+                && ((first << 8) | second) % 31 == 0){
+            return Compression.ZLIB;
+        }
+        return Compression.NONE;
+    }
+
+    /**
+     * Проверяет, сжат ли файл.
+     */
+    public static boolean isCompressed(File file) throws IOException {
+        return detectCompression(file) != Compression.NONE;
+    }
+
+    /**
+     * Открывает файл с распаковкой в {@link #DEFAULT_DECOMPRESSION_THREADS} потоков.
+     * @see #open(File, int)
+     */
+    public static InputStream open(File file) throws IOException {
+        return open(file, DEFAULT_DECOMPRESSION_THREADS);
+    }
+
+    /**
+     * Открывает файл. Если файл сжат - возвращает поток распакованных данных.
+     * @param file - файл
+     * @param threads - кол-во потоков распаковки файла в формате BGZF
+     * @return поток данных файла
+     * @throws IOException - если файл не удалось открыть
+     */
+    public static InputStream open(File file, int threads) throws IOException {
+        switch (detectCompression(file)){
+            case BGZF:
+                if(threads > 1){
+                    return new ParallelGzipInputStream(file, threads);
+                }
+                return new DecompressionInputStream(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE));
+            case GZIP:
+                return new DecompressionInputStream(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE));
+            case ZLIB:
+                return new DecompressionInputStream(new InflaterInputStream(
+                        new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)));
+            default:
+                return new FileInputStream(file);
+        }
+    }
+
+    /**
+     * Открывает файл как поток символов в указанной кодировке ({@link XmlDecodingReader}).
+     * @param file - файл
+     * @param charset - кодировка
+     * @return поток символов файла
+     * @throws IOException - если файл не удалось открыть
+     */
+    public static Reader openReader(File file, Charset charset) throws IOException {
+        return new XmlDecodingReader(open(file), charset);
+    }
+}
@@ -3,12 +3,13 @@ package app.xml;
 import app.xml.exception.*;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
 
 
 /**
- * !!! Важно: парсер не работает с xml-файлами, в которых есть пролог.
- *
  * Реализация xml-парсера, считывающий узлы ({@link app.xml.Node}) из файла по требованию.
  * Такая реализация позволяет работать с файлами,
  * размер которых превышает несколько гигабайт и не помещаются в оперативную память.
@@ -18,6 +19,8 @@ import java.nio.charset.StandardCharsets;
  * Помимо этого для экономии потребляемой памяти парсер "забывает" все узлы дерева,
  * закрывающие элементы которых были прочитаны, и не записывает символы отступа{@link Character#isWhitespace(char)}
  * в тело узла, пока не будет найден первый символ, не являющийся отступом.
+ * Файл читается и проверяется потоком событий {@link XmlEventReaderImpl}, по которым парсер строит узлы.
+ * Пролог, комментарии и инструкции обработки пропускаются, а содержимое секций CDATA добавляется в тело узла.
  *
  * В случае возникновения ошибки во время работы парсера и
  * продолжения работы с ним будет воссоздаваться первая встречанная ошибка.
@@ -26,29 +29,30 @@ import java.nio.charset.StandardCharsets;
 public class XmlLazyParser implements XmlParser{
 
     /**
-     * Xml-файл.
+     * Поток событий xml-файла.
      */
-    private final File file;
+    private final XmlEventReaderImpl events;
 
     /**
-     * Буффер для считываемого файла.
+     * Последовательность открытых узлов(текущая ветвь дерева).
      */
-    private final BufferedReader buffIn;
+    private final NodeStack nodeStack = new NodeStack();
 
     /**
-     * Отдельный парсер для компонентов тэга({@link Element}) узла: имени, атрибутов.
+     * Освобождённые узлы, которые можно переиспользовать вместо создания новых.
+     * @see #releaseNode(Node)
      */
-    private XmlElementParser elementParser;
+    private final ArrayDeque<Node> freeNodes = new ArrayDeque<>();
 
     /**
-     * Последовательность открытых узлов(текущая ветвь дерева).
+     * Максимальное кол-во хранимых освобождённых узлов.
      */
-    private NodePath nodePath = new NodePath();
+    private static final int MAX_FREE_NODES = 1024;
     /**
-     * Флаг: true - найден ли корневой узел дерева.
-     * Он необходим для определения наличия нескольких корневых узлов в файле и их отсутствия(пустой файл).
+     * Корневой узел фрагмента файла. Равен null, если парсер читает файл целиком.
+     * @see #XmlLazyParser(XmlLexer, XmlElementParser, Node)
      */
-    private boolean rootElementIsFound;
+    private final Node fragmentRoot;
 
     /**
      * Содержит ссылку на следующий узел в дереве, который необходимо вернуть.
@@ -56,12 +60,6 @@ public class XmlLazyParser implements XmlParser{
      */
     private Node nextNode;
 
-    /**
-     * Текущая позиция в файле. Необходим для указания местоположения ошибки в файле.
-     */
-    //TODO add cursor
-    private CursorPosition cursor = new CursorPosition();
-
     /**
      * При возникновении ошибки во время парскинга, необходимо сохранить экзепляр ошибки,
      * чтобы снова его выкидывать в случае вызова методов парсера.
@@ -77,22 +75,72 @@ public class XmlLazyParser implements XmlParser{
      * @throws IOException - если возникла ошибка во время чтения файла
      */
     public XmlLazyParser(File file, XmlElementParser elementParser) throws IOException{
-        this.file = file;
-        this.elementParser = elementParser;
+        this(file, elementParser, XmlCharLexer.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize - размер окна лексера в символах
+     * @see #XmlLazyParser(File, XmlElementParser)
+     */
+    public XmlLazyParser(File file, XmlElementParser elementParser, int windowSize) throws IOException{
+        this(file, elementParser, StandardCharsets.UTF_8, windowSize);
+    }
+
+    /**
+     * @param charset - кодировка файла
+     * @see #XmlLazyParser(File, XmlElementParser)
+     */
+    public XmlLazyParser(File file, XmlElementParser elementParser, Charset charset) throws IOException{
+        this(file, elementParser, charset, XmlCharLexer.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param charset - кодировка файла
+     * @param windowSize - размер окна лексера в символах
+     * @see #XmlLazyParser(File, XmlElementParser)
+     */
+    public XmlLazyParser(File file, XmlElementParser elementParser, Charset charset, int windowSize)
+            throws IOException{
+        this(new XmlCharLexer(XmlFileInput.openReader(file, charset), windowSize), elementParser);
+    }
+
+    /**
+     * Сохраняет значения полей и считывает открывающий элемент корневого узла.
+     * @param lexer - лексер, из которого читается xml-файл
+     * @param elementParser - парсер для тэгов
+     * @throws XmlParseException - если файл пустой либо нарушена структура xml-файла
+     * @throws IOException - если возникла ошибка во время чтения файла
+     */
+    protected XmlLazyParser(XmlLexer lexer, XmlElementParser elementParser) throws IOException{
+        this.events = new XmlEventReaderImpl(lexer, elementParser);
+        this.fragmentRoot = null;
+
+        nextNode = findNextNode();
+    }
 
-//        FileInputStream fileInput = new FileInputStream(file);
-//        FileChannel channel =fileInput.getChannel();
-        FileReader reader = new FileReader(file, StandardCharsets.UTF_8);
-        buffIn = new BufferedReader(reader);
+    /**
+     * Создаёт парсер для фрагмента файла, который находится внутри уже открытого корневого узла.
+     * Фрагмент должен состоять из целых дочерних узлов корня и, возможно, закрывающего элемента корня.
+     * Сам корневой узел парсер не возвращает, но узлы верхнего уровня фрагмента являются его потомками.
+     * Если фрагмент закончился, когда открыт только корневой узел, считается, что он прочитан без ошибок.
+     * @param lexer - лексер, из которого читается фрагмент
+     * @param elementParser - парсер для тэгов
+     * @param root - открытый корневой узел
+     * @throws XmlParseException - если нарушена структура фрагмента
+     * @throws IOException - если возникла ошибка во время чтения файла
+     */
+    protected XmlLazyParser(XmlLexer lexer, XmlElementParser elementParser, Node root) throws IOException{
+        this.events = new XmlEventReaderImpl(lexer, elementParser, root.getElement());
+        this.fragmentRoot = root;
+        this.nodeStack.push(root);
 
         nextNode = findNextNode();
-        rootElementIsFound = true;
     }
 
     /**
      * Возвращает следующий узел в дереве и считывает данные в файле до нового открывающего элемента узла.
      * Если до вызова метода произошла какая-то ошибка {@link IOException} или {@link XmlParseException},
-     * но не {@link XmlExpectedEndOfFileException}, тогда повторно вызывается это исключение.
+     * тогда повторно вызывается это исключение.
      * @return следующий узел в дереве
      * @throws IOException - если произошла ошибка во время чтения файла
      * @throws XmlNoMoreNodesException - если в дереве узлов больше нет непосещенных узлов
@@ -104,16 +152,12 @@ public class XmlLazyParser implements XmlParser{
             throw thrownException;
         }
         if(!hasNextNode()){
-            thrownException = new XmlNoMoreNodesException("There is no more nodes in the file.", cursor);
+            thrownException = new XmlNoMoreNodesException("There is no more nodes in the file.", events.getPosition());
             throw thrownException;
         }
 
         Node currentNode = nextNode;
-        try{
-            nextNode = findNextNode();
-        } catch (XmlExpectedEndOfFileException e){
-            nextNode = null;
-        }
+        nextNode = findNextNode();
         return currentNode;
 
     }
@@ -121,16 +165,14 @@ public class XmlLazyParser implements XmlParser{
     /**
      * Возвращает true, если в дереве ещё есть непрочитанные узлы.
      * Если до вызова метода произошла ошибка {@link IOException} или {@link XmlParseException},
-     * но не {@link XmlExpectedEndOfFileException} и {@link XmlNoMoreNodesException},
-     * тогда повторно вызывается это исключение.
+     * но не {@link XmlNoMoreNodesException}, тогда повторно вызывается это исключение.
      * @return {@code true} - в дереве есть непрочитанные узлы. Иначе - {@code false}.
      * @throws IOException - если произошла ошибка во время чтения файла
      * @throws XmlParseException - если произошла ошибка во время парсинга файла
      */
     @Override
     public boolean hasNextNode() throws IOException {
-        if(thrownException instanceof XmlNoMoreNodesException
-                || thrownException instanceof XmlExpectedEndOfFileException){
+        if(thrownException instanceof XmlNoMoreNodesException){
             return false;
         }
         if(thrownException != null){
@@ -140,156 +182,97 @@ public class XmlLazyParser implements XmlParser{
     }
 
     /**
-     * Считывает данные из файла, пока не будет найден открывающий элемент следующего узла.
-     * Если во время чтения встречаются закрывающие элементы - узлы удаляются из {@link NodePath}.
-     * Если встречаются символы, тогда они добавляются в тело последнего открытого узла
-     * {@link NodePath#appendIntoBody(char)}.
-     * @return следующий узел в дереве
-     * @throws IOException - если произошла ошибка во время чтения файла
-     * @throws XmlParseException - если произошла ошибка во время парсинга файла
-     */
-    private Node findNextNode() throws IOException{
-        Element element = getNextElement();
-
-        if(existMultiplyRoots()){
-            thrownException = new XmlParseException("Multiply root elements.", cursor);
-            throw thrownException;
-        }
-        if(element.isClose()){
-            if(!checkNodeClose(element)){
-                thrownException = new XmlParseException(
-                        "Close element name does not equal to the current node one.",
-                        cursor
-                );
-                throw thrownException;
-            }
-            nodePath.getTailNode().setStatus(Node.NodeStatus.CLOSED);
-            nodePath = nodePath.removeLast();
-            return findNextNode();
-        }
-
-        Node newNode = new Node(nodePath.getTailNode(), element, Node.NodeStatus.OPENED);
-        nodePath = nodePath.addNode(newNode);
-        return newNode;
-    }
-
-
-    /**
-     * Проверяет на наличие нескольких корневых узлов.
-     * @return {@code true} - есть, иначе - {@code false}.
+     * Возвращает представление только для чтения текущей ветви дерева: от корня до последнего открытого узла.
+     * Парсер заранее читает следующий узел, поэтому ветвь заканчивается узлом,
+     * который будет возвращён следующим вызовом {@link #getNextNode()}, если он есть.
+     * Представление отражает последующие изменения ветви.
+     * @return открытые узлы
      */
-    private boolean existMultiplyRoots() throws IOException {
-        return rootElementIsFound && nodePath.isEmpty();
+    public List<Node> getOpenNodes() {
+        return nodeStack.asList();
     }
 
-
     /**
-     * Считывает данные из файла, пока не встретится элемент.
-     * @return следующий элемент
+     * Считывает события из файла, пока не будет найден открывающий элемент следующего узла.
+     * Если во время чтения встречаются закрывающие элементы - узлы удаляются из {@link NodeStack}.
+     * Если встречается текст, тогда он добавляется в тело последнего открытого узла.
+     * @return следующий узел в дереве. null - если файл прочитан полностью
      * @throws IOException - если произошла ошибка во время чтения файла
      * @throws XmlParseException - если произошла ошибка во время парсинга файла
-     * @see Element
-     */
-    private Element getNextElement() throws IOException {
-        readCharsBeforeNextElement();
-        String element = readElement();
-        return elementParser.parseElement(element);
-    }
-
-    /**
-     * Считывает данные до открывающего тэга('<'). Встречаемые символы добавляются в тело узла.
-     * @throws IOException - если произошла ошибка во время чтения файла
-     * @throws XmlParseException - если файл пустой, завершился до прохода всего дерева
-     * @throws XmlUnexpectedSymbolMetException - встретился не символ-отступ, до обнаружения корневого узла.
-     * @throws XmlExpectedEndOfFileException - если файл завершился, после прохода всего дерева
      */
-    private void readCharsBeforeNextElement() throws IOException {
-        int c;
-        while((c = buffIn.read()) != '<'){
-
-            checkCorrectionOfFileEnd(c);
-
-            char ch = (char) c;
-            if(nodePath.isEmpty() && !Character.isWhitespace(ch)){
-                thrownException = new XmlUnexpectedSymbolMetException(ch, cursor);
-                throw thrownException;
-            }
-
-            if(!nodePath.isEmpty() &&
-                    (!nodePath.getTailNode().isBodyEmpty()
-                    || !Character.isWhitespace(ch))){
-                nodePath.appendIntoBody(ch);
+    private Node findNextNode() throws IOException{
+        try{
+            while(events.hasNext()){
+                switch (events.next()){
+                    case START:
+                        Node newNode = obtainNode(nodeStack.peek(), events.getElement());
+                        nodeStack.push(newNode);
+                        return newNode;
+                    case TEXT:
+                        appendTextIntoBody();
+                        break;
+                    case END:
+                        nodeStack.pop().setStatus(Node.NodeStatus.CLOSED);
+                        break;
+                }
             }
+            return null;
+        } catch (IOException e){
+            thrownException = e;
+            throw e;
         }
     }
 
     /**
-     * Проверяет на корректность закрытия файла.
-     * @throws XmlParseException - если достигнут конец файла во время прохода дерева узлов, либо файл пуст.
-     * @throws XmlExpectedEndOfFileException - если дерево узлов пройдено, и достигнут конец файла
+     * Создаёт открытый узел либо переиспользует освобождённый.
+     * @param parent - родитель узла
+     * @param element - открывающий элемент узла
+     * @return открытый узел с пустым телом
      */
-    private void checkCorrectionOfFileEnd(int c) throws XmlParseException {
-        if(c != -1){
-            return;
-        }
-        if(!rootElementIsFound){
-            thrownException = new XmlParseException("File is empty.", cursor);
-            throw (XmlParseException) thrownException;
-        }
-        if(!nodePath.isEmpty()){
-            thrownException = new XmlParseException("Xml file closed before end.", cursor);
-            throw (XmlParseException) thrownException;
+    private Node obtainNode(Node parent, Element element) {
+        Node node = freeNodes.pollLast();
+        if(node == null){
+            return new Node(parent, element, Node.NodeStatus.OPENED);
         }
-
-        throw new XmlExpectedEndOfFileException(cursor);
+        node.reset(parent, element, Node.NodeStatus.OPENED);
+        return node;
     }
 
     /**
-     * Считывает элемент полностью до появления закрывающего тэга('>').
-     * @return содержимое элемента
-     * @throws IOException - если произошла ошибка во время чтения данных из файла
-     * @throws XmlUnexpectedSymbolMetException - если найден открывающий тэг('<')
-     * @throws  XmlParseException - если достигнут конец файла
+     * Запоминает закрытый узел, чтобы переиспользовать его и буфер его тела для следующих узлов.
+     * Открытые узлы (текущая ветвь дерева) не освобождаются.
+     * @param node - закрытый узел
      */
-    private String readElement() throws IOException {
-        StringBuilder element = new StringBuilder();
-        int c;
-        while((c = buffIn.read()) != '>'){
-            if(c == -1){
-                thrownException = new XmlParseException("Unexpected file end.", cursor);
-                throw thrownException;
-            }
-            char ch = (char) c;
-            if(ch == '<'){
-                thrownException = new XmlUnexpectedSymbolMetException("Double open tag.", cursor);
-                throw thrownException;
-            }
-            element.append(ch);
+    @Override
+    public void releaseNode(Node node) {
+        if(node.isClosed() && node != fragmentRoot && freeNodes.size() < MAX_FREE_NODES){
+            freeNodes.addLast(node);
         }
-        return element.toString();
     }
 
     /**
-     * Проверяет, является ли элемент закрывающим для последнего открытого узла.
-     * @param element - закрывающий элемент
-     * @return true - является закрывающим элементом для последнего открытого узла.
-     *          false - если элемент не является закрывающим
+     * Добавляет текст текущего события в тело последнего открытого узла.
+     * Отступы в начале тела не записываются.
      */
-    private boolean checkNodeClose(Element element){
-        if(element.getType() != ElementType.CLOSE){
-            return false;
+    private void appendTextIntoBody() {
+        Node tailNode = nodeStack.peek();
+        int from = 0;
+        if(tailNode.isBodyEmpty()){
+            from = events.indexOfNonWhitespace(0);
+            if(from < 0){
+                return;
+            }
         }
-        String elementName = element.getName().trim();
-        return !nodePath.isEmpty() && elementName.equals(nodePath.getTailNode().getName());
+        events.appendText(tailNode.getBody(), from);
     }
 
     /**
-     * Закрывает буффер.
+     * Закрывает лексер.
      * @throws IOException
      */
     @Override
     public void close() throws IOException {
-        buffIn.close();
+        events.close();
     }
 
 
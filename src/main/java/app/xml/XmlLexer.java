@@ -0,0 +1,168 @@
+package app.xml;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Лексер xml-файла: разбивает входные данные на текст между тэгами и содержимое тэгов.
+ * Найденный текст или содержимое тэга доступны как текущий срез до следующего вызова
+ * {@link #scanText()} или {@link #scanTag()}.
+ * Позиции внутри среза отсчитываются от его начала и измеряются в единицах входных данных
+ * (символах или байтах - зависит от реализации).
+ *
+ * Лексер не выбрасывает исключений разбора: о нарушениях он сообщает результатом сканирования,
+ * а исключение создаёт парсер.
+ * @see XmlCharLexer
+ * @see XmlMappedLexer
+ */
+public interface XmlLexer extends Closeable {
+
+    /**
+     * Сканирует текст до начала следующего тэга ('<').
+     * Найденный текст (возможно пустой) становится текущим срезом.
+     * @return {@link TextToken#MARKUP} - найден '<', он пропущен;
+     *          {@link TextToken#TEXT} - окно закончилось, текст может продолжиться в следующем срезе;
+     *          {@link TextToken#END_OF_INPUT} - входные данные закончились
+     * @throws IOException - если произошла ошибка во время чтения
+     */
+    TextToken scanText() throws IOException;
+
+    /**
+     * Сканирует содержимое тэга до закрывающего символа ('>').
+     * Вызывается после того, как {@link #scanText()} вернул {@link TextToken#MARKUP}.
+     * Содержимое тэга без '<' и '>' становится текущим срезом.
+     * @return {@link TagToken#TAG} - тэг прочитан полностью;
+     *          {@link TagToken#DOUBLE_OPEN} - внутри тэга встречен '<';
+     *          {@link TagToken#END_OF_INPUT} - входные данные закончились внутри тэга
+     * @throws IOException - если произошла ошибка во время чтения
+     */
+    TagToken scanTag() throws IOException;
+
+    /**
+     * Определяет вид разметки после '<'.
+     * Вызывается после того, как {@link #scanText()} вернул {@link TextToken#MARKUP}.
+     * Для всех видов, кроме {@link MarkupType#TAG}, начало разметки ("?", "!--", "![CDATA[" или "!") пропускается.
+     * @return вид разметки
+     * @throws IOException - если произошла ошибка во время чтения
+     */
+    MarkupType scanMarkupType() throws IOException;
+
+    /**
+     * Пропускает инструкцию обработки (до "?&gt;"), комментарий (до "--&gt;")
+     * или объявление (до '&gt;' вне квадратных скобок, например DOCTYPE со встроенным DTD).
+     * Вызывается после {@link #scanMarkupType()}. Содержимое не разбирается, а ищется только его окончание.
+     * @param type - вид разметки
+     * @return true - окончание найдено и пропущено, false - входные данные закончились
+     * @throws IOException - если произошла ошибка во время чтения
+     */
+    boolean skipMarkup(MarkupType type) throws IOException;
+
+    /**
+     * Сканирует содержимое секции CDATA до "]]&gt;". Вызывается после того, как {@link #scanMarkupType()}
+     * вернул {@link MarkupType#CDATA}. Найденное содержимое становится текущим срезом.
+     * @return {@link TextToken#MARKUP} - найден конец секции, он пропущен;
+     *          {@link TextToken#TEXT} - окно закончилось, секция продолжится в следующем срезе;
+     *          {@link TextToken#END_OF_INPUT} - входные данные закончились внутри секции
+     * @throws IOException - если произошла ошибка во время чтения
+     */
+    TextToken scanCData() throws IOException;
+
+    /**
+     * Длина текущего среза.
+     */
+    int sliceLength();
+
+    /**
+     * Возвращает символ, начинающийся на указанной позиции текущего среза.
+     * @param index - позиция относительно начала среза
+     */
+    char sliceCharAt(int index);
+
+    /**
+     * Ищет в текущем срезе первый символ, не являющийся отступом ({@link Character#isWhitespace(char)}).
+     * @param from - позиция относительно начала среза, с которой начинается поиск
+     * @return позиция символа относительно начала среза. -1 - если срез состоит только из отступов
+     */
+    int indexOfNonWhitespace(int from);
+
+    /**
+     * Добавляет символы текущего среза, начиная с указанной позиции, в конец {@code target}.
+     * @param target - куда добавляются символы
+     * @param from - позиция относительно начала среза
+     */
+    void appendSlice(StringBuilder target, int from);
+
+    /**
+     * Переводит {@code target} на символы текущего среза, начиная с указанной позиции, без копирования.
+     * Ссылка действительна, пока окно лексера не сдвинулось: перед каждым сдвигом вызывается слушатель
+     * ({@link #setWindowListener(Runnable)}), который должен скопировать нужные ему символы.
+     * @param target - представление, которое переводится на срез
+     * @param from - позиция относительно начала среза
+     * @return true - ссылка создана; false - срез нельзя представить символами окна, его нужно копировать
+     */
+    boolean referenceSlice(CharSlice target, int from);
+
+    /**
+     * Устанавливает слушателя, который вызывается перед тем, как символы окна будут перезаписаны.
+     * @param listener - слушатель. null - слушателя нет
+     */
+    void setWindowListener(Runnable listener);
+
+    /**
+     * Вычисляет позицию следующего непрочитанного символа: смещение, строку и столбец.
+     * Строки не считаются во время сканирования, поэтому метод предназначен для сообщений об ошибках.
+     * @return позиция
+     */
+    CursorPosition getPosition();
+
+    /**
+     * Создаёт строку из текущего среза.
+     */
+    String sliceToString();
+
+    /**
+     * Возвращает символы текущего среза в виде {@link CharSequence}, по возможности без копирования.
+     * Возвращаемый объект может переиспользоваться и действителен только до следующего сканирования.
+     */
+    CharSequence slice();
+
+    /**
+     * Результат сканирования текста.
+     */
+    enum TextToken {
+        TEXT, MARKUP, END_OF_INPUT;
+    }
+
+    /**
+     * Вид разметки, начинающейся с '<'.
+     */
+    enum MarkupType {
+        /**
+         * Открывающий или закрывающий тэг.
+         */
+        TAG,
+        /**
+         * Инструкция обработки ("&lt;?...?&gt;"), в том числе пролог.
+         */
+        PROCESSING_INSTRUCTION,
+        /**
+         * Комментарий ("&lt;!--...--&gt;").
+         */
+        COMMENT,
+        /**
+         * Секция CDATA ("&lt;![CDATA[...]]&gt;").
+         */
+        CDATA,
+        /**
+         * Объявление ("&lt;!DOCTYPE ...&gt;" и т.п.).
+         */
+        DECLARATION;
+    }
+
+    /**
+     * Результат сканирования тэга.
+     */
+    enum TagToken {
+        TAG, DOUBLE_OPEN, END_OF_INPUT;
+    }
+}
@@ -0,0 +1,561 @@
+package app.xml;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Лексер xml-файла в кодировке UTF-8, работающий с байтами файла напрямую через {@link MappedByteBuffer}.
+ * Все символы разметки ('<', '>', '/', '=', '"') являются ASCII-символами, поэтому границы тэгов
+ * ищутся по байтам без декодирования. Байты декодируются в символы только тогда,
+ * когда срез действительно нужен: при добавлении в тело узла или при создании строки тэга.
+ * Срезы, состоящие только из ASCII-байтов, преобразуются в символы без {@link java.nio.charset.CharsetDecoder}.
+ *
+ * Файл отображается в память не целиком, а окнами фиксированного размера, которые сдвигаются по мере чтения.
+ * Поэтому лексер работает с файлами любого размера (в том числе больше 4 Гб).
+ * Позиции внутри среза измеряются в байтах.
+ *
+ * Отступами считаются только ASCII-отступы ({@link Character#isWhitespace(char)}):
+ * многобайтовые символы всегда считаются значащими.
+ */
+public class XmlMappedLexer implements XmlLexer {
+
+    /**
+     * Размер окна по умолчанию (в байтах).
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    /**
+     * Минимальный размер окна: в окно должен помещаться любой символ UTF-8.
+     */
+    private static final int MIN_WINDOW_SIZE = 4;
+
+    private static final byte[] COMMENT_START = "!--".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CDATA_START = "![CDATA[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PROCESSING_INSTRUCTION_END = "?>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] COMMENT_END = "-->".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CDATA_END = "]]>".getBytes(StandardCharsets.US_ASCII);
+
+    private final FileChannel channel;
+
+    /**
+     * Позиция в файле, на которой заканчиваются данные лексера.
+     */
+    private final long end;
+
+    /**
+     * Позиция в файле, с которой начинаются данные лексера.
+     */
+    private final long start;
+
+    /**
+     * Размер окна.
+     */
+    private final int windowSize;
+
+    /**
+     * Текущее окно и позиция его начала в файле.
+     */
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    /**
+     * Позиция следующего непрочитанного байта в окне.
+     */
+    private int position;
+
+    /**
+     * Кол-во байт в окне.
+     */
+    private int limit;
+
+    /**
+     * Флаг: true - окно нужно сдвинуть на текущую позицию,
+     * потому что в конце окна находится неполный символ.
+     */
+    private boolean remapPending;
+
+    /**
+     * Границы последнего найденного среза.
+     */
+    private int sliceStart;
+    private int sliceEnd;
+
+    /**
+     * Счётчик переводов строк до начала окна.
+     * Для диапазона, начинающегося не с начала файла, строки до диапазона досчитываются только по запросу.
+     */
+    private final LineCounter lines;
+    private boolean prefixLinesCounted;
+
+    /**
+     * Буферы для декодирования срезов.
+     */
+    private byte[] bytes = new byte[256];
+    private char[] chars = new char[256];
+
+    /**
+     * Представление текущего среза, состоящего из ASCII-символов.
+     */
+    private final CharSlice slice = new CharSlice();
+
+    public XmlMappedLexer(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    public XmlMappedLexer(Path file, int windowSize) throws IOException {
+        this(file, 0, -1, windowSize);
+    }
+
+    /**
+     * Создаёт лексер, который читает только указанный диапазон байт файла.
+     * @param file - файл
+     * @param from - позиция в файле, с которой начинается чтение
+     * @param to - позиция в файле, на которой чтение заканчивается (не включительно).
+     *           Отрицательное значение - до конца файла
+     * @param windowSize - размер окна в байтах
+     * @throws IOException - если не удалось открыть файл
+     * @throws IllegalArgumentException - если диапазон выходит за границы файла
+     */
+    public XmlMappedLexer(Path file, long from, long to, int windowSize) throws IOException {
+        if(windowSize < MIN_WINDOW_SIZE){
+            throw new IllegalArgumentException("Window size must be at least " + MIN_WINDOW_SIZE + " bytes.");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        long size = channel.size();
+        this.end = to < 0 ? size : to;
+        if(from < 0 || from > end || end > size){
+            channel.close();
+            throw new IllegalArgumentException(
+                    String.format("Wrong byte range [%d, %d) for file of size %d.", from, to, size)
+            );
+        }
+        this.start = from;
+        this.windowStart = from;
+        this.windowSize = windowSize;
+        this.lines = new LineCounter(from);
+        this.prefixLinesCounted = from == 0;
+    }
+
+    @Override
+    public TextToken scanText() throws IOException {
+        if((position >= limit || remapPending) && !map(windowStart + position, windowSize)){
+            sliceStart = sliceEnd = position;
+            return TextToken.END_OF_INPUT;
+        }
+        MappedByteBuffer w = window;
+        int to = limit;
+        int i = position;
+        while(i < to && w.get(i) != '<'){
+            ++i;
+        }
+        sliceStart = position;
+        if(i < to){
+            sliceEnd = i;
+            position = i + 1;
+            return TextToken.MARKUP;
+        }
+        sliceEnd = windowStart + limit < end ? completeCharsEnd(i) : i;
+        position = sliceEnd;
+        remapPending = sliceEnd < limit;
+        return TextToken.TEXT;
+    }
+
+    @Override
+    public TagToken scanTag() throws IOException {
+        int start = position;
+        int i = position;
+        int size = windowSize;
+        while(true){
+            MappedByteBuffer w = window;
+            int to = limit;
+            while(i < to){
+                byte b = w.get(i);
+                if(b == '>'){
+                    sliceStart = start;
+                    sliceEnd = i;
+                    position = i + 1;
+                    return TagToken.TAG;
+                }
+                if(b == '<'){
+                    position = i + 1;
+                    return TagToken.DOUBLE_OPEN;
+                }
+                ++i;
+            }
+            if(windowStart + limit >= end){
+                position = limit;
+                return TagToken.END_OF_INPUT;
+            }
+            // тэг не поместился в окно: окно сдвигается на начало тэга и при необходимости увеличивается
+            if(start == 0){
+                size = (int) Math.min((long) size * 2, Integer.MAX_VALUE - 8);
+            }
+            int scanned = i - start;
+            map(windowStart + start, size);
+            i = scanned;
+            start = 0;
+        }
+    }
+
+    @Override
+    public MarkupType scanMarkupType() throws IOException {
+        if(limit - position < CDATA_START.length && windowStart + limit < end){
+            map(windowStart + position, Math.max(windowSize, CDATA_START.length));
+        }
+        if(position >= limit){
+            return MarkupType.TAG;
+        }
+        byte b = window.get(position);
+        if(b == '?'){
+            ++position;
+            return MarkupType.PROCESSING_INSTRUCTION;
+        }
+        if(b != '!'){
+            return MarkupType.TAG;
+        }
+        if(startsWith(COMMENT_START)){
+            position += COMMENT_START.length;
+            return MarkupType.COMMENT;
+        }
+        if(startsWith(CDATA_START)){
+            position += CDATA_START.length;
+            return MarkupType.CDATA;
+        }
+        ++position;
+        return MarkupType.DECLARATION;
+    }
+
+    private boolean startsWith(byte[] prefix) {
+        if(limit - position < prefix.length){
+            return false;
+        }
+        for(int i = 0; i < prefix.length; ++i){
+            if(window.get(position + i) != prefix[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean skipMarkup(MarkupType type) throws IOException {
+        switch (type){
+            case PROCESSING_INSTRUCTION:
+                return skipPast(PROCESSING_INSTRUCTION_END);
+            case COMMENT:
+                return skipPast(COMMENT_END);
+            case DECLARATION:
+                return skipDeclaration();
+            default:
+                throw new IllegalArgumentException("Markup " + type + " can not be skipped.");
+        }
+    }
+
+    @Override
+    public TextToken scanCData() throws IOException {
+        int size = windowSize;
+        while(true){
+            int found = indexOf(CDATA_END);
+            if(found >= 0){
+                sliceStart = position;
+                sliceEnd = found;
+                position = found + CDATA_END.length;
+                return TextToken.MARKUP;
+            }
+            if(windowStart + limit >= end){
+                sliceStart = sliceEnd = position = limit;
+                return TextToken.END_OF_INPUT;
+            }
+            // последние байты окна могут оказаться началом "]]>" или неполным символом
+            int safeEnd = completeCharsEnd(limit - (CDATA_END.length - 1));
+            if(safeEnd > position){
+                sliceStart = position;
+                sliceEnd = safeEnd;
+                position = safeEnd;
+                return TextToken.TEXT;
+            }
+            if(position == 0){
+                size = (int) Math.min((long) size * 2, Integer.MAX_VALUE - 8);
+            }
+            map(windowStart + position, size);
+        }
+    }
+
+    /**
+     * Пропускает байты до окончания {@code terminator} включительно.
+     * @return true - окончание найдено, false - данные закончились
+     */
+    private boolean skipPast(byte[] terminator) throws IOException {
+        while(true){
+            int found = indexOf(terminator);
+            if(found >= 0){
+                position = found + terminator.length;
+                return true;
+            }
+            if(windowStart + limit >= end){
+                position = limit;
+                return false;
+            }
+            map(windowStart + Math.max(position, limit - (terminator.length - 1)), windowSize);
+        }
+    }
+
+    /**
+     * Ищет в окне, начиная с текущей позиции, последовательность байт, которая заканчивается на '>'.
+     * Сначала ищется последний байт, а уже затем сравниваются предыдущие.
+     * @return позиция начала последовательности. -1 - если её нет в окне
+     */
+    private int indexOf(byte[] terminator) {
+        MappedByteBuffer w = window;
+        int last = terminator.length - 1;
+        byte lastByte = terminator[last];
+        int to = limit;
+        for(int i = position + last; i < to; ++i){
+            if(w.get(i) != lastByte){
+                continue;
+            }
+            int k = 0;
+            while(k < last && w.get(i - last + k) == terminator[k]){
+                ++k;
+            }
+            if(k == last){
+                return i - last;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Пропускает объявление до '>', который находится вне квадратных скобок.
+     * @return true - окончание найдено, false - данные закончились
+     */
+    private boolean skipDeclaration() throws IOException {
+        int brackets = 0;
+        while(true){
+            MappedByteBuffer w = window;
+            int to = limit;
+            for(int i = position; i < to; ++i){
+                byte b = w.get(i);
+                if(b == '['){
+                    ++brackets;
+                } else if(b == ']'){
+                    --brackets;
+                } else if(b == '>' && brackets <= 0){
+                    position = i + 1;
+                    return true;
+                }
+            }
+            if(!map(windowStart + limit, windowSize)){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Отображает в память окно, начинающееся с указанной позиции файла.
+     * @param from - позиция начала окна в файле
+     * @param size - максимальный размер окна
+     * @return true - окно отображено, false - данные закончились
+     */
+    private boolean map(long from, int size) throws IOException {
+        if(window != null){
+            lines.advance(window, (int) (lines.getCounted() - windowStart), (int) (from - windowStart));
+        }
+        remapPending = false;
+        long length = Math.min(size, end - from);
+        if(length <= 0){
+            windowStart = from;
+            position = limit = 0;
+            return false;
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        windowStart = from;
+        position = 0;
+        limit = (int) length;
+        return true;
+    }
+
+    /**
+     * Находит конец последнего полного символа UTF-8 перед указанной позицией окна.
+     * @param to - позиция, перед которой ищется конец символа
+     * @return позиция конца последнего полного символа
+     */
+    private int completeCharsEnd(int to) {
+        for(int k = 1; k <= 3 && to - k >= position; ++k){
+            int b = window.get(to - k) & 0xFF;
+            if((b & 0xC0) != 0x80){
+                int charLength = b < 0x80 ? 1 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+                return charLength > k ? to - k : to;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Позиция в файле следующего непрочитанного байта.
+     */
+    public long getOffset() {
+        return windowStart + position;
+    }
+
+    @Override
+    public int sliceLength() {
+        return sliceEnd - sliceStart;
+    }
+
+    @Override
+    public char sliceCharAt(int index) {
+        byte b = window.get(sliceStart + index);
+        if(b >= 0){
+            return (char) b;
+        }
+        int length = Math.min(4, sliceEnd - sliceStart - index);
+        return decode(sliceStart + index, length).charAt(0);
+    }
+
+    @Override
+    public int indexOfNonWhitespace(int from) {
+        MappedByteBuffer w = window;
+        for(int i = sliceStart + from; i < sliceEnd; ++i){
+            byte b = w.get(i);
+            if(b < 0 || !Character.isWhitespace((char) b)){
+                return i - sliceStart;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void appendSlice(StringBuilder target, int from) {
+        int length = sliceEnd - sliceStart - from;
+        if(length <= 0){
+            return;
+        }
+        if(!copyBytes(sliceStart + from, length)){
+            target.append(new String(bytes, 0, length, StandardCharsets.UTF_8));
+            return;
+        }
+        target.append(widenBytes(length), 0, length);
+    }
+
+    /**
+     * Для ASCII-среза возвращает представление над расширенными до символов байтами,
+     * иначе - декодированную строку.
+     */
+    @Override
+    public CharSequence slice() {
+        int length = sliceEnd - sliceStart;
+        if(!copyBytes(sliceStart, length)){
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return slice.set(widenBytes(length), 0, length);
+    }
+
+    /**
+     * Расширяет ASCII-байты из буфера {@link #bytes} до символов.
+     * @param length - кол-во байт
+     * @return буфер символов
+     */
+    private char[] widenBytes(int length) {
+        if(chars.length < length){
+            chars = new char[bytes.length];
+        }
+        for(int i = 0; i < length; ++i){
+            chars[i] = (char) bytes[i];
+        }
+        return chars;
+    }
+
+    /**
+     * Срез состоит из байт, которые нужно декодировать, поэтому ссылки на окно не создаются.
+     */
+    @Override
+    public boolean referenceSlice(CharSlice target, int from) {
+        return false;
+    }
+
+    /**
+     * Ссылки на окно не создаются, поэтому слушатель не нужен.
+     */
+    @Override
+    public void setWindowListener(Runnable listener) {
+    }
+
+    /**
+     * Смещение и столбец измеряются в байтах. Если данные лексера начинаются не с начала файла,
+     * то при первом вызове считаются переводы строк от начала файла до начала данных.
+     */
+    @Override
+    public CursorPosition getPosition() {
+        if(!prefixLinesCounted){
+            prefixLinesCounted = true;
+            try{
+                lines.prepend(countLines(start));
+            } catch (IOException e){
+                // строки считаются от начала данных лексера
+            }
+        }
+        if(window == null){
+            return lines.position();
+        }
+        return lines.position(window, (int) (lines.getCounted() - windowStart), position);
+    }
+
+    /**
+     * Считает переводы строк от начала файла до указанной позиции.
+     */
+    private LineCounter countLines(long to) throws IOException {
+        LineCounter counter = new LineCounter(0);
+        for(long from = 0; from < to; ){
+            int length = (int) Math.min(windowSize, to - from);
+            counter.advance(channel.map(FileChannel.MapMode.READ_ONLY, from, length), 0, length);
+            from += length;
+        }
+        return counter;
+    }
+
+    @Override
+    public String sliceToString() {
+        return decode(sliceStart, sliceEnd - sliceStart);
+    }
+
+    /**
+     * Декодирует байты окна в строку.
+     * @param from - позиция в окне
+     * @param length - кол-во байт
+     * @return строка
+     */
+    private String decode(int from, int length) {
+        boolean ascii = copyBytes(from, length);
+        return new String(bytes, 0, length, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Копирует байты окна в буфер {@link #bytes}.
+     * @param from - позиция в окне
+     * @param length - кол-во байт
+     * @return true - все байты являются ASCII-символами
+     */
+    private boolean copyBytes(int from, int length) {
+        if(bytes.length < length){
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+        window.get(from, bytes, 0, length);
+        for(int i = 0; i < length; ++i){
+            if(bytes[i] < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
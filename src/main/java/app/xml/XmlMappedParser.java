@@ -0,0 +1,68 @@
+package app.xml;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Реализация ленивого xml-парсера ({@link XmlLazyParser}) для файлов в кодировке UTF-8,
+ * который читает файл через отображение в память ({@link XmlMappedLexer}).
+ * Разметка ищется по байтам файла, а в символы декодируются только тела узлов и содержимое тэгов.
+ * Файл отображается в память сдвигающимися окнами, поэтому размер файла не ограничен.
+ */
+public class XmlMappedParser extends XmlLazyParser {
+
+    private final XmlMappedLexer lexer;
+
+    /**
+     * @param file - xml-файл
+     * @param elementParser - парсер для тэгов
+     * @throws app.xml.exception.XmlParseException - если файл пустой либо нарушена структура xml-файла
+     * @throws IOException - если возникла ошибка во время чтения файла
+     */
+    public XmlMappedParser(File file, XmlElementParser elementParser) throws IOException {
+        this(file, elementParser, XmlMappedLexer.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize - размер окна отображения в байтах
+     * @see #XmlMappedParser(File, XmlElementParser)
+     */
+    public XmlMappedParser(File file, XmlElementParser elementParser, int windowSize) throws IOException {
+        this(new XmlMappedLexer(file.toPath(), windowSize), elementParser);
+    }
+
+    /**
+     * Создаёт парсер для фрагмента файла - диапазона байт внутри открытого корневого узла.
+     * @param file - xml-файл
+     * @param elementParser - парсер для тэгов
+     * @param from - позиция начала фрагмента в файле
+     * @param to - позиция конца фрагмента в файле (не включительно)
+     * @param root - открытый корневой узел, внутри которого находится фрагмент
+     * @param windowSize - размер окна отображения в байтах
+     * @throws app.xml.exception.XmlParseException - если нарушена структура фрагмента
+     * @throws IOException - если возникла ошибка во время чтения файла
+     * @see XmlLazyParser#XmlLazyParser(XmlLexer, XmlElementParser, Node)
+     */
+    public XmlMappedParser(File file, XmlElementParser elementParser,
+                           long from, long to, Node root, int windowSize) throws IOException {
+        this(new XmlMappedLexer(file.toPath(), from, to, windowSize), elementParser, root);
+    }
+
+    private XmlMappedParser(XmlMappedLexer lexer, XmlElementParser elementParser) throws IOException {
+        super(lexer, elementParser);
+        this.lexer = lexer;
+    }
+
+    private XmlMappedParser(XmlMappedLexer lexer, XmlElementParser elementParser, Node root) throws IOException {
+        super(lexer, elementParser, root);
+        this.lexer = lexer;
+    }
+
+    /**
+     * Позиция в файле, до которой файл прочитан.
+     * Сразу после создания парсера - это позиция конца открывающего элемента корневого узла.
+     */
+    public long getOffset() {
+        return lexer.getOffset();
+    }
+}
@@ -41,4 +41,15 @@ public interface XmlParser extends AutoCloseable {
      */
     Node getNextNode() throws IOException;
 
+    /**
+     * Возвращает парсеру прочитанный узел, который больше не нужен вызывающему коду.
+     * Парсер может переиспользовать его для следующих узлов, поэтому после вызова
+     * узел и его тело нельзя использовать. Освобождать можно только закрытые узлы,
+     * на которые не ссылаются другие используемые узлы.
+     * По умолчанию узел не переиспользуется.
+     * @param node - закрытый узел
+     */
+    default void releaseNode(Node node) {
+    }
+
 }
@@ -0,0 +1,147 @@
+package app.xml;
+
+import app.xml.exception.XmlNoMoreNodesException;
+
+import java.io.IOException;
+
+/**
+ * Представление узлов произвольного {@link XmlParser} в виде потока событий.
+ * Узел возвращается событием {@link Event#START}, как только его выдал парсер.
+ * Когда становится ясно, что узел закончился (следующий узел не является его потомком, либо узлов больше нет),
+ * его тело возвращается одним событием {@link Event#TEXT}, а затем возвращается {@link Event#END}.
+ * Поэтому текст узла приходит после событий его потомков.
+ *
+ * Если включено переиспользование узлов, закончившиеся узлы возвращаются парсеру
+ * ({@link XmlParser#releaseNode(Node)}) после перехода к следующему событию.
+ */
+class XmlParserEventReader implements XmlEventReader {
+
+    private final XmlParser parser;
+    private final boolean recycleNodes;
+
+    /**
+     * Узлы, для которых ещё не возвращено событие {@link Event#END}.
+     */
+    private final NodeStack openNodes = new NodeStack();
+
+    /**
+     * Узел, прочитанный из парсера, для которого ещё не возвращено событие {@link Event#START}.
+     */
+    private Node pendingNode;
+    /**
+     * Флаг: true - для узла на вершине {@link #openNodes} уже возвращено событие {@link Event#TEXT}.
+     */
+    private boolean textReturned;
+
+    private Node eventNode;
+    private int eventDepth;
+
+    /**
+     * Узел, для которого возвращено событие {@link Event#END}. Освобождается при переходе к следующему событию.
+     */
+    private Node endedNode;
+
+    XmlParserEventReader(XmlParser parser, boolean recycleNodes) {
+        this.parser = parser;
+        this.recycleNodes = recycleNodes;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if(pendingNode == null && parser.hasNextNode()){
+            pendingNode = parser.getNextNode();
+        }
+        return pendingNode != null || !openNodes.isEmpty();
+    }
+
+    @Override
+    public Event next() throws IOException {
+        if(!hasNext()){
+            throw new XmlNoMoreNodesException("There is no more events in the file.", null);
+        }
+        releaseEndedNode();
+        Node top = openNodes.peek();
+        if(top != null && (pendingNode == null || !isAncestor(top, pendingNode))){
+            if(!textReturned && !top.isBodyEmpty()){
+                textReturned = true;
+                return setEvent(Event.TEXT, top, openNodes.depth());
+            }
+            eventDepth = openNodes.depth();
+            openNodes.pop();
+            endedNode = top;
+            textReturned = false;
+            return setEvent(Event.END, top, eventDepth);
+        }
+        Node node = pendingNode;
+        pendingNode = null;
+        openNodes.push(node);
+        textReturned = false;
+        return setEvent(Event.START, node, openNodes.depth());
+    }
+
+    private Event setEvent(Event event, Node node, int depth) {
+        this.eventNode = node;
+        this.eventDepth = depth;
+        return event;
+    }
+
+    /**
+     * Проверяет, является ли узел предком другого узла.
+     */
+    private static boolean isAncestor(Node ancestor, Node node) {
+        for(Node parent = node.getParent(); parent != null; parent = parent.getParent()){
+            if(parent == ancestor){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void releaseEndedNode() {
+        if(recycleNodes && endedNode != null){
+            parser.releaseNode(endedNode);
+        }
+        endedNode = null;
+    }
+
+    @Override
+    public Element getElement() {
+        return eventNode.getElement();
+    }
+
+    @Override
+    public String getName() {
+        return eventNode.getName();
+    }
+
+    @Override
+    public CharSequence getText() {
+        return eventNode.getBody();
+    }
+
+    @Override
+    public int indexOfNonWhitespace(int from) {
+        CharSequence text = getText();
+        for(int i = from; i < text.length(); ++i){
+            if(!Character.isWhitespace(text.charAt(i))){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void appendText(StringBuilder target, int from) {
+        target.append(eventNode.getBody(), from, eventNode.getBody().length());
+    }
+
+    @Override
+    public int getDepth() {
+        return eventDepth;
+    }
+
+    @Override
+    public void close() throws Exception {
+        parser.close();
+    }
+}
@@ -0,0 +1,290 @@
+package app.xml;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Индекс строк таблицы xml-файла: позиции в файле (в байтах) начала каждой {@link #getStep()}-й строки
+ * (строки 0, step, 2 * step, ...). Позволяет начать чтение с любой строки, не разбирая файл до неё
+ * ({@link XmlTableReaderFactory#openRows(XmlRowIndex, long, long)}): чтение начинается с ближайшей
+ * проиндексированной строки, и пропускается не больше step - 1 строк.
+ *
+ * Индекс хранится рядом с xml-файлом в файле с суффиксом {@link #SUFFIX}. Формат файла:
+ * заголовок (признак формата, версия, размер и время изменения xml-файла, шаг, кол-во строк, кол-во позиций),
+ * затем позиции в виде разностей соседних позиций, каждая из которых записана в формате переменной длины
+ * (по 7 бит в байте). Файл читается через отображение в память.
+ * Индекс считается устаревшим, если размер или время изменения xml-файла отличаются от записанных.
+ *
+ * Индекс строится отдельным проходом по файлу ({@link #build(Path, XmlElementParser, int)}),
+ * при котором значения ячеек не создаются. Файл должен быть в кодировке UTF-8 и не сжат.
+ */
+public final class XmlRowIndex {
+
+    /**
+     * Шаг индекса по умолчанию.
+     */
+    public static final int DEFAULT_STEP = 1024;
+
+    /**
+     * Суффикс файла индекса.
+     */
+    public static final String SUFFIX = ".rowidx";
+
+    private static final String ROW_ELEMENT_NAME = "row";
+
+    /**
+     * Признак формата ("XRIX") и версия формата.
+     */
+    private static final int MAGIC = 0x58524958;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 8 + 4;
+
+    private final long fileSize;
+    private final long lastModified;
+    private final int step;
+    private final long rowCount;
+
+    /**
+     * Позиции проиндексированных строк.
+     */
+    private final long[] offsets;
+
+    private XmlRowIndex(long fileSize, long lastModified, int step, long rowCount, long[] offsets) {
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.step = step;
+        this.rowCount = rowCount;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Строит индекс, разбирая файл целиком.
+     * @param file - xml-файл в кодировке UTF-8
+     * @param elementParser - парсер для тэгов
+     * @param step - шаг индекса: индексируется каждая step-я строка
+     * @return индекс
+     * @throws IOException - если произошла ошибка во время чтения или разбора файла
+     */
+    public static XmlRowIndex build(Path file, XmlElementParser elementParser, int step) throws IOException {
+        if(step < 1){
+            throw new IllegalArgumentException("Index step must be positive.");
+        }
+        long fileSize = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long[] offsets = new long[16];
+        int count = 0;
+        long rows = 0;
+        XmlMappedLexer lexer = new XmlMappedLexer(file);
+        try(XmlEventReaderImpl events = new XmlEventReaderImpl(lexer, elementParser)){
+            while(true){
+                // начало разметки следующего события: после текста лексер уже прочитал '<'
+                long offset = lexer.getOffset() - (events.isMarkupStarted() ? 1 : 0);
+                if(!events.hasNext()){
+                    break;
+                }
+                if(events.next() != XmlEventReader.Event.START
+                        || events.getDepth() != 2
+                        || !ROW_ELEMENT_NAME.equals(events.getName())){
+                    continue;
+                }
+                if(rows % step == 0){
+                    if(count == offsets.length){
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                    }
+                    offsets[count++] = offset;
+                }
+                ++rows;
+            }
+        }
+        return new XmlRowIndex(fileSize, lastModified, step, rows, Arrays.copyOf(offsets, count));
+    }
+
+    /**
+     * Загружает индекс xml-файла из файла рядом с ним. Если индекса нет или он устарел,
+     * индекс строится заново и сохраняется.
+     * @param file - xml-файл в кодировке UTF-8
+     * @param elementParser - парсер для тэгов
+     * @param step - шаг индекса, если его нужно строить
+     * @return индекс
+     * @throws IOException - если произошла ошибка во время чтения или разбора файла, либо записи индекса
+     */
+    public static XmlRowIndex loadOrBuild(Path file, XmlElementParser elementParser, int step) throws IOException {
+        XmlRowIndex index = load(file);
+        if(index == null){
+            index = build(file, elementParser, step);
+            index.write(indexPath(file));
+        }
+        return index;
+    }
+
+    /**
+     * Загружает индекс xml-файла из файла рядом с ним.
+     * @param file - xml-файл
+     * @return индекс. null - если индекса нет, он повреждён или устарел
+     * @throws IOException - если произошла ошибка во время чтения файлов
+     */
+    public static XmlRowIndex load(Path file) throws IOException {
+        Path indexFile = indexPath(file);
+        if(!Files.isRegularFile(indexFile)){
+            return null;
+        }
+        XmlRowIndex index = read(indexFile);
+        return index != null && index.isValidFor(file) ? index : null;
+    }
+
+    /**
+     * @param file - xml-файл
+     * @return путь к файлу индекса xml-файла
+     */
+    public static Path indexPath(Path file) {
+        return file.resolveSibling(file.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Читает индекс из файла.
+     * @param indexFile - файл индекса
+     * @return индекс. null - если файл не является файлом индекса или повреждён
+     * @throws IOException - если произошла ошибка во время чтения файла
+     */
+    public static XmlRowIndex read(Path indexFile) throws IOException {
+        try(FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size < HEADER_SIZE || size > Integer.MAX_VALUE){
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION){
+                return null;
+            }
+            long fileSize = buffer.getLong();
+            long lastModified = buffer.getLong();
+            int step = buffer.getInt();
+            long rowCount = buffer.getLong();
+            int count = buffer.getInt();
+            if(step < 1 || count < 0 || count > buffer.remaining()){
+                return null;
+            }
+            long[] offsets = new long[count];
+            long offset = 0;
+            for(int i = 0; i < count; ++i){
+                long delta = readVarLong(buffer);
+                if(delta < 0){
+                    return null;
+                }
+                offset += delta;
+                offsets[i] = offset;
+            }
+            return new XmlRowIndex(fileSize, lastModified, step, rowCount, offsets);
+        }
+    }
+
+    /**
+     * Записывает индекс в файл. Файл сначала записывается во временный файл, который затем переименовывается.
+     * @param indexFile - файл индекса
+     * @throws IOException - если произошла ошибка во время записи
+     */
+    public void write(Path indexFile) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + offsets.length * 10);
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putLong(fileSize).putLong(lastModified)
+                .putInt(step).putLong(rowCount).putInt(offsets.length);
+        long previous = 0;
+        for(long offset : offsets){
+            writeVarLong(buffer, offset - previous);
+            previous = offset;
+        }
+        buffer.flip();
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while((value & ~0x7FL) != 0){
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * @return значение. -1 - если запись повреждена
+     */
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for(int shift = 0; shift < 64 && buffer.hasRemaining(); shift += 7){
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0){
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Проверяет, что индекс построен для текущего содержимого файла: размер и время изменения не изменились.
+     * @param file - xml-файл
+     * @return true - индекс актуален
+     * @throws IOException - если не удалось прочитать атрибуты файла
+     */
+    public boolean isValidFor(Path file) throws IOException {
+        return Files.size(file) == fileSize && Files.getLastModifiedTime(file).toMillis() == lastModified;
+    }
+
+    /**
+     * @return шаг индекса
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return кол-во строк в таблице
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return размер xml-файла, для которого построен индекс
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Возвращает номер ближайшей проиндексированной строки, не превышающей указанную.
+     * @param row - номер строки (с 0)
+     * @return номер проиндексированной строки
+     */
+    public long floorIndexedRow(long row) {
+        return Math.min(row, rowCount) / step * step;
+    }
+
+    /**
+     * Возвращает позицию начала строки, если она проиндексирована, либо позицию конца данных
+     * для номеров строк не меньше {@link #getRowCount()}.
+     * @param row - номер проиндексированной строки (кратный {@link #getStep()})
+     * @return позиция в файле
+     */
+    public long getIndexedRowOffset(long row) {
+        if(row % step != 0){
+            throw new IllegalArgumentException(String.format("Row %d is not indexed.", row));
+        }
+        long entry = row / step;
+        return entry < offsets.length ? offsets[(int) entry] : fileSize;
+    }
+}
@@ -1,8 +1,10 @@
 package app.xml;
 
 import app.table.Row;
+import app.table.RowSchema;
 
 import java.io.IOException;
+import java.util.Set;
 
 /**
  * Интерфейс для считывания строк(наборов пар ключ-значение {@link Row}) таблицы из xml-файла.
@@ -25,4 +27,39 @@ public interface XmlTableReader extends AutoCloseable{
      */
     Row readRow() throws IOException;
 
+    /**
+     * Возвращает следующую строку, набор столбцов которой совпадает с указанным.
+     * Строки с другим набором столбцов пропускаются.
+     * @param columns - имена столбцов
+     * @return строка с указанными столбцами. Null - если таких строк больше нет
+     * @throws IOException - если произошла ошибка во время парсинга файла, либо при чтении из него
+     */
+    default Row readRow(Set<String> columns) throws IOException {
+        Row row;
+        while((row = readRow()) != null){
+            if(row.size() == columns.size() && columns.stream().allMatch(row::containsColumn)){
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает следующую строку, набор столбцов которой совпадает с набором {@code schema}.
+     * Значения строки расположены по номерам столбцов набора. Строки с другим набором столбцов пропускаются.
+     * @param schema - набор столбцов
+     * @return строка, привязанная к набору. Null - если таких строк больше нет
+     * @throws IOException - если произошла ошибка во время парсинга файла, либо при чтении из него
+     */
+    default Row readRow(RowSchema schema) throws IOException {
+        Row row;
+        while((row = readRow()) != null){
+            Row bound = row.bind(schema);
+            if(bound != null){
+                return bound;
+            }
+        }
+        return null;
+    }
+
 }
@@ -0,0 +1,190 @@
+package app.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Создаёт считыватели строк для частей таблицы xml-файла в кодировке UTF-8: для диапазона байт
+ * ({@link #openRange(long, long)}) или для диапазона номеров строк по индексу строк ({@link #openRows(XmlRowIndex, long, long)}).
+ * Табличный элемент считывается один раз, а каждый считыватель разбирает только свою часть файла через {@link XmlMappedLexer}.
+ *
+ * Считыватели можно использовать из разных потоков, если парсер тэгов потоко-безопасный.
+ */
+public class XmlTableReaderFactory {
+
+    private static final String ROW_ELEMENT_NAME = "row";
+
+    /**
+     * Размер окна, в котором ищется начало строки.
+     */
+    private static final int SEARCH_WINDOW_SIZE = 1 << 20;
+
+    private final File file;
+    private final XmlElementParser elementParser;
+    private final int windowSize;
+
+    private Node tableNode;
+
+    /**
+     * Позиция конца открывающего элемента таблицы.
+     */
+    private long bodyStart;
+
+    public XmlTableReaderFactory(File file, XmlElementParser elementParser) {
+        this(file, elementParser, XmlMappedLexer.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param file - xml-файл
+     * @param elementParser - парсер для тэгов
+     * @param windowSize - размер окна отображения файла в память для каждого считывателя
+     */
+    public XmlTableReaderFactory(File file, XmlElementParser elementParser, int windowSize) {
+        this.file = file;
+        this.elementParser = elementParser;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Возвращает табличный узел. При первом вызове считывает его из начала файла.
+     * @return табличный узел
+     * @throws IOException - если произошла ошибка в парсере
+     */
+    public synchronized Node getTable() throws IOException {
+        if(tableNode == null){
+            XmlMappedLexer headLexer = new XmlMappedLexer(file.toPath(), windowSize);
+            try(XmlEventReaderImpl headEvents = new XmlEventReaderImpl(headLexer, elementParser)){
+                tableNode = new XmlTableReaderImpl(headEvents).getTable();
+                bodyStart = headLexer.getOffset();
+            }
+        }
+        return tableNode;
+    }
+
+    /**
+     * @return позиция в файле конца открывающего элемента таблицы
+     * @throws IOException - если произошла ошибка в парсере
+     */
+    public synchronized long getBodyStart() throws IOException {
+        getTable();
+        return bodyStart;
+    }
+
+    /**
+     * Создаёт считыватель строк диапазона байт. Границы диапазона должны совпадать с началом строк
+     * (или разметки перед ними), началом тела таблицы или концом файла.
+     * Если непустой диапазон доходит до конца файла, в нём должен быть закрывающий тэг таблицы:
+     * иначе, как и при чтении всего файла, выбрасывается {@link app.xml.exception.XmlParseException}.
+     * Пустой диапазон в конце файла лежит после закрывающего тэга и строк не содержит.
+     * @param from - начало диапазона
+     * @param to - конец диапазона (не включительно)
+     * @return считыватель строк диапазона. Его табличный узел - копия табличного узла файла
+     * @throws IOException - если произошла ошибка во время чтения файла
+     */
+    public XmlTableReaderImpl openRange(long from, long to) throws IOException {
+        Node root = new Node(null, getTable().getElement(), Node.NodeStatus.OPENED);
+        XmlEventReaderImpl events = new XmlEventReaderImpl(
+                new XmlMappedLexer(file.toPath(), from, to, windowSize), elementParser, root.getElement(),
+                from < to && to >= file.length());
+        return new XmlTableReaderImpl(events, root);
+    }
+
+    /**
+     * Делит тело таблицы на диапазоны примерно одинакового размера, границы которых сдвинуты вперёд
+     * до ближайшего открывающего тэга строки ("&lt;row"). Последовательность "&lt;row" не должна встречаться
+     * внутри комментариев и CDATA.
+     * @param parts - желаемое кол-во диапазонов
+     * @return возрастающая последовательность границ диапазонов: от начала тела до конца файла.
+     *          Диапазонов может получиться меньше, если строк мало
+     * @throws IOException - если произошла ошибка во время чтения файла
+     */
+    public List<Long> splitBody(int parts) throws IOException {
+        long bodyStart = getBodyStart();
+        long fileEnd = file.length();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(bodyStart);
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            long step = (fileEnd - bodyStart) / parts;
+            for(int i = 1; i < parts; ++i){
+                long from = Math.max(bodyStart + step * i, bounds.get(bounds.size() - 1) + 1);
+                long rowStart = findRowStart(channel, from, fileEnd);
+                if(rowStart >= fileEnd){
+                    break;
+                }
+                bounds.add(rowStart);
+            }
+        }
+        bounds.add(fileEnd);
+        return bounds;
+    }
+
+    /**
+     * Ищет ближайший открывающий тэг строки: "&lt;row", за которым следует отступ, '>' или '/'.
+     * @param channel - файл
+     * @param from - позиция, с которой начинается поиск
+     * @param fileEnd - размер файла
+     * @return позиция символа '<' найденного тэга. Если тэг не найден - fileEnd
+     */
+    private static long findRowStart(FileChannel channel, long from, long fileEnd) throws IOException {
+        byte[] pattern = ("<" + ROW_ELEMENT_NAME).getBytes(StandardCharsets.US_ASCII);
+        long windowStart = from;
+        while(windowStart + pattern.length < fileEnd){
+            int length = (int) Math.min(SEARCH_WINDOW_SIZE, fileEnd - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+            for(int i = 0; i + pattern.length < length; ++i){
+                if(window.get(i) != '<' || !startsWith(window, i, pattern)){
+                    continue;
+                }
+                byte next = window.get(i + pattern.length);
+                if(next == '>' || next == '/' || Character.isWhitespace((char) next)){
+                    return windowStart + i;
+                }
+            }
+            // окна перекрываются, чтобы не пропустить тэг на границе
+            windowStart += length - pattern.length;
+        }
+        return fileEnd;
+    }
+
+    private static boolean startsWith(MappedByteBuffer window, int from, byte[] pattern) {
+        for(int j = 1; j < pattern.length; ++j){
+            if(window.get(from + j) != pattern[j]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Создаёт считыватель строк с номерами из диапазона [fromRow, toRow).
+     * Чтение начинается с ближайшей проиндексированной строки, предшествующие ей строки не разбираются.
+     * @param index - индекс строк файла
+     * @param fromRow - номер первой строки (с 0)
+     * @param toRow - номер строки после последней. {@link Long#MAX_VALUE} - до конца таблицы
+     * @return считыватель строк
+     * @throws IOException - если произошла ошибка во время чтения файла
+     * @throws IllegalArgumentException - если индекс устарел, либо диапазон некорректен
+     */
+    public XmlTableReader openRows(XmlRowIndex index, long fromRow, long toRow) throws IOException {
+        RowRangeReader.checkRange(fromRow, toRow);
+        if(!index.isValidFor(file.toPath())){
+            throw new IllegalArgumentException("Row index is out of date.");
+        }
+        long firstRow = index.floorIndexedRow(fromRow);
+        long lastRow = index.floorIndexedRow(toRow);
+        if(lastRow < toRow && lastRow < index.getRowCount()){
+            lastRow += index.getStep();
+        }
+        XmlTableReader reader = openRange(
+                Math.max(index.getIndexedRowOffset(firstRow), getBodyStart()),
+                index.getIndexedRowOffset(lastRow)
+        );
+        return new RowRangeReader(reader, fromRow - firstRow, toRow - fromRow);
+    }
+}
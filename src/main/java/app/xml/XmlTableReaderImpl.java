@@ -1,12 +1,15 @@
 package app.xml;
 
+import app.table.Column;
 import app.table.Row;
+import app.table.RowSchema;
 import app.xml.exception.XmlUnexpectedElementMetException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 
 /**
  * Класс для считывания строк(наборов пар ключ-значение {@link Row}) таблицы из xml-файла,
@@ -25,36 +28,56 @@ import java.util.Objects;
  *         </address>
  *     </row>
  * </table>
+ *
+ * Строки читаются из потока событий ({@link XmlEventReader}) без построения узлов:
+ * имена и тела ячеек ({@link CellBody}) собираются в буферы, которые переиспользуются для всех строк.
+ * Тело ячейки, пока это возможно, хранится ссылкой на окно лексера и копируется только перед сдвигом окна.
+ * Значения ячеек создаются только для возвращаемых строк ({@link #readRow(Set)}).
+ * Считыватель, созданный по {@link XmlParser}, получает события из его узлов ({@link XmlParserEventReader}).
+ * В режиме переиспользования узлов ({@code recycleNodes}) прочитанные узлы возвращаются парсеру
+ * ({@link XmlParser#releaseNode(Node)}), и парсер заполняет их следующими узлами.
  */
 public class XmlTableReaderImpl implements XmlTableReader {
 
     /**
-     * Xml-парсер
+     * Поток событий xml-файла.
      */
-    private final XmlParser xmlParser;
+    private final XmlEventReader events;
 
     /**
-     * Сслыка на текущий узел "row", значения которого нужно считать.
-     * Она необходима в следующей ситуации:
-     *  если во время чтения дочерних узлов строки был прочитан узел "row" следующей,
-     *  тогда её необходимо запомнить, чтобы при следующем вызове {@link #readRow()}
-     *  сразу начинать считывать дочерние узлы.
+     * Ссылка на табличный узел. Нужен для получения атрибутов и тела узла.
+     * @see Node
+     * @see #getTable()
      */
-    private Node currentRowNode = null;
+    private Node tableNode = null;
 
     /**
-     * Ссылка на предыдущую считанную строку. Связана с текущей строкой ({@link #currentRowNode}
-     * тем что, если они совпадают(==),
-     * тогда начало новой строки не было считано("<row>") и его необходимо найти.
+     * Имена и тела ячеек текущей строки в порядке открытия. Буферы переиспользуются для всех строк.
      */
-    private Node prevRowNode = null;
+    private String[] cellNames = new String[NodeStack.DEFAULT_CAPACITY];
+    private CellBody[] cellBodies = new CellBody[NodeStack.DEFAULT_CAPACITY];
+    private int cellCount;
 
     /**
-     * Ссылка на табличный узел. Нужен для получения атрибутов и тела узла.
-     * @see Node
-     * @see #getTable()
+     * Номера открытых ячеек текущей строки: от ячейки верхнего уровня к самой вложенной.
      */
-    private Node tableNode = null;
+    private int[] openCells = new int[NodeStack.DEFAULT_CAPACITY];
+    private int openCellCount;
+
+    /**
+     * Набор столбцов последнего вызова {@link #readRow(RowSchema)}, маска столбцов текущей строки
+     * и номер ячейки для каждого столбца.
+     */
+    private RowSchema boundSchema;
+    private long[] shapeMask;
+    private int[] columnCells;
+
+    /**
+     * Набор столбцов последней строки, прочитанной без заданного набора.
+     * Обычно у всех строк одинаковые ячейки, и набор используется повторно.
+     */
+    private RowSchema cellSchema;
+    private long[] cellSchemaMask;
 
     /**
      * Названия узлов для таблицы и строк.
@@ -64,11 +87,38 @@ public class XmlTableReaderImpl implements XmlTableReader {
 
 
     public XmlTableReaderImpl(XmlParser xmlParser){
-        this.xmlParser = xmlParser;
+        this(xmlParser, false);
     }
 
     /**
-     * Возвращает узел таблицы. Если он не был прочитан - считывает из парсера.
+     * @param xmlParser - xml-парсер
+     * @param recycleNodes - true - возвращать прочитанные узлы парсеру для переиспользования
+     */
+    public XmlTableReaderImpl(XmlParser xmlParser, boolean recycleNodes){
+        this(new XmlParserEventReader(xmlParser, recycleNodes));
+    }
+
+    /**
+     * @param events - поток событий xml-файла
+     */
+    public XmlTableReaderImpl(XmlEventReader events){
+        this.events = events;
+        events.setWindowListener(this::detachCellBodies);
+    }
+
+    /**
+     * Создаёт считыватель строк для потока событий, табличный элемент которого уже прочитан.
+     * Например, для фрагмента файла, состоящего только из строк.
+     * @param events - поток событий фрагмента, возвращающий только строки таблицы и их дочерние элементы
+     * @param tableNode - табличный узел
+     */
+    public XmlTableReaderImpl(XmlEventReader events, Node tableNode){
+        this(events);
+        this.tableNode = tableNode;
+    }
+
+    /**
+     * Возвращает узел таблицы. Если он не был прочитан - считывает из потока событий.
      * Табличный узел должен быть корневым.
      * @return табличный узел
      * @throws IOException - если произошла ошибка в парсере
@@ -83,86 +133,329 @@ public class XmlTableReaderImpl implements XmlTableReader {
 
     /**
      * Возвращает следующую строку таблицы. Если больше нет строк в таблице - null.
-     * Все дочерние узлы строки считаются её значениями.
-     * Если встречаются несколько узлов с одинаковым именем - сохраняется значение последнего из них.
+     * Все вложенные в строку элементы считаются её значениями.
+     * Если встречаются несколько элементов с одинаковым именем - сохраняется значение последнего открытого из них.
      * @return следующую строку. null - если строк больше нет
      * @throws XmlUnexpectedElementMetException - если имя узла строки не {@link #ROW_ELEMENT_NAME}
      * @throws IOException - если произошла ошибка в парсере
      */
     @Override
     public Row readRow() throws IOException{
-        if(tableNode == null){
-            tableNode = readTableElement();
+        return readRow((Set<String>) null);
+    }
+
+    /**
+     * Возвращает следующую строку, набор столбцов которой совпадает с указанным.
+     * Набор столбцов строки проверяется по именам ячеек, поэтому значения пропущенных строк не создаются.
+     * @param columns - имена столбцов. null - подходит любая строка
+     * @return следующую подходящую строку. null - если строк больше нет
+     * @throws XmlUnexpectedElementMetException - если имя узла строки не {@link #ROW_ELEMENT_NAME}
+     * @throws IOException - если произошла ошибка в парсере
+     */
+    @Override
+    public Row readRow(Set<String> columns) throws IOException{
+        while(nextRow()){
+            if(columns == null || hasColumns(columns)){
+                Row row = createRow();
+                // тела ячеек больше не нужны, и при сдвиге окна их не нужно копировать
+                cellCount = 0;
+                return row;
+            }
         }
-        /*
-         * Если текущая еще не найдена(=null), либо ссылается на предыдущую считанную,
-         * тогда необходимо считать её.
-         */
-        if(currentRowNode == null || prevRowNode == currentRowNode){
-            currentRowNode = xmlParser.hasNextNode()
-                    ? xmlParser.getNextNode()
-                    : null;
-        }
-        /*
-         *  Если ссылка == null, тогда строк больше нет в файле.
-         */
-        if(currentRowNode == null){
-            return null;
-        }
-        /*
-         *   Если имя строки != "row", тогда ошибка
-         */
-        if(!currentRowNode.getElement().getName().equals(ROW_ELEMENT_NAME)){
-            throw new XmlUnexpectedElementMetException(
-                    String.format("A non-row element('%s') was encountered in the table",
-                            currentRowNode.getElement().getName()
-                    )
-            );
+        return null;
+    }
+
+    /**
+     * Возвращает следующую строку с набором столбцов {@code schema}. Имя каждой ячейки переводится в номер столбца
+     * хэш-функцией набора, набор ячеек проверяется битовой маской, а значения создаются сразу по номерам столбцов.
+     * Если встречаются несколько ячеек с одинаковым именем - сохраняется значение последней из них.
+     * @param schema - набор столбцов
+     * @return строка, привязанная к набору. null - если таких строк больше нет
+     * @throws XmlUnexpectedElementMetException - если имя узла строки не {@link #ROW_ELEMENT_NAME}
+     * @throws IOException - если произошла ошибка в парсере
+     */
+    @Override
+    public Row readRow(RowSchema schema) throws IOException {
+        if(schema != boundSchema){
+            boundSchema = schema;
+            shapeMask = schema.newMask();
+            columnCells = new int[schema.size()];
+        }
+        while(nextRow()){
+            if(mapCellsToColumns(schema)){
+                Object[] values = new Object[schema.size()];
+                for(int i = 0; i < values.length; ++i){
+                    values[i] = cellBodies[columnCells[i]].toValue();
+                }
+                cellCount = 0;
+                return Row.of(schema, values);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Сопоставляет ячейки текущей строки столбцам набора: для каждого столбца запоминается последняя ячейка с его именем.
+     * @param schema - набор столбцов
+     * @return true - каждая ячейка есть в наборе, и каждый столбец набора есть среди ячеек
+     */
+    private boolean mapCellsToColumns(RowSchema schema) {
+        Arrays.fill(shapeMask, 0);
+        for(int i = 0; i < cellCount; ++i){
+            int ordinal = schema.ordinalOf(cellNames[i]);
+            if(ordinal < 0){
+                return false;
+            }
+            RowSchema.setBit(shapeMask, ordinal);
+            columnCells[ordinal] = i;
+        }
+        return schema.isComplete(shapeMask);
+    }
+
+    /**
+     * Переходит к следующей строке таблицы и считывает её ячейки в буферы, не создавая {@link Row}.
+     * Ячейки строки доступны через {@link #getCellCount()}, {@link #getCellName(int)} и {@link #getCellBody(int)}
+     * до следующего вызова.
+     * @return true - строка прочитана. false - строк больше нет
+     * @throws XmlUnexpectedElementMetException - если имя узла строки не {@link #ROW_ELEMENT_NAME}
+     * @throws IOException - если произошла ошибка в парсере
+     */
+    public boolean nextRow() throws IOException {
+        getTable();
+        // тела ячеек предыдущей строки больше не нужны, и при сдвиге окна их не нужно копировать
+        cellCount = 0;
+        if(!findRowStart()){
+            return false;
+        }
+        readRowCells();
+        return true;
+    }
+
+    /**
+     * @return кол-во ячеек строки, прочитанной {@link #nextRow()}, включая ячейки с повторяющимися именами
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @param cell - номер ячейки в порядке открытия
+     * @return имя ячейки
+     */
+    public String getCellName(int cell) {
+        return cellNames[cell];
+    }
+
+    /**
+     * @param cell - номер ячейки в порядке открытия
+     * @return тело ячейки. Действительно до следующего вызова {@link #nextRow()}
+     */
+    public CellBody getCellBody(int cell) {
+        return cellBodies[cell];
+    }
+
+    /**
+     * Проверяет, заменяется ли значение ячейки в строке ({@link #readRow()}) значением следующей ячейки с тем же именем.
+     * @param cell - номер ячейки в порядке открытия
+     * @return true - после ячейки есть ячейка с тем же именем
+     */
+    public boolean isOverwritten(int cell) {
+        for(int i = cell + 1; i < cellCount; ++i){
+            if(cellNames[i].equals(cellNames[cell])){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Считывает события до открытия следующей строки.
+     * Текст таблицы добавляется в тело табличного узла.
+     * @return true - строка найдена. false - строк больше нет
+     * @throws XmlUnexpectedElementMetException - если имя узла строки не {@link #ROW_ELEMENT_NAME}
+     */
+    private boolean findRowStart() throws IOException {
+        while(events.hasNext()){
+            switch (events.next()){
+                case START:
+                    if(!ROW_ELEMENT_NAME.equals(events.getName())){
+                        throw new XmlUnexpectedElementMetException(
+                                String.format("A non-row element('%s') was encountered in the table",
+                                        events.getName()
+                                ),
+                                events.getPosition()
+                        );
+                    }
+                    return true;
+                case TEXT:
+                    appendText(tableNode.getBody());
+                    break;
+                case END:
+                    tableNode.setStatus(Node.NodeStatus.CLOSED);
+                    break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Считывает вложенные элементы строки до её закрытия в буферы ячеек.
+     * Текст добавляется в тело самой вложенной открытой ячейки, текст самой строки пропускается.
+     */
+    private void readRowCells() throws IOException {
+        cellCount = 0;
+        openCellCount = 0;
+        while(events.hasNext()){
+            switch (events.next()){
+                case START:
+                    openCell(events.getName());
+                    break;
+                case TEXT:
+                    if(openCellCount > 0){
+                        appendText(cellBodies[openCells[openCellCount - 1]]);
+                    }
+                    break;
+                case END:
+                    if(openCellCount == 0){
+                        return;
+                    }
+                    openCellCount--;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Добавляет новую ячейку в буферы строки и делает её самой вложенной открытой ячейкой.
+     * @param name - имя ячейки
+     */
+    private void openCell(String name) {
+        if(cellCount == cellNames.length){
+            cellNames = Arrays.copyOf(cellNames, cellCount * 2);
+            cellBodies = Arrays.copyOf(cellBodies, cellCount * 2);
+        }
+        if(cellBodies[cellCount] == null){
+            cellBodies[cellCount] = new CellBody();
+        }
+        cellNames[cellCount] = name;
+        cellBodies[cellCount].clear();
+
+        if(openCellCount == openCells.length){
+            openCells = Arrays.copyOf(openCells, openCellCount * 2);
         }
+        openCells[openCellCount++] = cellCount++;
+    }
 
-        /*
-         * Если узел новой строки сразу завершился, значит строка пустая: <row></row>
-         */
-        if(currentRowNode.isClosed()){
-            prevRowNode = currentRowNode;
-            return new Row(new ArrayList<>());
-        }
-
-        // дочерние узлы
-        List<Node> nestedNodesInRow = new ArrayList<>();
-        Node cell = null;
-        while(currentRowNode.isOpened()){
-            /*
-             * Если узлов больше нет, и ошибки не произошло, значит строка закрылась,
-             * и у неё нет больше дочерних узлов.
-             */
-            if(!xmlParser.hasNextNode()){
-                currentRowNode = null;
-                break;
+    /**
+     * Добавляет текст текущего события в тело. Отступы в начале тела не записываются.
+     * @param body - тело
+     */
+    private void appendText(StringBuilder body) {
+        int from = 0;
+        if(body.length() == 0){
+            from = events.indexOfNonWhitespace(0);
+            if(from < 0){
+                return;
             }
+        }
+        events.appendText(body, from);
+    }
 
-            // считывание дочернего узла
-            cell = xmlParser.getNextNode();
-            if(isNewRow(cell)){
-                prevRowNode = currentRowNode;
-                currentRowNode = cell;
-                return new Row(nestedNodesInRow);
+    /**
+     * Добавляет текст текущего события в тело ячейки. Отступы в начале тела не записываются.
+     * @param body - тело ячейки
+     */
+    private void appendText(CellBody body) {
+        int from = 0;
+        if(body.length() == 0){
+            from = events.indexOfNonWhitespace(0);
+            if(from < 0){
+                return;
             }
-            nestedNodesInRow.add(cell);
         }
+        body.append(events, from);
+    }
 
-        prevRowNode = currentRowNode;
+    /**
+     * Копирует тела ячеек текущей строки из окна лексера перед его сдвигом.
+     */
+    private void detachCellBodies() {
+        for(int i = 0; i < cellCount; ++i){
+            cellBodies[i].detach();
+        }
+    }
 
-        return new Row(nestedNodesInRow);
+    /**
+     * Проверяет, что имена ячеек текущей строки образуют указанный набор столбцов.
+     * @param columns - имена столбцов
+     * @return true - каждая ячейка есть в наборе, и каждый столбец набора есть среди ячеек
+     */
+    public boolean hasColumns(Set<String> columns) {
+        int distinctNames = 0;
+        for(int i = 0; i < cellCount; ++i){
+            if(!columns.contains(cellNames[i])){
+                return false;
+            }
+            if(!isRepeatedName(i)){
+                ++distinctNames;
+            }
+        }
+        return distinctNames == columns.size();
+    }
+
+    private boolean isRepeatedName(int cell) {
+        for(int i = 0; i < cell; ++i){
+            if(cellNames[i].equals(cellNames[cell])){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Создаёт строку из буферов ячеек. Ссылки на сущности раскрываются только в значениях, где есть '&'.
+     * Если встречаются несколько ячеек с одинаковым именем - сохраняется значение последней из них.
+     * @return строка
+     */
+    private Row createRow() {
+        RowSchema schema = getCellSchema();
+        Object[] values = new Object[schema.size()];
+        for(int i = 0; i < cellCount; ++i){
+            values[schema.ordinalOf(cellNames[i])] = cellBodies[i].toValue();
+        }
+        return new Row(schema, values);
     }
 
     /**
-     * Проверяет, является ли узел новой строкой таблицы.
-     * @param node - узел на проверку
-     * @return true - является новой строкой, false - иначе.
+     * Возвращает набор столбцов из имён ячеек текущей строки.
+     * Набор предыдущей строки используется повторно, если имена ячеек образуют его же.
+     * @return набор столбцов
      */
-    private boolean isNewRow(Node node) {
-        return Objects.equals(node.getParent(), currentRowNode.getParent());
+    private RowSchema getCellSchema() {
+        if(cellSchema != null && isCellSchema(cellSchema)){
+            return cellSchema;
+        }
+        List<Column> columns = new ArrayList<>(cellCount);
+        for(int i = 0; i < cellCount; ++i){
+            if(!isRepeatedName(i)){
+                columns.add(new Column(cellNames[i]));
+            }
+        }
+        cellSchema = new RowSchema(columns);
+        cellSchemaMask = cellSchema.newMask();
+        return cellSchema;
+    }
+
+    private boolean isCellSchema(RowSchema schema) {
+        Arrays.fill(cellSchemaMask, 0);
+        for(int i = 0; i < cellCount; ++i){
+            int ordinal = schema.ordinalOf(cellNames[i]);
+            if(ordinal < 0){
+                return false;
+            }
+            RowSchema.setBit(cellSchemaMask, ordinal);
+        }
+        return schema.isComplete(cellSchemaMask);
     }
 
     /**
@@ -172,20 +465,21 @@ public class XmlTableReaderImpl implements XmlTableReader {
      * @throws IOException - если произошла ошибка в парсере
      */
     private Node readTableElement() throws IOException{
-        Node node = xmlParser.getNextNode();
-        if(!node.getElement().getName().equals(TABLE_ELEMENT_NAME)){
+        events.next();
+        if(!events.getName().equals(TABLE_ELEMENT_NAME)){
             throw new XmlUnexpectedElementMetException(
                     String.format("XML does not start with table element. Met: %s",
-                            node.getElement().getName()
-                    )
+                            events.getName()
+                    ),
+                    events.getPosition()
             );
         }
-        return node;
+        return new Node(null, events.getElement(), Node.NodeStatus.OPENED);
     }
 
 
     @Override
     public void close() throws Exception {
-        xmlParser.close();
+        events.close();
     }
 }
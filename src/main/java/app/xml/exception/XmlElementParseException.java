@@ -7,7 +7,6 @@ import app.xml.CursorPosition;
  */
 public class XmlElementParseException extends XmlParseException{
 
-    //TODO добавить курсор
     public XmlElementParseException(String message) {
         super(message);
     }
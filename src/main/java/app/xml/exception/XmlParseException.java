@@ -28,4 +28,23 @@ public class XmlParseException extends IOException {
         this.position = position;
     }
 
+    /**
+     * @return позиция в файле, на которой обнаружена ошибка; null - позиция неизвестна
+     */
+    public CursorPosition getPosition() {
+        return position;
+    }
+
+    /**
+     * Сообщение дополняется строкой и столбцом, если позиция известна.
+     */
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        if(position == null){
+            return message;
+        }
+        return message == null ? position.toString() : message + " (" + position + ")";
+    }
+
 }
@@ -15,4 +15,8 @@ public class XmlUnexpectedElementMetException extends XmlParseException{
     public XmlUnexpectedElementMetException(String message) {
         super(message);
     }
+
+    public XmlUnexpectedElementMetException(String message, CursorPosition position) {
+        super(message, position);
+    }
 }
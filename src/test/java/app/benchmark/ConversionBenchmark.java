@@ -0,0 +1,138 @@
+package app.benchmark;
+
+import app.imports.ConversionErrors;
+import app.imports.ConversionPlan;
+import app.imports.converter.ConverterFactory;
+import app.table.Column;
+import app.table.DataType;
+import app.table.Row;
+import app.table.RowBatch;
+import app.table.RowSchema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Замер скорости преобразования строковых значений строк в типы столбцов:
+ * поиск конвертера в {@link ConverterFactory} для каждой ячейки против плана {@link ConversionPlan}.
+ * Строки содержат столбцы всех шести типов, поэтому вызов конвертера по интерфейсу мегаморфный.
+ * В заданном проценте строк id не является числом: поиск конвертера сообщает об этом исключением,
+ * план - возвращаемым значением.
+ * Запуск: {@code java -cp target/classes:target/test-classes app.benchmark.ConversionBenchmark [rows] [bad_percent]}.
+ */
+public class ConversionBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int BATCH_SIZE = 100;
+
+    private interface Converter {
+        long convert(List<Row> rows, RowBatch batch);
+    }
+
+    public static void main(String[] args) {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int badPercent = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        RowSchema schema = new RowSchema(List.of(
+                new Column("id", DataType.INTEGER),
+                new Column("code", DataType.LONG),
+                new Column("price", DataType.DOUBLE),
+                new Column("ratio", DataType.FLOAT),
+                new Column("active", DataType.BOOLEAN),
+                new Column("name", DataType.STRING)
+        ));
+        List<List<Row>> batches = generate(schema, rowCount, badPercent);
+        RowBatch batch = new RowBatch(schema, BATCH_SIZE);
+        ConversionPlan plan = ConversionPlan.compile(schema);
+        ConversionErrors errors = new ConversionErrors(schema);
+
+        measure("lookup per cell, map rows", rowCount, batches, batch, (rows, target) -> {
+            long checksum = 0;
+            for(Row row : rows){
+                Map<String, Object> values = new HashMap<>();
+                try{
+                    for(Column column : schema.getColumns()){
+                        if(row.containsColumn(column)){
+                            values.put(column.getName(), ConverterFactory.getFactory()
+                                    .getRightConverter(column.getType())
+                                    .convert((String) row.get(column)));
+                        }
+                    }
+                } catch (RuntimeException e){
+                    continue;
+                }
+                checksum += values.size();
+            }
+            return checksum;
+        });
+        measure("lookup per cell, batch", rowCount, batches, batch, (rows, target) -> {
+            target.clear();
+            for(Row row : rows){
+                int index = target.addRow();
+                for(int i = 0; i < schema.size(); ++i){
+                    String value = (String) row.get(i);
+                    if(!ConverterFactory.getFactory()
+                            .getPrimitiveConverter(schema.getColumn(i).getType())
+                            .convertInto(value, 0, value.length(), target, i, index)){
+                        target.discardLastRow();
+                        break;
+                    }
+                }
+            }
+            return target.size();
+        });
+        measure("compiled plan, batch", rowCount, batches, batch, (rows, target) -> {
+            target.clear();
+            plan.convertRows(rows, target, errors);
+            return target.size();
+        });
+    }
+
+    private static List<List<Row>> generate(RowSchema schema, int rowCount, int badPercent) {
+        List<List<Row>> batches = new ArrayList<>();
+        List<Row> rows = new ArrayList<>(BATCH_SIZE);
+        for(int i = 0; i < rowCount; ++i){
+            rows.add(new Row(schema, new Object[]{
+                    i % 100 < badPercent ? "id-" + i : String.valueOf(i),
+                    String.valueOf(i * 1_000_003L),
+                    String.valueOf((i * 31 % 100000) / 100.0),
+                    String.valueOf((i % 1000) / 8.0f),
+                    i % 3 == 0 ? "true" : "false",
+                    " name " + i + " "
+            }));
+            if(rows.size() == BATCH_SIZE){
+                batches.add(rows);
+                rows = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if(!rows.isEmpty()){
+            batches.add(rows);
+        }
+        return batches;
+    }
+
+    private static void measure(String name, int rowCount, List<List<Row>> batches, RowBatch batch,
+                                Converter converter) {
+        long checksum = 0;
+        for(int i = 0; i < WARMUP_ROUNDS; ++i){
+            checksum += run(batches, batch, converter);
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < ROUNDS; ++i){
+            checksum += run(batches, batch, converter);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-28s %8.2f M rows/s (checksum %d)%n",
+                name, (double) rowCount * ROUNDS / seconds / 1e6, checksum);
+    }
+
+    private static long run(List<List<Row>> batches, RowBatch batch, Converter converter) {
+        long checksum = 0;
+        for(List<Row> rows : batches){
+            checksum += converter.convert(rows, batch);
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,61 @@
+package app.benchmark;
+
+import app.imports.converter.CharParsers;
+
+import java.util.Random;
+
+/**
+ * Замер скорости разбора дробных чисел: {@link Double#parseDouble(String)} и {@link Float#parseFloat(String)}
+ * против {@link CharParsers#parseDouble(CharSequence, int, int)} и {@link CharParsers#parseFloat(CharSequence, int, int)}.
+ * Значения - короткие десятичные записи, как в выгрузках, и кратчайшие записи случайных чисел.
+ * Запуск: {@code java -cp target/classes:target/test-classes app.benchmark.DoubleParseBenchmark [values]}.
+ */
+public class DoubleParseBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    private interface Parser {
+        double parse(String value);
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(1);
+        String[] prices = new String[count];
+        String[] randoms = new String[count];
+        for(int i = 0; i < count; ++i){
+            prices[i] = String.valueOf(random.nextInt(10_000_000) / 100.0);
+            randoms[i] = String.valueOf(Double.longBitsToDouble(random.nextLong() & 0x7FEF_FFFF_FFFF_FFFFL));
+        }
+
+        measure("JDK double, prices", prices, value -> Double.parseDouble(value.trim()));
+        measure("fast double, prices", prices, value -> CharParsers.parseDouble(value, 0, value.length()));
+        measure("JDK double, random", randoms, value -> Double.parseDouble(value.trim()));
+        measure("fast double, random", randoms, value -> CharParsers.parseDouble(value, 0, value.length()));
+        measure("JDK float, prices", prices, value -> Float.parseFloat(value.trim()));
+        measure("fast float, prices", prices, value -> CharParsers.parseFloat(value, 0, value.length()));
+    }
+
+    private static void measure(String name, String[] values, Parser parser) {
+        double checksum = 0;
+        for(int i = 0; i < WARMUP_ROUNDS; ++i){
+            checksum += run(values, parser);
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < ROUNDS; ++i){
+            checksum += run(values, parser);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-22s %8.2f M values/s (checksum %s)%n",
+                name, (double) values.length * ROUNDS / seconds / 1e6, checksum);
+    }
+
+    private static double run(String[] values, Parser parser) {
+        double checksum = 0;
+        for(String value : values){
+            checksum += parser.parse(value);
+        }
+        return checksum;
+    }
+}
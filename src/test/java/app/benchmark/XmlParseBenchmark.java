@@ -0,0 +1,91 @@
+package app.benchmark;
+
+import app.xml.XmlCharLexer;
+import app.xml.XmlDecodingReader;
+import app.xml.XmlElementParserImpl;
+import app.xml.XmlEventReader;
+import app.xml.XmlEventReaderImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Замер скорости декодирования и разбора xml-файла: {@link InputStreamReader} против {@link XmlDecodingReader}.
+ * Файл генерируется в памяти и состоит в основном из ASCII-символов (разметка и числа).
+ * Запуск: {@code java -cp target/classes:target/test-classes app.benchmark.XmlParseBenchmark [size_mb]}.
+ */
+public class XmlParseBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    private interface ReaderFactory {
+        Reader create(byte[] data);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        byte[] data = generate(sizeMb * 1024 * 1024);
+        System.out.printf("Xml size = %.1f MB%n", data.length / 1024.0 / 1024);
+
+        ReaderFactory jdk = bytes -> new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        ReaderFactory fast = bytes -> new XmlDecodingReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+
+        measure("decode, InputStreamReader", data, jdk, false);
+        measure("decode, XmlDecodingReader", data, fast, false);
+        measure("parse, InputStreamReader", data, jdk, true);
+        measure("parse, XmlDecodingReader", data, fast, true);
+    }
+
+    private static byte[] generate(int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 1024);
+        out.writeBytes("<table name=\"bench\" columns=\"id;price;name\" unique=\"id\">\n".getBytes(StandardCharsets.UTF_8));
+        for(int i = 0; out.size() < size; ++i){
+            String row = "  <row><id>" + i + "</id><price>" + (i * 31 % 100000) / 100.0
+                    + "</price><name>" + (i % 10 == 0 ? "Имя " : "name ") + i + "</name></row>\n";
+            out.writeBytes(row.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeBytes("</table>\n".getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static void measure(String name, byte[] data, ReaderFactory factory, boolean parse) throws Exception {
+        long checksum = 0;
+        for(int i = 0; i < WARMUP_ROUNDS; ++i){
+            checksum += run(data, factory, parse);
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < ROUNDS; ++i){
+            checksum += run(data, factory, parse);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = (double) data.length * ROUNDS / 1024 / 1024;
+        System.out.printf("%-28s %8.1f MB/s (checksum %d)%n", name, megabytes / seconds, checksum);
+    }
+
+    private static long run(byte[] data, ReaderFactory factory, boolean parse) throws Exception {
+        long count = 0;
+        if(!parse){
+            try(Reader reader = factory.create(data)){
+                char[] chars = new char[1 << 16];
+                int read;
+                while((read = reader.read(chars)) >= 0){
+                    count += read;
+                }
+            }
+            return count;
+        }
+        try(XmlEventReader events = new XmlEventReaderImpl(
+                new XmlCharLexer(factory.create(data)), new XmlElementParserImpl())){
+            while(events.hasNext()){
+                if(events.next() != XmlEventReader.Event.TEXT){
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,24 @@
+package app.imports;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestBatchProgress {
+
+    @Test
+    public void testOutOfOrderCompletion() {
+        BatchProgress progress = new BatchProgress(250);
+        Assertions.assertFalse(progress.complete(2, 100));
+        Assertions.assertFalse(progress.complete(1, 100));
+        Assertions.assertEquals(0, progress.getCompletedRows());
+
+        Assertions.assertTrue(progress.complete(0, 100));
+        Assertions.assertEquals(3, progress.getCompletedBatches());
+        Assertions.assertEquals(300, progress.getCompletedRows());
+
+        Assertions.assertFalse(progress.complete(4, 100));
+        Assertions.assertTrue(progress.complete(3, 250));
+        Assertions.assertEquals(5, progress.getCompletedBatches());
+        Assertions.assertEquals(650, progress.getCompletedRows());
+    }
+}
@@ -0,0 +1,73 @@
+package app.imports;
+
+import app.table.Column;
+import app.table.DataType;
+import app.table.Row;
+import app.table.RowBatch;
+import app.table.RowSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TestConversionPlan {
+
+    @Test
+    public void testConvertRows() {
+        RowSchema schema = new RowSchema(List.of(
+                new Column("id", DataType.INTEGER),
+                new Column("price", DataType.DOUBLE),
+                new Column("name", DataType.STRING),
+                new Column("active", DataType.BOOLEAN)
+        ));
+        ConversionPlan plan = ConversionPlan.compile(schema);
+        RowBatch batch = new RowBatch(schema, 3);
+        ConversionErrors errors = new ConversionErrors(schema);
+        plan.convertRows(List.of(
+                new Row(schema, new Object[]{" 1 ", "2.5", " a ", "True"}),
+                new Row(schema, new Object[]{"x", "2.5", "b", "false"}),
+                new Row(schema, new Object[]{"NULL", "null", null, " false "})
+        ), batch, errors);
+
+        Assertions.assertEquals(2, batch.size());
+        Assertions.assertEquals(1, errors.getTotalCount());
+        Assertions.assertEquals(1, errors.getCount(0));
+        Assertions.assertEquals(List.of("x"), errors.getSamples(0));
+        Assertions.assertEquals(new Row(schema, new Object[]{1, 2.5, "a", true}), batch.getRow(0));
+        Assertions.assertEquals(new Row(schema, new Object[]{null, null, null, false}), batch.getRow(1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ConversionPlan.compile(new RowSchema(List.of(new Column("untyped")))));
+    }
+
+    @Test
+    public void testErrors() {
+        RowSchema schema = new RowSchema(List.of(
+                new Column("id", DataType.LONG),
+                new Column("ratio", DataType.FLOAT),
+                new Column("active", DataType.BOOLEAN)
+        ));
+        ConversionPlan plan = ConversionPlan.compile(schema);
+        RowBatch batch = new RowBatch(schema, 1);
+        Assertions.assertEquals(ConversionPlan.CONVERTED,
+                plan.convertRow(new Row(schema, new Object[]{"-9223372036854775808", "1e-3", "TRUE"}), batch, 0));
+        Assertions.assertEquals(Long.MIN_VALUE, batch.getLong(0, 0));
+        Assertions.assertEquals(1,
+                plan.convertRow(new Row(schema, new Object[]{"1", "1,5", "yes"}), batch, 0));
+        Assertions.assertEquals(2,
+                plan.convertRow(new Row(schema, new Object[]{"1", "1.5", "yes"}), batch, 0));
+
+        ConversionErrors errors = new ConversionErrors(schema, 2);
+        for(int i = 0; i < 4; ++i){
+            errors.record(0, "[9223372036854775808" + i + "]", 1, 21);
+        }
+        errors.record(2, "yes", 0, 3);
+        Assertions.assertEquals(4, errors.getCount(0));
+        Assertions.assertEquals(0, errors.getCount(1));
+        Assertions.assertEquals(5, errors.getTotalCount());
+        Assertions.assertEquals(List.of("92233720368547758080", "92233720368547758081"), errors.getSamples(0));
+        Assertions.assertEquals(List.of(
+                "Column 'id' of type LONG: 4 values cannot be converted, e.g. '92233720368547758080', '92233720368547758081'.",
+                "Column 'active' of type BOOLEAN: 1 values cannot be converted, e.g. 'yes'."
+        ), errors.report());
+    }
+}
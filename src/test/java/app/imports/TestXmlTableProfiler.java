@@ -0,0 +1,112 @@
+package app.imports;
+
+import app.table.DataType;
+import app.xml.XmlElementParser;
+import app.xml.XmlElementParserImpl;
+import app.xml.XmlEventReaderImpl;
+import app.xml.XmlTableReaderFactory;
+import app.xml.XmlTableReaderImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class TestXmlTableProfiler {
+
+    private final XmlElementParser elementParser = new XmlElementParserImpl();
+    private final XmlTableProfiler profiler = new XmlTableProfiler(Map.of("id", DataType.INTEGER));
+
+    @TempDir
+    Path tempDir;
+
+    private File createFile(String xml) throws IOException {
+        Path file = tempDir.resolve("table.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private File createTable(int rowCount) throws IOException {
+        StringBuilder xml = new StringBuilder("<table name=\"users\" columns=\"id;name\">\n");
+        for(int i = 0; i < rowCount; ++i){
+            if(i % 10 == 0){
+                // нет столбца name
+                xml.append("  <row><id>").append(i).append("</id></row>\n");
+            } else if(i % 10 == 1){
+                xml.append("  <row><id>x").append(i).append("</id><name>name</name></row>\n");
+            } else {
+                xml.append("  <row><id>").append(i).append("</id><name>Имя &amp; ").append(i % 1000)
+                        .append("</name></row>\n");
+            }
+        }
+        xml.append("</table>\n");
+        return createFile(xml.toString());
+    }
+
+    private XmlTableProfile profileSequentially(File file) throws Exception {
+        try(XmlTableReaderImpl reader = new XmlTableReaderImpl(new XmlEventReaderImpl(file, elementParser))){
+            return profiler.profile(reader, file.length());
+        }
+    }
+
+    @Test
+    public void testProfile() throws Exception {
+        File file = createTable(1000);
+        XmlTableProfile expected = profileSequentially(file);
+        Assertions.assertTrue(expected.isValid(), expected.getError());
+        Assertions.assertEquals(1000, expected.getRows());
+        Assertions.assertEquals(100, expected.getMismatchedRows());
+        Assertions.assertEquals(100, expected.getUnconvertibleRows());
+        Assertions.assertEquals(Map.of("id", 4, "name", "Имя & 999".length()), expected.getMaxValueLengthsByColumn());
+        Assertions.assertEquals(List.of("id", "name"), expected.getColumns());
+        Assertions.assertEquals(file.length(), expected.getBytes());
+
+        for(int threads : List.of(1, 3, 8)){
+            XmlTableProfile actual = profiler.profile(new XmlTableReaderFactory(file, elementParser, 4096),
+                    file.length(), threads);
+            Assertions.assertTrue(actual.isValid(), actual.getError());
+            Assertions.assertEquals(expected.getRows(), actual.getRows());
+            Assertions.assertEquals(expected.getMismatchedRows(), actual.getMismatchedRows());
+            Assertions.assertEquals(expected.getUnconvertibleRows(), actual.getUnconvertibleRows());
+            Assertions.assertEquals(expected.getMaxValueLengthsByColumn(), actual.getMaxValueLengthsByColumn());
+        }
+    }
+
+    @Test
+    public void testTruncatedFile() throws Exception {
+        File file = createTable(1000);
+        String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        file = createFile(content.substring(0, content.lastIndexOf("</table>")));
+        XmlTableProfile sequential = profileSequentially(file);
+        Assertions.assertFalse(sequential.isValid());
+        Assertions.assertEquals(1000, sequential.getRows());
+
+        for(int threads : List.of(1, 4)){
+            XmlTableProfile parallel = profiler.profile(new XmlTableReaderFactory(file, elementParser, 4096),
+                    file.length(), threads);
+            Assertions.assertFalse(parallel.isValid(), "Threads = " + threads);
+            Assertions.assertEquals(sequential.getError(), parallel.getError());
+            Assertions.assertEquals(1000, parallel.getRows());
+        }
+    }
+
+    @Test
+    public void testNotValidFile() throws Exception {
+        File file = createFile("<table name=\"users\" columns=\"id\">\n<row><id>1</id></row>\n<row><id>2</row>\n</table>");
+        XmlTableProfile sequential = profileSequentially(file);
+        Assertions.assertFalse(sequential.isValid());
+        Assertions.assertEquals(1, sequential.getRows());
+        XmlTableProfile parallel = profiler.profile(new XmlTableReaderFactory(file, elementParser), file.length(), 2);
+        Assertions.assertFalse(parallel.isValid());
+        Assertions.assertEquals(sequential.getError(), parallel.getError());
+
+        file = createFile("<table name=\"users\">\n<row><id>1</id></row>\n</table>");
+        Assertions.assertEquals("Column for insert is not defined.", profileSequentially(file).getError());
+    }
+}
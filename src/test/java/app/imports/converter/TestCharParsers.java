@@ -0,0 +1,101 @@
+package app.imports.converter;
+
+import app.table.Column;
+import app.table.DataType;
+import app.table.RowBatch;
+import app.table.RowSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TestCharParsers {
+
+    @Test
+    public void testParseSlices() {
+        String chars = "[ -42 |NuLl| 9223372036854775807|\ttrue |2147483648| x ]";
+        Assertions.assertEquals(-42, CharParsers.parseInt(chars, 1, 6));
+        Assertions.assertTrue(CharParsers.isNullToken(chars, 7, 11));
+        Assertions.assertFalse(CharParsers.isNullToken(chars, 6, 11));
+        Assertions.assertEquals(Long.MAX_VALUE, CharParsers.parseLong(chars, 12, 32));
+        Assertions.assertTrue(CharParsers.parseBoolean(chars, 33, 39));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CharParsers.parseInt(chars, 40, 50));
+        Assertions.assertEquals(2147483648L, CharParsers.parseLong(chars, 40, 50));
+        Assertions.assertEquals("x", CharParsers.parseString(chars, 51, 54));
+        Assertions.assertEquals("", CharParsers.parseString(chars, 1, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CharParsers.parseInt(chars, 1, 2));
+        Assertions.assertThrows(ClassCastException.class, () -> CharParsers.parseBoolean(chars, 51, 54));
+        Assertions.assertEquals(-4.0, CharParsers.parseDouble(chars, 1, 4));
+    }
+
+    @Test
+    public void testEveryTypeHasPrimitiveConverter() {
+        String[] values = {" 7 ", "0.5", "0.25", "8", " s ", "FALSE", "2021-03-04T05:06:07.5", " 2021-03-04 ",
+                "-12.50", "123E4567-e89b-12d3-a456-426614174000", " {\"a\": [1, 2]} "};
+        DataType[] types = DataType.values();
+        Column[] columns = new Column[types.length];
+        for(int i = 0; i < types.length; ++i){
+            columns[i] = new Column("c" + i, types[i]);
+        }
+        RowBatch batch = new RowBatch(new RowSchema(List.of(columns)), 2);
+        int row = batch.addRow();
+        int nullRow = batch.addRow();
+        for(int i = 0; i < types.length; ++i){
+            PrimitiveConverter converter = ConverterFactory.getFactory().getPrimitiveConverter(types[i]);
+            Assertions.assertEquals(types[i], converter.getType());
+            converter.convertInto(values[i], 0, values[i].length(), batch, i, row);
+            Assertions.assertEquals(
+                    ConverterFactory.getFactory().getRightConverter(types[i]).convert(values[i]),
+                    batch.getObject(i, row)
+            );
+            converter.convertInto("-null-", 1, 5, batch, i, nullRow);
+            Assertions.assertTrue(batch.isNull(i, nullRow));
+        }
+    }
+
+    @Test
+    public void testParseInto() {
+        RowBatch batch = new RowBatch(new RowSchema(List.of(
+                new Column("i", DataType.INTEGER),
+                new Column("l", DataType.LONG),
+                new Column("d", DataType.DOUBLE),
+                new Column("f", DataType.FLOAT),
+                new Column("b", DataType.BOOLEAN)
+        )), 1);
+        int row = batch.addRow();
+        String[] ints = {"0", " +7 ", "-2147483648", "2147483647", "007"};
+        for(String value : ints){
+            Assertions.assertTrue(CharParsers.parseIntInto(value, 0, value.length(), batch, 0, row), value);
+            Assertions.assertEquals(Integer.parseInt(value.trim()), batch.getInt(0, row));
+            Assertions.assertTrue(CharParsers.parseLongInto(value, 0, value.length(), batch, 1, row), value);
+            Assertions.assertEquals(Long.parseLong(value.trim()), batch.getLong(1, row));
+        }
+        String[] badInts = {"", " ", "-", "+", "2147483648", "-2147483649", "1.0", "1 2", "0x1", "--1", "\u0661\u0662"};
+        for(String value : badInts){
+            Assertions.assertFalse(CharParsers.parseIntInto(value, 0, value.length(), batch, 0, row), value);
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> CharParsers.parseInt(value, 0, value.length()), value);
+        }
+        Assertions.assertFalse(CharParsers.parseLongInto("\u0661\u0662", 0, 2, batch, 1, row));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CharParsers.parseLong("\u0661\u0662", 0, 2));
+        Assertions.assertFalse(new ToIntegerConverter().convertInto("\u0661\u0662", 0, 2, batch, 0, row));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ToIntegerConverter().convert("\u0661\u0662"));
+        Assertions.assertFalse(new ToLongConverter().convertInto("\u0661\u0662", 0, 2, batch, 1, row));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ToLongConverter().convert("\u0661\u0662"));
+        Assertions.assertTrue(CharParsers.parseLongInto("9223372036854775807", 0, 19, batch, 1, row));
+        Assertions.assertEquals(Long.MAX_VALUE, batch.getLong(1, row));
+        Assertions.assertFalse(CharParsers.parseLongInto("9223372036854775808", 0, 19, batch, 1, row));
+        Assertions.assertFalse(CharParsers.parseLongInto("-9223372036854775809", 0, 20, batch, 1, row));
+
+        Assertions.assertTrue(CharParsers.parseDoubleInto("x-2.5ex", 1, 5, batch, 2, row));
+        Assertions.assertEquals(-2.5, batch.getDouble(2, row));
+        Assertions.assertFalse(CharParsers.parseDoubleInto("x-2.5ex", 1, 6, batch, 2, row));
+        Assertions.assertEquals(-2.5, batch.getDouble(2, row));
+        Assertions.assertTrue(CharParsers.parseFloatInto("NaN", 0, 3, batch, 3, row));
+        Assertions.assertTrue(Float.isNaN(batch.getFloat(3, row)));
+        Assertions.assertFalse(CharParsers.parseFloatInto("Nope", 0, 4, batch, 3, row));
+        Assertions.assertTrue(CharParsers.parseBooleanInto(" False ", 0, 7, batch, 4, row));
+        Assertions.assertFalse(batch.getBoolean(4, row));
+        Assertions.assertFalse(CharParsers.parseBooleanInto("yes", 0, 3, batch, 4, row));
+    }
+}
@@ -0,0 +1,123 @@
+package app.imports.converter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+public class TestFastDoubleParser {
+
+    private static final int ITERATIONS = 100_000;
+
+    private static final List<String> HARD_DOUBLES = List.of(
+            "0", "-0", "+0.0", "0e999", "1", "-1.5", ".5", "5.", "1e0", "1E+2", "1e-2", " 3.25 ",
+            "9007199254740992", "9007199254740993", "9007199254740995", "18014398509481985",
+            "2.2250738585072011e-308", "2.2250738585072012e-308", "2.2250738585072014e-308",
+            "4.9e-324", "2.4703282292062327e-324", "2.4703282292062328e-324", "1e-400",
+            "1.7976931348623157e308", "1.7976931348623158e308", "1.7976931348623159e308", "1e400",
+            "0.1", "0.3", "123456789012345678", "1234567890123456789", "12345678901234567890",
+            "7.2057594037927933e16", "8.98846567431158e307", "1.00000000000000011102230246251565404236316680908203125",
+            "NaN", "-Infinity", "0x1p3", "1d", "2.5F", "0.000000000000000000000000000001"
+    );
+
+    private static final List<String> HARD_FLOATS = List.of(
+            "0", "-0", "1", "0.1", "16777216", "16777217", "16777219", "33554435",
+            "3.4028235e38", "3.4028236e38", "3.40282357e38", "1e39",
+            "1.4e-45", "7.006492e-46", "7.006493e-46", "1.17549435e-38", "1e-46",
+            "1.00000017881393432617187499", "8388608.5", "8388609.5", "NaN", "1f"
+    );
+
+    private static final List<String> INVALID = List.of(
+            "", "  ", "-", "+", ".", "e5", "1e", "1e+", "1.2.3", "1 2", "--1", "abc", "1e5x", "1dd", "1e5fd", "1.5e-x"
+    );
+
+    @Test
+    public void testHardCases() {
+        for(String value : HARD_DOUBLES){
+            assertSameDouble(value);
+        }
+        for(String value : HARD_FLOATS){
+            assertSameFloat(value);
+        }
+        for(String value : INVALID){
+            Assertions.assertThrows(NumberFormatException.class,
+                    () -> FastDoubleParser.parseDouble(value, 0, value.length()), value);
+            Assertions.assertThrows(NumberFormatException.class,
+                    () -> FastDoubleParser.parseFloat(value, 0, value.length()), value);
+            Assertions.assertEquals(FastDoubleParser.INVALID, FastDoubleParser.doubleBits(value, 0, value.length()), value);
+            Assertions.assertEquals(FastDoubleParser.INVALID, FastDoubleParser.floatBits(value, 0, value.length()), value);
+        }
+        Assertions.assertEquals(FastDoubleParser.INVALID, FastDoubleParser.doubleBits("NaNa", 0, 4));
+        Assertions.assertEquals(FastDoubleParser.INVALID, FastDoubleParser.doubleBits("0x", 0, 2));
+        Assertions.assertEquals(FastDoubleParser.INVALID, FastDoubleParser.floatBits("12345678901234567890x", 0, 21));
+    }
+
+    @Test
+    public void testRandomDoubles() {
+        Random random = new Random(42);
+        for(int i = 0; i < ITERATIONS; ++i){
+            double value = Double.longBitsToDouble(random.nextLong());
+            if(!Double.isNaN(value)){
+                assertSameDouble(Double.toString(value));
+            }
+            assertSameDouble(randomDecimal(random, -360, 330));
+        }
+    }
+
+    @Test
+    public void testRandomFloats() {
+        Random random = new Random(43);
+        for(int i = 0; i < ITERATIONS; ++i){
+            float value = Float.intBitsToFloat(random.nextInt());
+            if(!Float.isNaN(value)){
+                assertSameFloat(Float.toString(value));
+            }
+            assertSameFloat(randomDecimal(random, -70, 45));
+        }
+    }
+
+    @Test
+    public void testSlice() {
+        String chars = "x-12.5e1|";
+        Assertions.assertEquals(-125.0, FastDoubleParser.parseDouble(chars, 1, 8));
+        Assertions.assertEquals(-125.0f, FastDoubleParser.parseFloat(new StringBuilder(chars), 1, 8));
+    }
+
+    /**
+     * Случайное десятичное число: до 20 цифр, точка в случайном месте и случайный порядок.
+     */
+    private static String randomDecimal(Random random, int minExponent, int maxExponent) {
+        StringBuilder result = new StringBuilder();
+        if(random.nextBoolean()){
+            result.append(random.nextBoolean() ? '-' : '+');
+        }
+        int digits = 1 + random.nextInt(20);
+        int point = random.nextInt(digits + 1);
+        for(int i = 0; i < digits; ++i){
+            if(i == point){
+                result.append('.');
+            }
+            result.append((char) ('0' + random.nextInt(10)));
+        }
+        if(random.nextInt(4) != 0){
+            result.append(random.nextBoolean() ? 'e' : 'E')
+                    .append(minExponent + random.nextInt(maxExponent - minExponent + 1));
+        }
+        return result.toString();
+    }
+
+    private static void assertSameDouble(String value) {
+        long expected = Double.doubleToRawLongBits(Double.parseDouble(value));
+        Assertions.assertEquals(expected,
+                Double.doubleToRawLongBits(FastDoubleParser.parseDouble(value, 0, value.length())), value);
+        Assertions.assertEquals(expected, FastDoubleParser.doubleBits(value, 0, value.length()), value);
+    }
+
+    private static void assertSameFloat(String value) {
+        int expected = Float.floatToRawIntBits(Float.parseFloat(value));
+        Assertions.assertEquals(expected,
+                Float.floatToRawIntBits(FastDoubleParser.parseFloat(value, 0, value.length())), value);
+        Assertions.assertEquals(expected & 0xFFFF_FFFFL, FastDoubleParser.floatBits(value, 0, value.length()), value);
+    }
+}
@@ -0,0 +1,89 @@
+package app.imports.converter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class TestTypedParsers {
+
+    @Test
+    public void testDateTime() {
+        Assertions.assertEquals(LocalDate.of(2020, 2, 29), IsoDateTimeParser.parseDate(" 2020-02-29 ", 0, 12));
+        Assertions.assertEquals(LocalDateTime.of(2021, 12, 31, 23, 59, 58, 120_000_000),
+                IsoDateTimeParser.parseDateTime("2021-12-31T23:59:58.12", 0, 22));
+        Assertions.assertEquals(LocalDateTime.of(2021, 1, 2, 3, 4),
+                IsoDateTimeParser.parseDateTime("[2021-01-02 03:04]", 1, 17));
+        Assertions.assertEquals(LocalDateTime.of(2021, 1, 2, 0, 0),
+                IsoDateTimeParser.parseDateTime("2021-01-02", 0, 10));
+        Assertions.assertEquals(LocalDateTime.of(2021, 1, 2, 3, 4, 5, 123_456_789),
+                IsoDateTimeParser.parseDateTime("2021-01-02 03:04:05.123456789", 0, 29));
+        Assertions.assertEquals(LocalDateTime.of(2021, 1, 1, 0, 0),
+                IsoDateTimeParser.parseDateTime("2020-12-31T24:00", 0, 16));
+        Assertions.assertEquals(LocalDateTime.of(2021, 3, 1, 0, 0),
+                IsoDateTimeParser.parseDateTime("2021-02-28 24:00:00.000", 0, 23));
+        Assertions.assertEquals(LocalDate.of(1, 1, 1), IsoDateTimeParser.parseDate("0001-01-01", 0, 10));
+
+        List<String> invalidDates = List.of("", "2021-1-02", "2021/01/02", "2021-13-01", "2021-02-29", "2021-04-31",
+                "2021-00-10", "2021-01-00", "20x1-01-02", "2021-01-02T", "0000-01-01");
+        for(String value : invalidDates){
+            Assertions.assertNull(IsoDateTimeParser.parseDate(value, 0, value.length()), value);
+        }
+        List<String> invalidDateTimes = List.of("2021-01-02T", "2021-01-02T3:04", "2021-01-02T24:01",
+                "2021-01-02T24:00:01", "2021-01-02T24:00:00.5", "2021-01-02T25:00", "0000-01-01T00:00",
+                "2021-01-02T23:60", "2021-01-02T23:59:60", "2021-01-02T23:59:5", "2021-01-02T23:59:59.",
+                "2021-01-02T23:59:59.1234567890", "2021-01-02T23:59:59Z", "2021-01-02x23:59", "2021-01-02T23-59");
+        for(String value : invalidDateTimes){
+            Assertions.assertNull(IsoDateTimeParser.parseDateTime(value, 0, value.length()), value);
+        }
+    }
+
+    @Test
+    public void testDecimal() {
+        List<String> values = List.of("0", "-0.00", "1.50", "+.5", "5.", "007", "0.000123", "-1e3", "1.5E-7",
+                "123456789012345678", "1234567890123456789", "99999999999999999999.99", "-0.0000000000000000000001",
+                "1e+100", "1e-100", "1e1000000", "-1.5e-1000000");
+        for(String value : values){
+            Assertions.assertEquals(new BigDecimal(value), DecimalParser.parse(value, 0, value.length()), value);
+        }
+        Assertions.assertEquals(new BigDecimal("12.5"), DecimalParser.parse("x 12.5 x", 1, 7));
+
+        List<String> invalid = List.of("", " ", "-", ".", "1.2.3", "1e", "1e+", "e5", "1,5", "NaN", "1 2", "1e5x",
+                "1e99999999", "1e9999999", "1e1000001", "1e-1000001");
+        for(String value : invalid){
+            Assertions.assertNull(DecimalParser.parse(value, 0, value.length()), value);
+        }
+    }
+
+    @Test
+    public void testUuid() {
+        UUID expected = UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+        List<String> values = List.of("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11", "A0EEBC99-9C0B-4EF8-BB6D-6BB9BD380A11",
+                "{a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11}", "a0eebc999c0b4ef8bb6d6bb9bd380a11",
+                "a0ee-bc99-9c0b-4ef8-bb6d-6bb9-bd38-0a11", " {a0eebc99-9c0b4ef8-bb6d6bb9-bd380a11} ");
+        for(String value : values){
+            Assertions.assertEquals(expected, UuidParser.parse(value, 0, value.length()), value);
+        }
+        List<String> invalid = List.of("", "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a1", "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a111",
+                "-a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11", "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11-",
+                "a0eebc99--9c0b-4ef8-bb6d-6bb9bd380a11", "a0eebc9-99c0b-4ef8-bb6d-6bb9bd380a11",
+                "{a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11", "g0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+        for(String value : invalid){
+            Assertions.assertNull(UuidParser.parse(value, 0, value.length()), value);
+        }
+    }
+
+    @Test
+    public void testConverterErrors() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ToDateConverter().convert("2021-02-30"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ToTimestampConverter().convert("yesterday"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ToNumericConverter().convert("1,5"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ToUuidConverter().convert("42"));
+        Assertions.assertNull(new ToUuidConverter().convert("NULL"));
+        Assertions.assertEquals("{}", new ToJsonConverter().convert(" {} "));
+    }
+}
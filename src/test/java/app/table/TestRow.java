@@ -49,6 +49,27 @@ public class TestRow {
         Assertions.assertEquals(row, row.projectOnto(moreColumns));
     }
 
+    @Test
+    public void testSchemaRows(){
+        RowSchema schema = new RowSchema(List.of(new Column("first"), new Column("second")));
+        Row row = new Row(schema, new Object[]{10, "asg"});
+        Row mapRow = new Row(Map.of("second", "asg", "first", 10));
+        Assertions.assertEquals(mapRow, row);
+        Assertions.assertEquals(row, mapRow);
+        Assertions.assertEquals(mapRow.hashCode(), row.hashCode());
+        Assertions.assertEquals(Map.of("first", 10, "second", "asg").hashCode(), row.hashCode());
+        Assertions.assertEquals(10, row.get(new Column("first")));
+        Assertions.assertNull(row.get(new Column("third")));
+        Assertions.assertNotEquals(new Row(schema, new Object[]{10, null}), row);
+
+        RowSchema projection = new RowSchema(List.of(new Column("second")));
+        Row secondProjection = row.projectOnto(projection);
+        Assertions.assertSame(projection, secondProjection.getSchema());
+        Assertions.assertEquals(new Row(Map.of("second", "asg")), secondProjection);
+        Assertions.assertEquals(secondProjection, new Row(schema, new Object[]{11, "asg"}).projectOnto(projection));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Row(schema, new Object[]{10}));
+    }
+
     private <T> List<T> createList(List<? extends T> list, T... extraElems){
         List<T> result = new ArrayList<>(list);
         result.addAll(List.of(extraElems));
@@ -0,0 +1,115 @@
+package app.table;
+
+import app.imports.RowBatchPool;
+import app.imports.converter.ConverterFactory;
+import app.imports.converter.PrimitiveConverter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestRowBatch {
+
+    private static final RowSchema schema = new RowSchema(List.of(
+            new Column("id", DataType.INTEGER),
+            new Column("amount", DataType.DOUBLE),
+            new Column("name", DataType.STRING),
+            new Column("active", DataType.BOOLEAN)
+    ));
+
+    @Test
+    public void testValues() {
+        RowBatch batch = new RowBatch(schema, 70);
+        for(int i = 0; i < batch.getCapacity(); ++i){
+            int row = batch.addRow();
+            Assertions.assertEquals(i, row);
+            batch.setInt(0, row, i);
+            if(i % 2 == 0){
+                batch.setDouble(1, row, i / 2.0);
+            }
+            batch.setString(2, row, "n" + i);
+        }
+        Assertions.assertTrue(batch.isFull());
+        Assertions.assertThrows(IllegalStateException.class, batch::addRow);
+
+        Assertions.assertEquals(65, batch.getInt(0, 65));
+        Assertions.assertTrue(batch.isNull(1, 65));
+        Assertions.assertFalse(batch.isNull(1, 64));
+        Assertions.assertEquals(32.0, batch.getDouble(1, 64));
+        Assertions.assertTrue(batch.isNull(3, 64));
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", 64);
+        values.put("amount", 32.0);
+        values.put("name", "n64");
+        values.put("active", null);
+        Assertions.assertEquals(new Row(values), batch.getRow(64));
+
+        batch.discardLastRow();
+        Assertions.assertEquals(69, batch.size());
+        int row = batch.addRow();
+        Assertions.assertTrue(batch.isNull(0, row));
+        Assertions.assertNull(batch.getObject(2, row));
+
+        batch.clear();
+        Assertions.assertTrue(batch.isEmpty());
+        Assertions.assertTrue(batch.isNull(0, batch.addRow()));
+    }
+
+    @Test
+    public void testRowsEqual() {
+        RowBatch batch = new RowBatch(schema, 4);
+        for(int i = 0; i < 4; ++i){
+            int row = batch.addRow();
+            batch.setObject(0, row, i < 2 ? 1 : null);
+            batch.setObject(2, row, i % 2 == 0 ? "a" : "b");
+        }
+        int[] idColumn = {0};
+        int[] idAndName = {0, 2};
+        Assertions.assertTrue(batch.rowsEqual(0, 1, idColumn));
+        Assertions.assertEquals(batch.hashRow(0, idColumn), batch.hashRow(1, idColumn));
+        Assertions.assertTrue(batch.rowsEqual(2, 3, idColumn));
+        Assertions.assertFalse(batch.rowsEqual(1, 2, idColumn));
+        Assertions.assertFalse(batch.rowsEqual(0, 1, idAndName));
+        Assertions.assertFalse(batch.rowsEqual(0, 2, idAndName));
+
+        RowBatch numbers = new RowBatch(new RowSchema(List.of(new Column("amount", DataType.NUMERIC))), 3);
+        int[] amount = {0};
+        numbers.setObject(0, numbers.addRow(), new BigDecimal("1.5"));
+        numbers.setObject(0, numbers.addRow(), new BigDecimal("1.50"));
+        numbers.setObject(0, numbers.addRow(), new BigDecimal("15e-1"));
+        Assertions.assertTrue(numbers.rowsEqual(0, 1, amount));
+        Assertions.assertTrue(numbers.rowsEqual(1, 2, amount));
+        Assertions.assertEquals(numbers.hashRow(0, amount), numbers.hashRow(1, amount));
+        Assertions.assertEquals(numbers.hashRow(0, amount), numbers.hashRow(2, amount));
+    }
+
+    @Test
+    public void testConvertInto() {
+        RowBatchPool pool = new RowBatchPool(schema, 2, 1);
+        RowBatch batch = pool.acquire();
+        int row = batch.addRow();
+        String[] values = {" 12 ", "1.5", " text ", "TRUE"};
+        for(int i = 0; i < values.length; ++i){
+            Assertions.assertTrue(ConverterFactory.getFactory().getPrimitiveConverter(schema.getColumn(i).getType())
+                    .convertInto(values[i], 0, values[i].length(), batch, i, row), values[i]);
+        }
+        Assertions.assertEquals(12, batch.getInt(0, row));
+        Assertions.assertEquals(1.5, batch.getDouble(1, row));
+        Assertions.assertEquals("text", batch.getString(2, row));
+        Assertions.assertTrue(batch.getBoolean(3, row));
+
+        PrimitiveConverter integers = ConverterFactory.getFactory().getPrimitiveConverter(DataType.INTEGER);
+        Assertions.assertTrue(integers.convertInto("null", 0, 4, batch, 0, row));
+        Assertions.assertTrue(batch.isNull(0, row));
+        Assertions.assertFalse(integers.convertInto("1x", 0, 2, batch, 0, row));
+
+        pool.release(batch);
+        RowBatch reused = pool.acquire();
+        Assertions.assertSame(batch, reused);
+        Assertions.assertTrue(reused.isEmpty());
+        Assertions.assertNotSame(reused, pool.acquire());
+    }
+}
@@ -0,0 +1,58 @@
+package app.table;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TestRowSchema {
+
+    private static RowSchema createSchema(List<String> names) {
+        List<Column> columns = new ArrayList<>();
+        names.forEach(name -> columns.add(new Column(name)));
+        return new RowSchema(columns);
+    }
+
+    @Test
+    public void testOrdinals() {
+        for(int size : List.of(0, 1, 2, 5, 64, 65, 300)){
+            List<String> names = new ArrayList<>();
+            for(int i = 0; i < size; ++i){
+                names.add("column_" + i);
+            }
+            RowSchema schema = createSchema(names);
+            long[] mask = schema.newMask();
+            for(int i = 0; i < size; ++i){
+                Assertions.assertEquals(i, schema.ordinalOf(new String(names.get(i))), names.get(i));
+                Assertions.assertFalse(schema.isComplete(mask) && size > 0);
+                RowSchema.setBit(mask, i);
+            }
+            Assertions.assertTrue(schema.isComplete(mask));
+            Assertions.assertEquals(-1, schema.ordinalOf("column_" + size));
+            Assertions.assertEquals(-1, schema.ordinalOf(""));
+        }
+    }
+
+    @Test
+    public void testEqualHashCodes() {
+        // у "Aa" и "BB" одинаковый hashCode, поэтому множитель без коллизий не существует
+        RowSchema schema = createSchema(List.of("Aa", "BB", "id"));
+        Assertions.assertEquals(0, schema.ordinalOf("Aa"));
+        Assertions.assertEquals(1, schema.ordinalOf("BB"));
+        Assertions.assertEquals(2, schema.ordinalOf("id"));
+        Assertions.assertEquals(-1, schema.ordinalOf("C#"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> createSchema(List.of("id", "id")));
+    }
+
+    @Test
+    public void testBind() {
+        RowSchema schema = createSchema(List.of("id", "name"));
+        Row row = new Row(Map.of("name", "n", "id", 1));
+        Assertions.assertEquals(row, row.bind(schema));
+        Assertions.assertNull(new Row(Map.of("id", 1)).bind(schema));
+        Assertions.assertNull(new Row(Map.of("id", 1, "other", 2)).bind(schema));
+        Assertions.assertEquals(row, Row.of(schema, new Object[]{1, "n"}));
+    }
+}
@@ -0,0 +1,69 @@
+package app.xml;
+
+import app.xml.exception.XmlElementParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TestCachingXmlElementParser {
+
+    @Test
+    public void testRepeatedTagIsTakenFromCache() throws XmlElementParseException {
+        CachingXmlElementParser parser = new CachingXmlElementParser(new XmlElementParserImpl());
+        char[] chars = "<row id=\"1\"><row id=\"1\">".toCharArray();
+        CharSlice slice = new CharSlice(chars, 1, 10);
+
+        Element first = parser.parseElement(slice, 0, slice.length());
+        slice.set(chars, 13, 10);
+        Element second = parser.parseElement(slice, 0, slice.length());
+
+        Assertions.assertSame(first, second);
+        Assertions.assertSame("row", first.getName());
+        Assertions.assertEquals(List.of(new Attribute("id", "1")), first.getAttributes());
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> first.getAttributes().add(new Attribute("name", "value")));
+        Assertions.assertEquals(1, parser.getHitCount());
+        Assertions.assertEquals(1, parser.getMissCount());
+        Assertions.assertEquals(0.5, parser.getHitRate());
+    }
+
+    @Test
+    public void testDifferentTags() throws XmlElementParseException {
+        CachingXmlElementParser parser = new CachingXmlElementParser(new XmlElementParserImpl());
+        for(int i = 0; i < 100; ++i){
+            Element element = parser.parseElement("col" + i);
+            Assertions.assertEquals("col" + i, element.getName());
+            Assertions.assertEquals(ElementType.OPEN, element.getType());
+            Element close = parser.parseElement("/col" + i);
+            Assertions.assertTrue(close.isClose());
+        }
+        for(int i = 0; i < 100; ++i){
+            Assertions.assertEquals("col" + i, parser.parseElement("col" + i).getName());
+        }
+        Assertions.assertEquals(200, parser.size());
+        Assertions.assertEquals(100, parser.getHitCount());
+        Assertions.assertEquals(200, parser.getMissCount());
+    }
+
+    @Test
+    public void testBoundedCapacity() throws XmlElementParseException {
+        CachingXmlElementParser parser = new CachingXmlElementParser(new XmlElementParserImpl(), 2);
+        parser.parseElement("a");
+        parser.parseElement("b");
+        parser.parseElement("c");
+        parser.parseElement("c");
+        Assertions.assertEquals(2, parser.size());
+        Assertions.assertEquals(0, parser.getHitCount());
+        parser.parseElement("a");
+        Assertions.assertEquals(1, parser.getHitCount());
+    }
+
+    @Test
+    public void testInvalidTagIsNotCached() {
+        CachingXmlElementParser parser = new CachingXmlElementParser(new XmlElementParserImpl());
+        Assertions.assertThrows(XmlElementParseException.class, () -> parser.parseElement("3row"));
+        Assertions.assertThrows(XmlElementParseException.class, () -> parser.parseElement("3row"));
+        Assertions.assertEquals(0, parser.size());
+    }
+}
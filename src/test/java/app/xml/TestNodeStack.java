@@ -0,0 +1,55 @@
+package app.xml;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class TestNodeStack {
+
+    @Test
+    public void testPushPop() {
+        NodeStack stack = new NodeStack(1);
+        List<Node> view = stack.asList();
+        Assertions.assertTrue(stack.isEmpty());
+        Assertions.assertNull(stack.peek());
+
+        Node root = new Node(null, new Element("root", List.of(), ElementType.OPEN), Node.NodeStatus.OPENED);
+        Node child = new Node(root, new Element("child", List.of(), ElementType.OPEN), Node.NodeStatus.OPENED);
+        stack.push(root);
+        stack.push(child);
+        Assertions.assertEquals(2, stack.depth());
+        Assertions.assertSame(child, stack.peek());
+        Assertions.assertSame(root, stack.get(0));
+        Assertions.assertEquals(List.of(root, child), view);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> view.add(root));
+
+        Assertions.assertSame(child, stack.pop());
+        Assertions.assertSame(root, stack.pop());
+        Assertions.assertTrue(view.isEmpty());
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, stack::pop);
+    }
+
+    @Test
+    public void testParserOpenNodes(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("tree.xml");
+        Files.writeString(file, "<a><b><c></c></b><d></d></a>", StandardCharsets.UTF_8);
+        try(XmlLazyParser parser = new XmlLazyParser(file.toFile(), new XmlElementParserImpl())){
+            List<Node> openNodes = parser.getOpenNodes();
+            Assertions.assertEquals(1, openNodes.size());
+            parser.getNextNode();
+            Assertions.assertEquals(2, openNodes.size());
+            parser.getNextNode();
+            Node c = parser.getNextNode();
+            Assertions.assertEquals("c", c.getName());
+            Assertions.assertEquals("d", openNodes.get(openNodes.size() - 1).getName());
+            Assertions.assertEquals(Node.NodeStatus.CLOSED, c.getStatus());
+        }
+    }
+}
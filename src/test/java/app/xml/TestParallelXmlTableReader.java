@@ -0,0 +1,120 @@
+package app.xml;
+
+import app.table.Row;
+import app.xml.exception.XmlElementParseException;
+import app.xml.exception.XmlParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class TestParallelXmlTableReader {
+
+    private final XmlElementParser elementParser = new XmlElementParserImpl();
+
+    @TempDir
+    Path tempDir;
+
+    private File createTable(int rowCount) throws IOException {
+        StringBuilder xml = new StringBuilder("<table name=\"users\" columns=\"id;name\">\n");
+        for(int i = 0; i < rowCount; ++i){
+            if(i % 7 == 0){
+                xml.append("  <row ><id>").append(i).append("</id></row>\n");
+            } else if(i % 11 == 0){
+                xml.append("  <row></row>\n");
+            } else {
+                xml.append("  <row>\n    <id>").append(i).append("</id>\n    <name>Имя ").append(i)
+                        .append("</name>\n  </row>\n");
+            }
+        }
+        xml.append("</table>\n");
+        Path file = tempDir.resolve("table.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private List<Row> readAllRows(XmlTableReader reader) throws Exception {
+        try(reader){
+            reader.getTable();
+            List<Row> rows = new ArrayList<>();
+            Row row;
+            while((row = reader.readRow()) != null){
+                rows.add(row);
+            }
+            rows.sort(Comparator.comparing(Row::toString));
+            return rows;
+        }
+    }
+
+    @Test
+    public void testSameRowsAsSequentialReader() throws Exception {
+        File xml = createTable(1000);
+        List<Row> expected = readAllRows(new XmlTableReaderImpl(new XmlLazyParser(xml, elementParser)));
+        Assertions.assertEquals(1000, expected.size());
+
+        for(int threads : List.of(1, 2, 3, 8, 64)){
+            List<Row> actual = readAllRows(new ParallelXmlTableReader(xml, elementParser, threads, 10, 4096));
+            Assertions.assertEquals(expected, actual, "Threads = " + threads);
+        }
+    }
+
+    @Test
+    public void testTableAttributes() throws Exception {
+        File xml = createTable(3);
+        try(ParallelXmlTableReader reader = new ParallelXmlTableReader(xml, elementParser, 4)){
+            Assertions.assertEquals("users",
+                    reader.getTable().getElement().getAttributeBy(Attribute.filterByName("name")).get().getValue());
+        }
+    }
+
+    @Test
+    public void testTruncatedFile() throws Exception {
+        File xml = createTable(1000);
+        String content = Files.readString(xml.toPath(), StandardCharsets.UTF_8);
+        Files.writeString(xml.toPath(), content.substring(0, content.lastIndexOf("</table>")), StandardCharsets.UTF_8);
+
+        Assertions.assertThrows(XmlParseException.class,
+                () -> readAllRows(new XmlTableReaderImpl(new XmlLazyParser(xml, elementParser))));
+        for(int threads : List.of(1, 4)){
+            Assertions.assertThrows(XmlParseException.class,
+                    () -> readAllRows(new ParallelXmlTableReader(xml, elementParser, threads, 10, 4096)),
+                    "Threads = " + threads);
+        }
+    }
+
+    @Test
+    public void testErrorInThread() throws Exception {
+        File xml = createTable(1000);
+        XmlElementParser failingParser = new XmlElementParserImpl() {
+            @Override
+            public Element parseElement(CharSequence chars, int start, int end) throws XmlElementParseException {
+                if(chars.subSequence(start, end).toString().startsWith("name")){
+                    throw new StackOverflowError();
+                }
+                return super.parseElement(chars, start, end);
+            }
+        };
+        for(int threads : List.of(1, 4)){
+            IOException e = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> Assertions.assertThrows(
+                    IOException.class,
+                    () -> readAllRows(new ParallelXmlTableReader(xml, failingParser, threads, 10, 4096))
+            ), "Threads = " + threads);
+            Assertions.assertInstanceOf(StackOverflowError.class, e.getCause());
+        }
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        File xml = createTable(0);
+        Assertions.assertTrue(readAllRows(new ParallelXmlTableReader(xml, elementParser, 4)).isEmpty());
+    }
+}
@@ -0,0 +1,56 @@
+package app.xml;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestXmlCharLexer {
+
+    private List<String> readTokens(String xml, int windowSize) throws IOException {
+        XmlCharLexer lexer = new XmlCharLexer(new StringReader(xml), windowSize);
+        List<String> tokens = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        while(true){
+            XmlLexer.TextToken textToken = lexer.scanText();
+            text.append(lexer.sliceToString());
+            if(textToken == XmlLexer.TextToken.END_OF_INPUT){
+                tokens.add(text.toString());
+                return tokens;
+            }
+            if(textToken == XmlLexer.TextToken.MARKUP){
+                tokens.add(text.toString());
+                text.setLength(0);
+                XmlLexer.TagToken tagToken = lexer.scanTag();
+                if(tagToken != XmlLexer.TagToken.TAG){
+                    tokens.add(tagToken.name());
+                    return tokens;
+                }
+                tokens.add("<" + lexer.sliceToString() + ">");
+            }
+        }
+    }
+
+    @Test
+    public void testTagsAcrossWindows() throws IOException {
+        String xml = "<table name=\"users\">\n <row><id>15</id><name>Oleg Ivanov</name></row>\n</table>";
+        List<String> expected = readTokens(xml, XmlCharLexer.DEFAULT_WINDOW_SIZE);
+        for(int windowSize = 1; windowSize < xml.length(); ++windowSize){
+            Assertions.assertEquals(expected, readTokens(xml, windowSize), "Window size = " + windowSize);
+        }
+        Assertions.assertEquals("<table name=\"users\">", expected.get(1));
+        Assertions.assertEquals("Oleg Ivanov", expected.get(10));
+    }
+
+    @Test
+    public void testBrokenTags() throws IOException {
+        List<String> doubleOpen = readTokens("<table><<row>", 3);
+        Assertions.assertEquals("DOUBLE_OPEN", doubleOpen.get(doubleOpen.size() - 1));
+
+        List<String> endInsideTag = readTokens("<table><row", 3);
+        Assertions.assertEquals("END_OF_INPUT", endInsideTag.get(endInsideTag.size() - 1));
+    }
+}
@@ -0,0 +1,88 @@
+package app.xml;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestXmlDecodingReader {
+
+    private static final String TEXT = "<table name=\"users\"><row><name>Иван 😀 ü</name><id>42</id></row>"
+            + "<row><name>Пётр 𝄞</name><id>43</id></row></table>";
+
+    /**
+     * Поток, который отдаёт данные порциями указанного размера, чтобы последовательности байт рвались.
+     */
+    private static InputStream chunked(byte[] data, int chunkSize) {
+        return new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunkSize));
+            }
+        };
+    }
+
+    private static String readAll(Reader reader, int readSize) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] chars = new char[readSize];
+        int count;
+        while((count = reader.read(chars, 0, readSize)) >= 0){
+            result.append(chars, 0, count);
+        }
+        return result.toString();
+    }
+
+    private static void assertSameAsInputStreamReader(byte[] data, Charset charset) throws IOException {
+        String expected = readAll(new InputStreamReader(new ByteArrayInputStream(data), charset), 1024);
+        for(int bufferSize : List.of(4, 5, 7, 64, XmlDecodingReader.DEFAULT_BUFFER_SIZE)){
+            for(int chunkSize : List.of(1, 3, 1024)){
+                for(int readSize : List.of(1, 2, 3, 1024)){
+                    Reader reader = new XmlDecodingReader(chunked(data, chunkSize), charset, bufferSize);
+                    Assertions.assertEquals(expected, readAll(reader, readSize),
+                            String.format("%s: buffer %d, chunk %d, read %d", charset, bufferSize, chunkSize, readSize));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUtf8() throws IOException {
+        assertSameAsInputStreamReader(TEXT.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        assertSameAsInputStreamReader(new byte[0], StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testMalformedUtf8() throws IOException {
+        byte[] valid = TEXT.getBytes(StandardCharsets.UTF_8);
+        byte[] malformed = Arrays.copyOf(valid, valid.length + 8);
+        malformed[10] = (byte) 0xff;
+        // обрезанная последовательность, за которой идёт ASCII-байт
+        malformed[valid.length] = (byte) 0xd0;
+        malformed[valid.length + 1] = '<';
+        malformed[valid.length + 2] = (byte) 0xed;
+        malformed[valid.length + 3] = (byte) 0xa0;
+        malformed[valid.length + 4] = (byte) 0x80;
+        malformed[valid.length + 5] = 'a';
+        // обрезанная последовательность в конце потока
+        malformed[valid.length + 6] = (byte) 0xf0;
+        malformed[valid.length + 7] = (byte) 0x9f;
+        assertSameAsInputStreamReader(malformed, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testOtherCharsets() throws IOException {
+        String text = TEXT.replace("😀 ü", "").replace(" 𝄞", "");
+        Charset windows1251 = Charset.forName("windows-1251");
+        assertSameAsInputStreamReader(text.getBytes(windows1251), windows1251);
+        assertSameAsInputStreamReader(TEXT.getBytes(StandardCharsets.UTF_16), StandardCharsets.UTF_16);
+        assertSameAsInputStreamReader(TEXT.getBytes(StandardCharsets.US_ASCII), StandardCharsets.US_ASCII);
+    }
+}
@@ -71,5 +71,38 @@ public class TestXmlElementParserImpl {
         );
     }
 
+    @Test
+    public void testParseElementSlice() throws XmlElementParseException {
+        String window = "xx<row id = \"1\" rowName=\"row\">yy";
+        Element element = elementParser.parseElement(window, 3, window.length() - 3);
+
+        Assertions.assertEquals("row", element.getName());
+        Assertions.assertEquals(ElementType.OPEN, element.getType());
+        Assertions.assertEquals(
+                List.of(new Attribute("id", "1"), new Attribute("rowName", "row")),
+                element.getAttributes()
+        );
+        Assertions.assertEquals("row",
+                element.getAttributeBy(Attribute.filterByName("rowName")).get().getValue());
+
+        Element close = elementParser.parseElement(new CharSlice("</  row>".toCharArray(), 1, 6), 0, 6);
+        Assertions.assertEquals("row", close.getName());
+        Assertions.assertEquals(ElementType.CLOSE, close.getType());
+        Assertions.assertTrue(close.getAttributes().isEmpty());
+    }
 
+    @Test
+    public void testManyAttributesUniqueness() throws XmlElementParseException {
+        StringBuilder attributes = new StringBuilder();
+        for(int i = 0; i < 100; ++i){
+            attributes.append("attr").append(i).append("=\"").append(i).append("\" ");
+        }
+        Assertions.assertEquals(100, elementParser.parseAttributes(attributes.toString()).size());
+
+        attributes.append("attr57=\"again\"");
+        Assertions.assertThrows(XmlElementParseException.class,
+                ()->elementParser.parseAttributes(attributes.toString()),
+                "Duplicate attribute 'attr57'."
+        );
+    }
 }
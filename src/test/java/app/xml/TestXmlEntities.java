@@ -0,0 +1,53 @@
+package app.xml;
+
+import app.table.Row;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+public class TestXmlEntities {
+
+    @Test
+    public void testDecode() {
+        String plain = "no entities here";
+        Assertions.assertSame(plain, XmlEntities.decode(plain));
+        Assertions.assertEquals("a & b < c > d \" ' e", XmlEntities.decode("a &amp; b &lt; c &gt; d &quot; &apos; e"));
+        Assertions.assertEquals("Пётр 😀", XmlEntities.decode("&#1055;ётр &#x1F600;"));
+        Assertions.assertEquals("&unknown; & &#xZZ; &#0; &amp", XmlEntities.decode("&unknown; & &#xZZ; &#0; &amp"));
+        Assertions.assertEquals("&lt;", XmlEntities.decode("&amp;lt;"));
+        Assertions.assertEquals("b<c", XmlEntities.decode("ab&lt;cd", 1, 7));
+        Assertions.assertEquals("b&l", XmlEntities.decode("ab&ltcd", 1, 4));
+    }
+
+    @Test
+    public void testAppendEscapingAmpersands() {
+        StringBuilder target = new StringBuilder(">");
+        XmlEntities.appendEscapingAmpersands(target, "x&a&&b&", 1);
+        Assertions.assertEquals(">&amp;a&amp;&amp;b&amp;", target.toString());
+        Assertions.assertEquals("&a&&b&", XmlEntities.decode(target.substring(1)));
+    }
+
+    @Test
+    public void testRowValuesAndAttributes() throws Exception {
+        String xml = "<table name=\"a&amp;b\">"
+                + "<row><id>&#49;</id><name>Tom &amp; Jerry <![CDATA[&amp; <raw>]]></name><plain>text</plain></row>"
+                + "</table>";
+        Row expected = new Row(Map.of("id", "1", "name", "Tom & Jerry &amp; <raw>", "plain", "text"));
+        XmlElementParser elementParser = new XmlElementParserImpl();
+        for(int windowSize : List.of(4, XmlCharLexer.DEFAULT_WINDOW_SIZE)){
+            XmlEventReader events = new XmlEventReaderImpl(
+                    new XmlCharLexer(new StringReader(xml), windowSize), elementParser);
+            try(XmlTableReader reader = new XmlTableReaderImpl(events)){
+                Assertions.assertEquals(expected, reader.readRow());
+                Assertions.assertEquals("a&b", reader.getTable().getElement().getAttributes().get(0).getValue());
+            }
+            XmlLazyParser parser = new XmlLazyParser(new XmlCharLexer(new StringReader(xml), windowSize), elementParser);
+            try(XmlTableReader reader = new XmlTableReaderImpl(parser)){
+                Assertions.assertEquals(expected, reader.readRow());
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package app.xml;
+
+import app.table.Row;
+import app.xml.exception.XmlNoMoreNodesException;
+import app.xml.exception.XmlParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TestXmlEventReaderImpl {
+
+    private final XmlElementParser elementParser = new XmlElementParserImpl();
+
+    @TempDir
+    Path tempDir;
+
+    private XmlEventReader createReader(String xml, int windowSize) {
+        return new XmlEventReaderImpl(new XmlCharLexer(new StringReader(xml), windowSize), elementParser);
+    }
+
+    private List<String> readAllEvents(XmlEventReader reader) throws Exception {
+        try(reader){
+            List<String> events = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+            while(reader.hasNext()){
+                XmlEventReader.Event event = reader.next();
+                if(event == XmlEventReader.Event.TEXT){
+                    reader.appendText(text, 0);
+                    continue;
+                }
+                if(text.length() > 0){
+                    events.add("TEXT:" + text);
+                    text.setLength(0);
+                }
+                events.add(event + ":" + reader.getName() + ":" + reader.getDepth());
+            }
+            return events;
+        }
+    }
+
+    @Test
+    public void testEvents() throws Exception {
+        String xml = "\n<table name=\"t\">\n<row><id>1</id><name>long name</name></row></table>\n";
+        List<String> expected = List.of(
+                "START:table:1", "TEXT:\n", "START:row:2", "START:id:3", "TEXT:1", "END:id:3",
+                "START:name:3", "TEXT:long name", "END:name:3", "END:row:2", "END:table:1"
+        );
+        Assertions.assertEquals(expected, readAllEvents(createReader(xml, XmlCharLexer.DEFAULT_WINDOW_SIZE)));
+        Assertions.assertEquals(expected, readAllEvents(createReader(xml, 4)));
+    }
+
+    @Test
+    public void testErrorPosition() throws Exception {
+        String row = "  <row>\n    <id>1</id>\n  </wrong>\n";
+        String xml = "<table>\n" + row + "</table>";
+        Path file = tempDir.resolve("table.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+        for(int windowSize : List.of(4, 5, 16, XmlCharLexer.DEFAULT_WINDOW_SIZE)){
+            XmlParseException e = Assertions.assertThrows(XmlParseException.class,
+                    () -> readAllEvents(createReader(xml, windowSize)));
+            assertPosition(e, xml.indexOf("</table>") - 1, 4, 11);
+            e = Assertions.assertThrows(XmlParseException.class,
+                    () -> readAllEvents(new XmlEventReaderImpl(new XmlMappedLexer(file, windowSize), elementParser)));
+            assertPosition(e, xml.indexOf("</table>") - 1, 4, 11);
+            // диапазон, который начинается не с начала файла
+            long from = xml.indexOf(row);
+            XmlLexer range = new XmlMappedLexer(file, from, from + row.length(), windowSize);
+            e = Assertions.assertThrows(XmlParseException.class, () -> readAllEvents(
+                    new XmlEventReaderImpl(range, elementParser, new Element("table", List.of(), ElementType.OPEN))));
+            assertPosition(e, xml.indexOf("</table>") - 1, 4, 11);
+        }
+    }
+
+    private static void assertPosition(XmlParseException e, long offset, long row, long column) {
+        Assertions.assertNotNull(e.getPosition(), e.getMessage());
+        Assertions.assertEquals(offset, e.getPosition().getOffset(), e.getMessage());
+        Assertions.assertEquals(row, e.getPosition().getRow(), e.getMessage());
+        Assertions.assertEquals(column, e.getPosition().getColumn(), e.getMessage());
+        Assertions.assertTrue(e.getMessage().endsWith("(line " + row + ", column " + column + ")"), e.getMessage());
+    }
+
+    @Test
+    public void testPrologCommentsAndCData() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<!DOCTYPE table [<!ELEMENT table (row*)> <!-- <b> -->]>\n"
+                + "<!-- <table> -- comment -->\n"
+                + "<table><?pi <x> ?><row><!----><id>1<!-- > --></id>"
+                + "<name><![CDATA[<b>Имя</b> ]] ]>]]>!<![CDATA[]]></name></row></table>\n"
+                + "<!-- end --><?pi?>";
+        List<String> expected = List.of(
+                "START:table:1", "START:row:2", "START:id:3", "TEXT:1", "END:id:3",
+                "START:name:3", "TEXT:<b>Имя</b> ]] ]>!", "END:name:3", "END:row:2", "END:table:1"
+        );
+        Path file = tempDir.resolve("table.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+        for(int windowSize : List.of(4, 5, 16, XmlCharLexer.DEFAULT_WINDOW_SIZE)){
+            Assertions.assertEquals(expected, readAllEvents(createReader(xml, windowSize)), "Window " + windowSize);
+            XmlEventReader mapped = new XmlEventReaderImpl(new XmlMappedLexer(file, windowSize), elementParser);
+            Assertions.assertEquals(expected, readAllEvents(mapped), "Mapped window " + windowSize);
+        }
+    }
+
+    @Test
+    public void testUnterminatedMarkup() {
+        for(String xml : List.of("<a><!-- a", "<a><![CDATA[ a ]]", "<?xml ", "<!DOCTYPE a [ > ")){
+            Assertions.assertThrows(XmlParseException.class, () -> readAllEvents(createReader(xml, 4)), xml);
+        }
+        Assertions.assertThrows(XmlParseException.class,
+                () -> readAllEvents(createReader("<![CDATA[a]]><a></a>", 16)));
+    }
+
+    @Test
+    public void testNoMoreEvents() throws Exception {
+        XmlEventReader reader = createReader("<table></table>", XmlCharLexer.DEFAULT_WINDOW_SIZE);
+        Assertions.assertEquals(XmlEventReader.Event.START, reader.next());
+        Assertions.assertEquals(XmlEventReader.Event.END, reader.next());
+        Assertions.assertFalse(reader.hasNext());
+        Assertions.assertThrows(XmlNoMoreNodesException.class, reader::next);
+        Assertions.assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testErrors() {
+        Assertions.assertThrows(XmlParseException.class,
+                () -> readAllEvents(createReader("  ", 16)), "File is empty.");
+        Assertions.assertThrows(XmlParseException.class,
+                () -> readAllEvents(createReader("<a></a><b></b>", 16)), "Multiply root elements.");
+        Assertions.assertThrows(XmlParseException.class,
+                () -> readAllEvents(createReader("<a><b></a>", 16)),
+                "Close element name does not equal to the current node one.");
+        Assertions.assertThrows(XmlParseException.class,
+                () -> readAllEvents(createReader("<a><b></b>", 16)), "Xml file closed before end.");
+        Assertions.assertThrows(XmlParseException.class,
+                () -> readAllEvents(createReader("<a></a>text", 16)));
+    }
+
+    @Test
+    public void testErrorIsRethrown() throws IOException {
+        XmlEventReader reader = createReader("<a><b></c></a>", 16);
+        reader.next();
+        reader.next();
+        IOException first = Assertions.assertThrows(XmlParseException.class, reader::next);
+        IOException second = Assertions.assertThrows(XmlParseException.class, reader::hasNext);
+        Assertions.assertSame(first, second);
+    }
+
+    @Test
+    public void testTableReaderOverEventsAndNodes() throws Exception {
+        String xml = "<table>\n"
+                + "  <row><id>1</id>\n<address> street <city>Moscow</city> 5</address></row>\n"
+                + "  <row></row>\n"
+                + "  <row><id>2</id><id>3</id></row>\n"
+                + "</table>";
+        List<Row> expected = List.of(
+                new Row(Map.of("id", "1", "address", "street  5", "city", "Moscow")),
+                new Row(Map.of()),
+                new Row(Map.of("id", "3"))
+        );
+        XmlLazyParser parser = new XmlLazyParser(
+                new XmlCharLexer(new StringReader(xml), 8), elementParser);
+
+        Assertions.assertEquals(expected, readAllRows(new XmlTableReaderImpl(createReader(xml, 8))));
+        Assertions.assertEquals(expected, readAllRows(new XmlTableReaderImpl(parser)));
+    }
+
+    private List<Row> readAllRows(XmlTableReader reader) throws Exception {
+        try(reader){
+            List<Row> rows = new ArrayList<>();
+            Row row;
+            while((row = reader.readRow()) != null){
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+}
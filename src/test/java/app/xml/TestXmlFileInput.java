@@ -0,0 +1,164 @@
+package app.xml;
+
+import app.table.Row;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class TestXmlFileInput {
+
+    private final XmlElementParser elementParser = new XmlElementParserImpl();
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] createTable(int rowCount) {
+        StringBuilder xml = new StringBuilder("<table name=\"users\">\n");
+        for(int i = 0; i < rowCount; ++i){
+            xml.append("  <row><id>").append(i).append("</id><name>Имя ").append(i).append("</name></row>\n");
+        }
+        xml.append("</table>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private File write(String name, byte[] data) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, data);
+        return file.toFile();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try(OutputStream out = new GZIPOutputStream(result)){
+            out.write(data);
+        }
+        return result.toByteArray();
+    }
+
+    private static byte[] zlib(byte[] data) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try(OutputStream out = new DeflaterOutputStream(result)){
+            out.write(data);
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Сжимает данные в формате BGZF: независимые gzip-блоки с полем размера "BC" и пустой блок в конце.
+     */
+    private static byte[] bgzf(byte[] data, int blockDataSize) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        for(int from = 0; from <= data.length; from += blockDataSize){
+            byte[] chunk = Arrays.copyOfRange(data, from, Math.min(data.length, from + blockDataSize));
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(chunk);
+            deflater.finish();
+            byte[] compressed = new byte[chunk.length + 1024];
+            int compressedLength = deflater.deflate(compressed);
+            deflater.end();
+
+            CRC32 crc = new CRC32();
+            crc.update(chunk);
+            ByteBuffer block = ByteBuffer.allocate(18 + compressedLength + 8).order(ByteOrder.LITTLE_ENDIAN);
+            block.put((byte) 0x1f).put((byte) 0x8b).put((byte) 8).put((byte) 4).putInt(0)
+                    .put((byte) 0).put((byte) 0xff).putShort((short) 6)
+                    .put((byte) 'B').put((byte) 'C').putShort((short) 2)
+                    .putShort((short) (block.capacity() - 1))
+                    .put(compressed, 0, compressedLength)
+                    .putInt((int) crc.getValue()).putInt(chunk.length);
+            result.writeBytes(block.array());
+        }
+        return result.toByteArray();
+    }
+
+    private List<Row> readAllRows(File file) throws Exception {
+        try(XmlTableReader reader = new XmlTableReaderImpl(new XmlEventReaderImpl(file, elementParser))){
+            List<Row> rows = new ArrayList<>();
+            Row row;
+            while((row = reader.readRow()) != null){
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    @Test
+    public void testCompressedFilesAreReadOnTheFly() throws Exception {
+        byte[] xml = createTable(3000);
+        File plain = write("table.xml", xml);
+        List<Row> expected = readAllRows(plain);
+        Assertions.assertEquals(3000, expected.size());
+
+        byte[] half = Arrays.copyOf(xml, xml.length / 2);
+        byte[] rest = Arrays.copyOfRange(xml, xml.length / 2, xml.length);
+        byte[] multiMember = ByteBuffer.allocate(gzip(half).length + gzip(rest).length)
+                .put(gzip(half)).put(gzip(rest)).array();
+
+        File gz = write("table.xml.gz", gzip(xml));
+        File multiMemberGz = write("multi.xml.gz", multiMember);
+        File bgzf = write("table.xml.bgz", bgzf(xml, 4096));
+        File deflated = write("table.xml.zz", zlib(xml));
+
+        Assertions.assertEquals(XmlFileInput.Compression.NONE, XmlFileInput.detectCompression(plain));
+        Assertions.assertEquals(XmlFileInput.Compression.GZIP, XmlFileInput.detectCompression(gz));
+        Assertions.assertEquals(XmlFileInput.Compression.GZIP, XmlFileInput.detectCompression(multiMemberGz));
+        Assertions.assertEquals(XmlFileInput.Compression.BGZF, XmlFileInput.detectCompression(bgzf));
+        Assertions.assertEquals(XmlFileInput.Compression.ZLIB, XmlFileInput.detectCompression(deflated));
+
+        for(File file : List.of(gz, multiMemberGz, bgzf, deflated)){
+            Assertions.assertEquals(expected, readAllRows(file), file.getName());
+        }
+    }
+
+    @Test
+    public void testParallelGzipMatchesSequential() throws Exception {
+        byte[] xml = createTable(2000);
+        File bgzf = write("table.xml.bgz", bgzf(xml, 1000));
+        for(int threads : List.of(1, 2, 4)){
+            try(InputStream in = XmlFileInput.open(bgzf, threads)){
+                Assertions.assertArrayEquals(xml, in.readAllBytes(), "Threads = " + threads);
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptedBlock() throws Exception {
+        byte[] compressed = bgzf(createTable(100), 1000);
+        compressed[compressed.length / 2] ^= 0x55;
+        File bgzf = write("broken.xml.bgz", compressed);
+        try(InputStream in = XmlFileInput.open(bgzf, 2)){
+            Assertions.assertThrows(IOException.class, in::readAllBytes);
+            Assertions.assertThrows(IOException.class, in::readAllBytes);
+            Assertions.assertThrows(IOException.class, in::read);
+        }
+    }
+
+    @Test
+    public void testTruncatedGzip() throws Exception {
+        byte[] compressed = gzip(createTable(3000));
+        File gz = write("truncated.xml.gz", Arrays.copyOf(compressed, compressed.length / 2));
+        try(InputStream in = XmlFileInput.open(gz)){
+            Assertions.assertThrows(IOException.class, in::readAllBytes);
+            Assertions.assertThrows(IOException.class, in::readAllBytes);
+            Assertions.assertThrows(IOException.class, in::read);
+        }
+    }
+}
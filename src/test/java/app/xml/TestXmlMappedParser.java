@@ -0,0 +1,83 @@
+package app.xml;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestXmlMappedParser {
+
+    private ClassLoader classLoader = TestXmlMappedParser.class.getClassLoader();
+    private XmlElementParser elementParser = new XmlElementParserImpl();
+
+    @TempDir
+    Path tempDir;
+
+    private List<Node> readAllNodes(XmlParser parser) throws Exception {
+        try(parser) {
+            List<Node> res = new ArrayList<>();
+            while (parser.hasNextNode()) {
+                res.add(parser.getNextNode());
+            }
+            return res;
+        }
+    }
+
+    private File getXmlFile(String path) throws URISyntaxException {
+        URI testDirectory = classLoader.getResource("").toURI();
+        return new File(testDirectory.resolve(path));
+    }
+
+    private void assertSameNodes(File xml, int maxWindowSize) throws Exception {
+        List<Node> expected = readAllNodes(new XmlLazyParser(xml, elementParser));
+        for(int windowSize = 4; windowSize <= maxWindowSize; ++windowSize){
+            List<Node> actual = readAllNodes(new XmlMappedParser(xml, elementParser, windowSize));
+            Assertions.assertEquals(expected.size(), actual.size(), "Window size = " + windowSize);
+            for(int i = 0; i < expected.size(); ++i){
+                Assertions.assertEquals(expected.get(i), actual.get(i), "Window size = " + windowSize);
+            }
+        }
+    }
+
+    @Test
+    public void testValidExamples() throws Exception {
+        for(String name : List.of("double_close_tag.xml", "several_rows.xml", "spaces_after_line_in_close_element.xml")){
+            assertSameNodes(getXmlFile("xmls/valids/" + name), 64);
+        }
+    }
+
+    @Test
+    public void testMultiByteCharsOnWindowBorders() throws Exception {
+        String xml = "<table name=\"пользователи\">\n"
+                + "  <row><имя>Олег €𝄞</имя><city> Москва </city></row>\n"
+                + "  <row><имя>Ёжик</имя><city>Санкт-Петербург</city></row>\n"
+                + "</table>\n";
+        Path file = tempDir.resolve("utf8.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+
+        assertSameNodes(file.toFile(), xml.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void testNotValidExamples() throws URISyntaxException {
+        for(String name : List.of("double_open_tag.xml", "end_of_file_inside_element.xml",
+                "unexpected_symbol_before_root.xml", "symbols_after_end.xml", "element_after_xml_end.xml")){
+            File xml = getXmlFile("xmls/withErrors/" + name);
+            IOException expected = Assertions.assertThrows(IOException.class,
+                    () -> readAllNodes(new XmlLazyParser(xml, elementParser)));
+            IOException actual = Assertions.assertThrows(IOException.class,
+                    () -> readAllNodes(new XmlMappedParser(xml, elementParser, 8)));
+            Assertions.assertEquals(expected.getClass(), actual.getClass(), name);
+            Assertions.assertEquals(expected.getMessage(), actual.getMessage(), name);
+        }
+    }
+}
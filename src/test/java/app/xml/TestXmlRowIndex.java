@@ -0,0 +1,137 @@
+package app.xml;
+
+import app.table.Row;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+public class TestXmlRowIndex {
+
+    private final XmlElementParser elementParser = new XmlElementParserImpl();
+
+    @TempDir
+    Path tempDir;
+
+    private Path createTable(int rowCount) throws IOException {
+        StringBuilder xml = new StringBuilder("<table name=\"users\" columns=\"id;name\">");
+        for(int i = 0; i < rowCount; ++i){
+            if(i % 5 == 0){
+                xml.append("<row><id>").append(i).append("</id></row>");
+            } else if(i % 7 == 0){
+                xml.append("\n  <!-- <row> --><row>\n<id>").append(i).append("</id><name><![CDATA[<row>]]></name></row>");
+            } else {
+                xml.append("\n  <row>\n    <id>").append(i).append("</id>\n    <name>Имя ").append(i)
+                        .append("</name>\n  </row>");
+            }
+        }
+        xml.append("\n</table>\n");
+        Path file = tempDir.resolve("table.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<Row> readAllRows(XmlTableReader reader) throws Exception {
+        try(reader){
+            List<Row> rows = new ArrayList<>();
+            Row row;
+            while((row = reader.readRow()) != null){
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    @Test
+    public void testOpenRows() throws Exception {
+        Path file = createTable(50);
+        List<Row> expected = readAllRows(new XmlTableReaderImpl(new XmlLazyParser(file.toFile(), elementParser)));
+        XmlTableReaderFactory factory = new XmlTableReaderFactory(file.toFile(), elementParser, 64);
+        for(int step : List.of(1, 3, 7, 50, 100)){
+            XmlRowIndex index = XmlRowIndex.build(file, elementParser, step);
+            Assertions.assertEquals(50, index.getRowCount());
+            for(int from : List.of(0, 1, 6, 7, 21, 49, 50, 60)){
+                for(long to : List.of((long) from, from + 1L, from + 13L, 50L, Long.MAX_VALUE)){
+                    if(to < from){
+                        continue;
+                    }
+                    List<Row> actual = readAllRows(factory.openRows(index, from, to));
+                    int fromRow = Math.min(from, 50);
+                    int toRow = (int) Math.min(to, 50);
+                    Assertions.assertEquals(expected.subList(fromRow, Math.max(fromRow, toRow)), actual,
+                            String.format("Step %d, rows [%d, %d)", step, from, to));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        Path file = createTable(20);
+        Assertions.assertNull(XmlRowIndex.load(file));
+        XmlRowIndex built = XmlRowIndex.loadOrBuild(file, elementParser, 4);
+        Assertions.assertTrue(Files.exists(XmlRowIndex.indexPath(file)));
+
+        XmlRowIndex loaded = XmlRowIndex.load(file);
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals(built.getRowCount(), loaded.getRowCount());
+        Assertions.assertEquals(built.getStep(), loaded.getStep());
+        for(long row = 0; row <= 20; row += 4){
+            Assertions.assertEquals(built.getIndexedRowOffset(row), loaded.getIndexedRowOffset(row));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> loaded.getIndexedRowOffset(1));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        Assertions.assertNull(XmlRowIndex.load(file));
+        XmlTableReaderFactory factory = new XmlTableReaderFactory(file.toFile(), elementParser);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> factory.openRows(loaded, 0, 1));
+        Assertions.assertEquals(20, XmlRowIndex.loadOrBuild(file, elementParser, 4).getRowCount());
+        Assertions.assertNotNull(XmlRowIndex.load(file));
+
+        Files.write(XmlRowIndex.indexPath(file), new byte[]{1, 2, 3});
+        Assertions.assertNull(XmlRowIndex.load(file));
+    }
+
+    @Test
+    public void testOpenRange() throws Exception {
+        File file = createTable(0).toFile();
+        XmlTableReaderFactory factory = new XmlTableReaderFactory(file, elementParser);
+        Assertions.assertEquals("users",
+                factory.getTable().getElement().getAttributeBy(Attribute.filterByName("name")).get().getValue());
+        Assertions.assertTrue(readAllRows(factory.openRange(factory.getBodyStart(), file.length())).isEmpty());
+        Assertions.assertTrue(
+                readAllRows(factory.openRows(XmlRowIndex.build(file.toPath(), elementParser, 2), 0, 10)).isEmpty());
+    }
+
+    @Test
+    public void testRowRangeReaderOnCompressedFile() throws Exception {
+        Path file = createTable(50);
+        List<Row> expected = readAllRows(new XmlTableReaderImpl(new XmlLazyParser(file.toFile(), elementParser)));
+        Path compressed = tempDir.resolve("table.xml.gz");
+        try(GZIPOutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))){
+            Files.copy(file, out);
+        }
+        for(int from : List.of(0, 7, 49, 50, 60)){
+            for(long to : List.of((long) from, from + 13L, Long.MAX_VALUE)){
+                XmlTableReader reader = new RowRangeReader(new XmlTableReaderImpl(
+                        new XmlEventReaderImpl(compressed.toFile(), elementParser, StandardCharsets.UTF_8)),
+                        from, to - from);
+                int fromRow = Math.min(from, 50);
+                int toRow = (int) Math.min(to, 50);
+                Assertions.assertEquals(expected.subList(fromRow, toRow), readAllRows(reader),
+                        String.format("Rows [%d, %d)", from, to));
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RowRangeReader.checkRange(-1, 5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RowRangeReader.checkRange(5, 4));
+    }
+}
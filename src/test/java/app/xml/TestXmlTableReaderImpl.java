@@ -1,14 +1,22 @@
 package app.xml;
 
+import app.table.Column;
 import app.table.Row;
+import app.table.RowSchema;
 import app.xml.exception.XmlUnexpectedElementMetException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class TestXmlTableReaderImpl {
 
@@ -47,6 +55,93 @@ public class TestXmlTableReaderImpl {
 
     }
 
+    @Test
+    public void testRecycleNodes(@TempDir Path tempDir) throws Exception {
+        StringBuilder xml = new StringBuilder("<table>");
+        for(int i = 0; i < 50; ++i){
+            if(i % 5 == 0){
+                xml.append("<row></row>");
+            } else {
+                xml.append("<row><id>").append(i).append("</id><address><city>c").append(i)
+                        .append("</city></address></row>");
+            }
+        }
+        xml.append("</table>");
+        Path file = tempDir.resolve("table.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+
+        List<Row> expected = readAllRows(new XmlTableReaderImpl(
+                new XmlLazyParser(file.toFile(), new XmlElementParserImpl())));
+        List<Node> createdNodes = new ArrayList<>();
+        XmlLazyParser parser = new XmlLazyParser(file.toFile(), new XmlElementParserImpl()){
+            @Override
+            public Node getNextNode() throws IOException {
+                Node node = super.getNextNode();
+                if(createdNodes.stream().noneMatch(created -> created == node)){
+                    createdNodes.add(node);
+                }
+                return node;
+            }
+        };
+        List<Row> actual = readAllRows(new XmlTableReaderImpl(parser, true));
+
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertTrue(createdNodes.size() < 20, "Distinct nodes = " + createdNodes.size());
+    }
+
+    private List<Row> readAllRows(XmlTableReader reader) throws Exception {
+        try(reader){
+            List<Row> rows = new ArrayList<>();
+            Row row;
+            while((row = reader.readRow()) != null){
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    @Test
+    public void testReadRowsWithColumns() throws Exception {
+        StringBuilder xml = new StringBuilder("<table>");
+        List<Row> expected = new ArrayList<>();
+        for(int i = 0; i < 40; ++i){
+            String name = "name number " + i;
+            if(i % 3 == 0){
+                xml.append("<row><id>").append(i).append("</id><extra>x</extra></row>");
+            } else if(i % 3 == 1){
+                xml.append("<row><id>").append(i).append("</id><name>\n ").append(name).append("</name>")
+                        .append("<id>").append(i).append("</id></row>");
+                expected.add(new Row(Map.of("id", String.valueOf(i), "name", name)));
+            } else {
+                xml.append("<row><id>").append(i).append("</id></row>");
+            }
+        }
+        xml.append("</table>");
+        for(int windowSize : List.of(3, 7, 16, XmlCharLexer.DEFAULT_WINDOW_SIZE)){
+            XmlEventReader events = new XmlEventReaderImpl(
+                    new XmlCharLexer(new StringReader(xml.toString()), windowSize), new XmlElementParserImpl());
+            try(XmlTableReader reader = new XmlTableReaderImpl(events)){
+                List<Row> actual = new ArrayList<>();
+                Row row;
+                while((row = reader.readRow(Set.of("id", "name"))) != null){
+                    actual.add(row);
+                }
+                Assertions.assertEquals(expected, actual, "Window " + windowSize);
+            }
+            events = new XmlEventReaderImpl(
+                    new XmlCharLexer(new StringReader(xml.toString()), windowSize), new XmlElementParserImpl());
+            RowSchema schema = new RowSchema(List.of(new Column("name"), new Column("id")));
+            try(XmlTableReader reader = new XmlTableReaderImpl(events)){
+                List<Row> actual = new ArrayList<>();
+                Row row;
+                while((row = reader.readRow(schema)) != null){
+                    actual.add(row);
+                }
+                Assertions.assertEquals(expected, actual, "Schema, window " + windowSize);
+            }
+        }
+    }
+
     @Test
     public void testReadNotRowNode(){
 